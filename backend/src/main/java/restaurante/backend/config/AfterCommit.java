@@ -0,0 +1,40 @@
+package restaurante.backend.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta trabajo en memoria (cachés, índices, contadores, eventos SSE) solo cuando
+ * la transacción en curso se confirma, para no publicar cambios que luego se revierten.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Ejecuta {@code action} tras el commit de la transacción en curso, o de inmediato si no hay una.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Para invalidaciones: ejecuta {@code action} ya y, si hay una transacción en curso, otra vez
+     * tras el commit, por si alguien volvió a cargar el estado anterior mientras tanto.
+     */
+    public static void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            run(action);
+        }
+    }
+}
@@ -1,24 +1,153 @@
 package restaurante.backend.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Ejecutores de tareas asíncronas de la aplicación.
+ *
+ * Carriles de envío de email:
+ *
+ * - {@code transactionalEmailExecutor}: emails de bienvenida (los de órdenes
+ *   pasan por el outbox, ver {@code EmailOutboxDispatcher}). Hilos de prioridad
+ *   alta; si su cola se llena, el email se envía en el hilo que lo pidió
+ *   (CallerRuns) en vez de descartarse.
+ * - {@code bulkEmailExecutor}: campañas de marketing. Hilos de prioridad baja y
+ *   cola corta; si se llena, la campaña se rechaza y el llamador responde 503.
+ *
+ * Cada carril publica en el actuator (/actuator/metrics) la profundidad y
+ * capacidad de su cola, el tiempo de espera en cola, el tiempo de ejecución y
+ * los rechazos, con la etiqueta {@code lane}.
+ *
+ * Además, ejecutores propios para el feed de órdenes ({@code orderFeedExecutor}),
+ * las alertas de stock ({@code stockAlertExecutor}, un solo hilo para conservar el
+ * orden) y los workers de la recepción asíncrona de órdenes ({@code orderIntakeExecutor}).
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "emailTaskExecutor")
-    public Executor emailTaskExecutor() {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    @Bean(name = "transactionalEmailExecutor")
+    public Executor transactionalEmailExecutor(MeterRegistry meterRegistry) {
+        return buildLane("transactional", "EmailSender-", 2, 5, 100, Thread.NORM_PRIORITY + 2,
+                new ThreadPoolExecutor.CallerRunsPolicy(), meterRegistry);
+    }
+
+    @Bean(name = "bulkEmailExecutor")
+    public Executor bulkEmailExecutor(MeterRegistry meterRegistry) {
+        return buildLane("bulk", "BulkEmailSender-", 1, 2, 10, Thread.MIN_PRIORITY,
+                new ThreadPoolExecutor.AbortPolicy(), meterRegistry);
+    }
+
+    // Envío de eventos del feed de órdenes (SSE) a cada cocina; ver OrderFeedService
+    @Bean(name = "orderFeedExecutor")
+    public Executor orderFeedExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("EmailSender-");
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("OrderFeed-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Envío de alertas de stock (SSE) en un solo hilo para conservar el orden; ver StockAlertService
+    @Bean(name = "stockAlertExecutor")
+    public Executor stockAlertExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("StockAlert-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Workers de la recepción asíncrona de órdenes; ver OrderIntakeService. Cada tarea
+    // vacía la cola de order_intake, así que basta con una señal pendiente por worker.
+    @Bean(name = "orderIntakeExecutor")
+    public Executor orderIntakeExecutor(@Value("${order.intake.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("OrderIntake-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
         executor.initialize();
         return executor;
     }
+
+    private ThreadPoolTaskExecutor buildLane(String lane, String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                             int queueCapacity, int threadPriority,
+                                             RejectedExecutionHandler backpressurePolicy, MeterRegistry meterRegistry) {
+        Timer queueWait = Timer.builder("email.lane.queue.wait")
+                .description("Tiempo que una tarea de email espera en la cola del carril")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        Timer execution = Timer.builder("email.lane.execution")
+                .description("Tiempo de ejecución de una tarea de email")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("email.lane.rejected")
+                .description("Tareas que no cupieron en la cola del carril")
+                .tag("lane", lane)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setThreadPriority(threadPriority);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            logger.warn("Email lane '{}' is full ({} queued), applying {}",
+                    lane, pool.getQueue().size(), backpressurePolicy.getClass().getSimpleName());
+            backpressurePolicy.rejectedExecution(task, pool);
+        });
+        executor.setTaskDecorator(task -> {
+            long enqueuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    execution.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executor.initialize();
+
+        Gauge.builder("email.lane.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Tareas de email en espera")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        Gauge.builder("email.lane.queue.remaining", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().remainingCapacity())
+                .description("Capacidad libre de la cola del carril")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        Gauge.builder("email.lane.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Hilos del carril enviando emails")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        return executor;
+    }
 }
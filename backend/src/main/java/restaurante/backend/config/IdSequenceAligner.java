@@ -0,0 +1,71 @@
+package restaurante.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adelanta las secuencias de ids (ver {@code V10__Create_Pooled_Id_Sequences.sql})
+ * por encima del id más alto de su tabla antes de que la aplicación inserte nada.
+ *
+ * Con {@code ddl-auto=update} Hibernate crea la secuencia que falte empezando en 1,
+ * aunque la tabla ya tenga filas creadas con IDENTITY; sin este ajuste los primeros
+ * INSERT chocarían con ids existentes. Nunca retrocede una secuencia.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    // Debe coincidir con allocationSize de los @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Secuencia -> tabla
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders_seq", "orders",
+            "order_meals_seq", "order_meals",
+            "order_drinks_seq", "order_drinks",
+            "order_promotions_seq", "order_promotions",
+            "sales_seq", "sales",
+            "sale_items_seq", "sale_items",
+            "mermas_seq", "mermas",
+            "time_entries_seq", "time_entries",
+            "user_consents_seq", "user_consents",
+            "email_outbox_seq", "email_outbox");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String sequence, String table) {
+        List<Long> maxIds = jdbcTemplate.queryForList("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long maxId = maxIds.isEmpty() ? 0 : maxIds.get(0);
+        if (maxId == 0) {
+            return;
+        }
+
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(state.get("is_called"));
+        // El optimizador pooled usa [valor - 49, valor] del siguiente nextval
+        long nextValue = called ? lastValue + ALLOCATION_SIZE : lastValue;
+        if (nextValue - ALLOCATION_SIZE + 1 > maxId) {
+            return;
+        }
+
+        jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, maxId + ALLOCATION_SIZE);
+        logger.info("Sequence {} advanced past max id {} of table {}", sequence, maxId, table);
+    }
+}
@@ -1,5 +1,6 @@
 package restaurante.backend.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -63,7 +64,9 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> 
-                auth.requestMatchers("/api/auth/**").permitAll()
+                // Los despachos ASYNC (p. ej. el feed SSE de órdenes) ya se autorizaron en la petición original
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                    .requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/menu/**").permitAll()
                     .requestMatchers("/api/promotions/**").permitAll() // Permitir acceso público a promociones
                     .requestMatchers("/api/files/**").permitAll() // Allow public access to file serving
@@ -81,6 +84,7 @@ public class SecurityConfig {
                     .requestMatchers("/api/admin/time-entries/**").hasAnyRole("ADMIN", "GERENTE")
                     .requestMatchers("/api/coupons/**").hasAnyRole("ADMIN", "GERENTE")
                     .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN") // Métricas internas solo para administradores
                     .anyRequest().authenticated()
             );
 
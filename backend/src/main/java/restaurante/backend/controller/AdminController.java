@@ -1,20 +1,29 @@
 package restaurante.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import restaurante.backend.dto.DrinkDTO;
 import restaurante.backend.dto.MealDTO;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.dto.OrderSearchCriteria;
 import restaurante.backend.entity.Drink;
 import restaurante.backend.entity.Meal;
 import restaurante.backend.entity.Order;
 import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
 import restaurante.backend.service.MenuService;
+import restaurante.backend.service.OrderFeedService;
 import restaurante.backend.service.OrderService;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +39,9 @@ public class AdminController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderFeedService orderFeedService;
+
     // Meal Management
     @PostMapping("/meals")
     public ResponseEntity<Meal> createMeal(@Valid @RequestBody MealDTO mealDTO) {
@@ -168,21 +180,49 @@ public class AdminController {
     }
 
     // Order Management
+    // Sin parámetros devuelve la lista completa (compatibilidad); con cursor, limit o
+    // algún filtro devuelve una página por keyset (OrderPageDTO).
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrdersForAdmin() {
-        List<Order> orders = orderService.getAllOrdersForAdmin();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getAllOrdersForAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String orderType,
+            @RequestParam(required = false) Integer tableNumber,
+            @RequestParam(required = false) String employeeId) {
+        if (cursor == null && limit == null && from == null && to == null && status == null
+                && orderType == null && tableNumber == null && employeeId == null) {
+            List<OrderDTO> orders = orderService.getAllOrdersForAdmin();
+            return ResponseEntity.ok(orders);
+        }
+        try {
+            OrderSearchCriteria criteria = buildCriteria(from, to, orderType, tableNumber, employeeId);
+            if (status != null) {
+                criteria.setStatus(OrderStatus.valueOf(status.toUpperCase()));
+            }
+            return ResponseEntity.ok(orderService.getOrdersPage(criteria, cursor, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Feed en vivo para pantallas de cocina: snapshot inicial + eventos incrementales (SSE)
+    @GetMapping(value = "/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderFeedService.subscribe(lastEventId);
     }
 
     @PutMapping("/orders/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestBody Map<String, String> statusRequest) {
+    public ResponseEntity<OrderDTO> updateOrderStatus(@PathVariable Long id, @RequestBody Map<String, String> statusRequest) {
         System.out.println("======= UPDATE ORDER STATUS REQUEST =======");
         System.out.println("Order ID: " + id);
         System.out.println("Status Request: " + statusRequest);
         
         try {
             // Check if order exists first
-            Order existingOrder = orderService.getOrderById(id);
+            OrderDTO existingOrder = orderService.getOrderById(id);
             if (existingOrder == null) {
                 System.out.println("ERROR: Order with ID " + id + " not found in database");
                 return ResponseEntity.notFound().build();
@@ -195,7 +235,7 @@ public class AdminController {
             
             Order updatedOrder = orderService.updateOrderStatus(id, status);
             System.out.println("Successfully updated order status");
-            return ResponseEntity.ok(updatedOrder);
+            return ResponseEntity.ok(OrderDTO.from(updatedOrder));
         } catch (IllegalArgumentException e) {
             System.out.println("ERROR: Invalid status value - " + e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -207,22 +247,49 @@ public class AdminController {
     }
 
     @GetMapping("/orders/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String orderType,
+            @RequestParam(required = false) Integer tableNumber,
+            @RequestParam(required = false) String employeeId) {
         try {
             OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-            List<Order> orders = orderService.getOrdersByStatus(orderStatus);
-            return ResponseEntity.ok(orders);
-        } catch (IllegalArgumentException e) {
+            if (cursor == null && limit == null && from == null && to == null
+                    && orderType == null && tableNumber == null && employeeId == null) {
+                List<OrderDTO> orders = orderService.getOrdersByStatus(orderStatus);
+                return ResponseEntity.ok(orders);
+            }
+            OrderSearchCriteria criteria = buildCriteria(from, to, orderType, tableNumber, employeeId);
+            criteria.setStatus(orderStatus);
+            return ResponseEntity.ok(orderService.getOrdersPage(criteria, cursor, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    private OrderSearchCriteria buildCriteria(LocalDateTime from, LocalDateTime to, String orderType,
+                                              Integer tableNumber, String employeeId) {
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        if (orderType != null) {
+            criteria.setOrderType(OrderType.valueOf(orderType.toUpperCase()));
+        }
+        criteria.setTableNumber(tableNumber);
+        criteria.setEmployeeId(employeeId);
+        return criteria;
+    }
+
     @PutMapping("/orders/{id}/paid")
-    public ResponseEntity<Order> updateOrderPaidStatus(@PathVariable Long id, @RequestBody Map<String, Boolean> paidRequest) {
+    public ResponseEntity<OrderDTO> updateOrderPaidStatus(@PathVariable Long id, @RequestBody Map<String, Boolean> paidRequest) {
         try {
             Boolean paid = paidRequest.get("paid");
             Order updatedOrder = orderService.updateOrderPaidStatus(id, paid);
-            return ResponseEntity.ok(updatedOrder);
+            return ResponseEntity.ok(OrderDTO.from(updatedOrder));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,24 @@
+package restaurante.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import restaurante.backend.dto.TodayDashboardDTO;
+import restaurante.backend.service.TodayMetricsService;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+
+    @Autowired
+    private TodayMetricsService todayMetricsService;
+
+    // Ventas, órdenes y mermas del día desde los contadores en memoria
+    @GetMapping("/today")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GERENTE')")
+    public ResponseEntity<TodayDashboardDTO> getToday() {
+        return ResponseEntity.ok(todayMetricsService.getToday());
+    }
+}
@@ -0,0 +1,103 @@
+package restaurante.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import restaurante.backend.service.ExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Descargas completas para contabilidad: {@code /api/exports/{sales|sale-items|orders|mermas}}.
+ *
+ * Parámetros opcionales: {@code format} (csv o ndjson), {@code startDate} /
+ * {@code endDate} en ISO como el resto de reportes, {@code afterId} para retomar
+ * una descarga cortada y {@code limit} para bajarla por tramos. La respuesta se
+ * comprime con gzip si el cliente lo acepta.
+ */
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/{dataset}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GERENTE')")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(defaultValue = "csv") String format,
+                       @RequestParam(required = false) String startDate,
+                       @RequestParam(required = false) String endDate,
+                       @RequestParam(required = false) Long afterId,
+                       @RequestParam(required = false) Integer limit,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        ExportService.Dataset target;
+        ExportService.Format outputFormat;
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            target = ExportService.Dataset.fromPath(dataset);
+            outputFormat = ExportService.Format.valueOf(format.toUpperCase());
+            DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+            start = startDate != null ? LocalDateTime.parse(startDate, formatter) : null;
+            end = endDate != null ? LocalDateTime.parse(endDate, formatter) : null;
+            if (limit != null && limit <= 0) {
+                throw new IllegalArgumentException("limit debe ser positivo");
+            }
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        boolean csv = outputFormat == ExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + target.getPath() + (csv ? ".csv" : ".ndjson") + "\"");
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            exportService.export(target, outputFormat, start, end, afterId, limit, writer);
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga; puede retomarla con afterId
+            logger.warn("Export of {} aborted by the client: {}", target.getPath(), e.getMessage());
+        } finally {
+            // close termina el gzip y libera su Deflater aunque la consulta falle a la mitad;
+            // el contenedor cierra el stream de la respuesta
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Could not finish export of {}: {}", target.getPath(), e.getMessage());
+            }
+        }
+    }
+}
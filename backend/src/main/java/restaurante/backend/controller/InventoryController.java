@@ -4,14 +4,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import restaurante.backend.dto.InventoryImportReportDTO;
+import restaurante.backend.dto.InventoryMovementRequest;
+import restaurante.backend.dto.InventoryStockAtDTO;
+import restaurante.backend.dto.InventoryUsageDTO;
+import restaurante.backend.dto.StockAlertDTO;
 import restaurante.backend.entity.*;
+import restaurante.backend.service.InventoryImportService;
+import restaurante.backend.service.InventoryLedgerService;
 import restaurante.backend.service.InventoryService;
+import restaurante.backend.service.SellablePortionsService;
+import restaurante.backend.service.StockAlertService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -23,6 +46,18 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private SellablePortionsService sellablePortionsService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
     // ==================== INVENTORY ITEMS ====================
 
     @GetMapping("/items")
@@ -73,17 +108,96 @@ public class InventoryController {
         return ResponseEntity.ok(items);
     }
 
+    // ==================== BULK IMPORT ====================
+
+    // CSV con encabezado o arreglo JSON; con dryRun=true solo se valida. Con errores no se aplica nada (400)
+    @PostMapping(value = "/items/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<InventoryImportReportDTO> importItems(HttpServletRequest request,
+                                                                @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        InventoryImportReportDTO report;
+        if (MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))) {
+            report = inventoryImportService.importJson(request.getInputStream(), dryRun);
+        } else {
+            Charset charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+            Reader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), charset));
+            report = inventoryImportService.importCsv(reader, dryRun);
+        }
+        if (report.getError() != null || report.getErrorLines() > 0) {
+            return ResponseEntity.badRequest().body(report);
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ==================== STOCK LEDGER ====================
+
+    @PostMapping("/items/{id}/receipts")
+    public ResponseEntity<InventoryItem> receiveStock(@PathVariable Long id,
+                                                      @Valid @RequestBody InventoryMovementRequest request) {
+        try {
+            return ResponseEntity.ok(inventoryService.receiveStock(id, request.getQuantity(), request.getNote()));
+        } catch (InventoryService.InventoryItemNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/items/{id}/counts")
+    public ResponseEntity<InventoryItem> countStock(@PathVariable Long id,
+                                                    @Valid @RequestBody InventoryMovementRequest request) {
+        try {
+            return ResponseEntity.ok(inventoryService.countStock(id, request.getQuantity(), request.getNote()));
+        } catch (InventoryService.InventoryItemNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Fechas en formato ISO (2024-05-01T18:00:00); el intervalo es (from, to]
+    @GetMapping("/items/{id}/movements")
+    public ResponseEntity<List<InventoryMovement>> getMovements(@PathVariable Long id,
+                                                                @RequestParam String from,
+                                                                @RequestParam(required = false) String to) {
+        try {
+            LocalDateTime end = to != null ? parseDateTime(to) : LocalDateTime.now();
+            return ResponseEntity.ok(inventoryLedgerService.getMovements(id, parseDateTime(from), end));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/ledger/stock")
+    public ResponseEntity<List<InventoryStockAtDTO>> getStockAt(@RequestParam String at,
+                                                                @RequestParam(required = false) Long itemId) {
+        try {
+            return ResponseEntity.ok(inventoryLedgerService.getStockAt(parseDateTime(at),
+                    itemId != null ? List.of(itemId) : null));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/ledger/usage")
+    public ResponseEntity<List<InventoryUsageDTO>> getUsage(@RequestParam String from,
+                                                            @RequestParam(required = false) String to,
+                                                            @RequestParam(required = false) Long itemId) {
+        try {
+            LocalDateTime end = to != null ? parseDateTime(to) : LocalDateTime.now();
+            return ResponseEntity.ok(inventoryLedgerService.getUsage(parseDateTime(from), end, itemId));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ==================== STOCK ALERTS ====================
 
     @GetMapping("/alerts/low-stock")
-    public ResponseEntity<List<InventoryItem>> getLowStockItems() {
-        List<InventoryItem> items = inventoryService.getLowStockItems();
+    public ResponseEntity<List<StockAlertDTO>> getLowStockItems() {
+        List<StockAlertDTO> items = inventoryService.getLowStockItems();
         return ResponseEntity.ok(items);
     }
 
     @GetMapping("/alerts/out-of-stock")
-    public ResponseEntity<List<InventoryItem>> getOutOfStockItems() {
-        List<InventoryItem> items = inventoryService.getOutOfStockItems();
+    public ResponseEntity<List<StockAlertDTO>> getOutOfStockItems() {
+        List<StockAlertDTO> items = inventoryService.getOutOfStockItems();
         return ResponseEntity.ok(items);
     }
 
@@ -93,6 +207,12 @@ public class InventoryController {
         return ResponseEntity.ok(hasAlerts);
     }
 
+    // Snapshot de alertas y luego un evento stock-alert por cada cruce de umbral
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockAlerts() {
+        return stockAlertService.subscribe();
+    }
+
     // ==================== MEAL INVENTORY ====================
 
     @GetMapping("/meals/{mealId}/ingredients")
@@ -181,10 +301,24 @@ public class InventoryController {
         return ResponseEntity.ok(available);
     }
 
+    // Porciones vendibles por platillo, bebida y promoción (solo los que tienen receta)
+    @GetMapping("/availability/portions")
+    public ResponseEntity<Map<String, Map<Long, Integer>>> getSellablePortions() {
+        Map<String, Map<Long, Integer>> portions = new LinkedHashMap<>();
+        portions.put("meals", sellablePortionsService.getAllMealPortions());
+        portions.put("drinks", sellablePortionsService.getAllDrinkPortions());
+        portions.put("promotions", sellablePortionsService.getAllPromotionPortions());
+        return ResponseEntity.ok(portions);
+    }
+
     // ==================== CATEGORIES ====================
 
     @GetMapping("/categories")
     public ResponseEntity<InventoryCategory[]> getCategories() {
         return ResponseEntity.ok(InventoryCategory.values());
     }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
 }
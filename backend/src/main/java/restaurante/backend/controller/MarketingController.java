@@ -3,13 +3,15 @@ package restaurante.backend.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import restaurante.backend.entity.User;
 import restaurante.backend.entity.UserRole;
 import restaurante.backend.repository.UserRepository;
-import restaurante.backend.service.EmailService;
+import restaurante.backend.service.MarketingCampaignService;
+import restaurante.backend.service.MarketingCampaignService.CampaignProgress;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,7 +25,7 @@ public class MarketingController {
     private static final Logger logger = LoggerFactory.getLogger(MarketingController.class);
 
     @Autowired
-    private EmailService emailService;
+    private MarketingCampaignService marketingCampaignService;
 
     @Autowired
     private UserRepository userRepository;
@@ -48,20 +50,24 @@ public class MarketingController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // Enviar a todos los clientes
-            emailService.sendMarketingEmailToAllCustomers(request.getSubject(), request.getContent());
+            // Encolar la campaña para todos los clientes con consentimiento; el envío sigue en segundo plano
+            CampaignProgress campaign = marketingCampaignService.startCampaignToAllCustomers(
+                request.getSubject(), request.getContent());
             
-            // Obtener el número de clientes para la respuesta
-            List<User> customers = userRepository.findByRole(UserRole.CUSTOMER);
-            long customerCount = customers.stream()
-                .filter(user -> user.getEmail() != null && !user.getEmail().isEmpty())
-                .count();
+            if (campaign.getStatus() == MarketingCampaignService.CampaignStatus.REJECTED) {
+                response.put("success", false);
+                response.put("message", "Hay demasiadas campañas en curso, intenta de nuevo más tarde");
+                response.put("campaign", campaign);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
             
             response.put("success", true);
-            response.put("message", "Email de marketing enviado exitosamente");
-            response.put("customersCount", customerCount);
+            response.put("message", "Campaña de marketing en proceso de envío");
+            response.put("campaignId", campaign.getId());
+            response.put("customersCount", campaign.getTotalRecipients());
+            response.put("campaign", campaign);
             
-            logger.info("Marketing email sent to {} customers", customerCount);
+            logger.info("Marketing campaign {} accepted for {} customers", campaign.getId(), campaign.getTotalRecipients());
             
             return ResponseEntity.ok(response);
             
@@ -73,6 +79,20 @@ public class MarketingController {
         }
     }
 
+    @GetMapping("/campaigns")
+    public ResponseEntity<List<CampaignProgress>> getRecentCampaigns() {
+        return ResponseEntity.ok(marketingCampaignService.getRecentCampaigns());
+    }
+
+    @GetMapping("/campaigns/{id}")
+    public ResponseEntity<CampaignProgress> getCampaign(@PathVariable Long id) {
+        CampaignProgress campaign = marketingCampaignService.getCampaign(id);
+        if (campaign == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(campaign);
+    }
+
     @GetMapping("/customers/count")
     public ResponseEntity<Map<String, Object>> getCustomerCount() {
         try {
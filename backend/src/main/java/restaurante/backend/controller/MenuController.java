@@ -1,9 +1,12 @@
 package restaurante.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import restaurante.backend.dto.MealWithInventoryDTO;
 import restaurante.backend.entity.Drink;
 import restaurante.backend.entity.DrinkType;
@@ -11,8 +14,7 @@ import restaurante.backend.entity.Meal;
 import restaurante.backend.entity.MealType;
 import restaurante.backend.service.MenuService;
 import restaurante.backend.service.MealInventoryService;
-
-import java.util.List;
+import restaurante.backend.service.MenuSnapshotService;
 
 @RestController
 @RequestMapping("/api/menu")
@@ -25,14 +27,17 @@ public class MenuController {
     @Autowired
     private MealInventoryService mealInventoryService;
 
+    @Autowired
+    private MenuSnapshotService menuSnapshotService;
+
     @GetMapping("/meals")
-    public ResponseEntity<List<Meal>> getAllMeals() {
-        return ResponseEntity.ok(menuService.getAllMeals());
+    public ResponseEntity<byte[]> getAllMeals(WebRequest request) {
+        return cachedJson(menuSnapshotService.getMeals(), request);
     }
 
     @GetMapping("/meals/type/{type}")
-    public ResponseEntity<List<Meal>> getMealsByType(@PathVariable MealType type) {
-        return ResponseEntity.ok(menuService.getMealsByType(type));
+    public ResponseEntity<byte[]> getMealsByType(@PathVariable MealType type, WebRequest request) {
+        return cachedJson(menuSnapshotService.getMealsByType(type), request);
     }
 
     @GetMapping("/meals/{id}")
@@ -45,13 +50,13 @@ public class MenuController {
     }
 
     @GetMapping("/drinks")
-    public ResponseEntity<List<Drink>> getAllDrinks() {
-        return ResponseEntity.ok(menuService.getAllDrinks());
+    public ResponseEntity<byte[]> getAllDrinks(WebRequest request) {
+        return cachedJson(menuSnapshotService.getDrinks(), request);
     }
 
     @GetMapping("/drinks/type/{type}")
-    public ResponseEntity<List<Drink>> getDrinksByType(@PathVariable DrinkType type) {
-        return ResponseEntity.ok(menuService.getDrinksByType(type));
+    public ResponseEntity<byte[]> getDrinksByType(@PathVariable DrinkType type, WebRequest request) {
+        return cachedJson(menuSnapshotService.getDrinksByType(type), request);
     }
 
     @GetMapping("/drinks/{id}")
@@ -116,4 +121,16 @@ public class MenuController {
             return ResponseEntity.badRequest().body("Error eliminando platillo: " + e.getMessage());
         }
     }
+
+    // Responde 304 si el cliente ya tiene esta versión (If-None-Match); si no, los bytes ya serializados
+    private ResponseEntity<byte[]> cachedJson(MenuSnapshotService.CachedJson json, WebRequest request) {
+        if (request.checkNotModified(json.getETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(json.getETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.getBody());
+    }
 }
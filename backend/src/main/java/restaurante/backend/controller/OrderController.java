@@ -1,14 +1,22 @@
 package restaurante.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.dto.OrderIntakeDTO;
 import restaurante.backend.dto.OrderRequest;
-import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderIntake;
+import restaurante.backend.service.OrderIdempotencyService;
+import restaurante.backend.service.OrderIntakeService;
 import restaurante.backend.service.OrderService;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,9 +26,20 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('GERENTE') or hasRole('COCINERO') or hasRole('MESERO') or hasRole('CAJERO') or hasRole('AFANADOR')")
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<?> createOrder(@RequestBody OrderRequest orderRequest,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer != null && prefer.contains("respond-async") && orderIntakeService.isEnabled()) {
+            return submitAsync(orderRequest, idempotencyKey);
+        }
         try {
             System.out.println("=== DEBUG: Order request received ===");
             System.out.println("Meals: " + (orderRequest.getMeals() != null ? orderRequest.getMeals().size() : "null"));
@@ -33,8 +52,18 @@ public class OrderController {
             System.out.println("Employee: " + orderRequest.getEmployeeId() + " - " + orderRequest.getEmployeeName());
             System.out.println("=====================================");
             
-            Order order = orderService.createOrder(orderRequest);
+            // Un reintento con la misma clave recibe la orden ya creada
+            OrderDTO order = orderIdempotencyService.execute(idempotencyKey, orderRequest,
+                () -> OrderDTO.from(orderService.createOrder(orderRequest)));
             return ResponseEntity.ok(order);
+        } catch (OrderIdempotencyService.OrderInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (OrderIdempotencyService.IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("message", e.getMessage()));
+        } catch (OrderIdempotencyService.IdempotencyStoreFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error creating order: " + e.getMessage());
             e.printStackTrace();
@@ -42,15 +71,42 @@ public class OrderController {
         }
     }
 
+    // Modo asíncrono: responde 202 en cuanto la orden queda guardada en la cola;
+    // el resultado se consulta en Location (GET /api/orders/intake/{id}).
+    private ResponseEntity<?> submitAsync(OrderRequest orderRequest, String idempotencyKey) {
+        try {
+            OrderIntake intake = orderIntakeService.submit(orderRequest, idempotencyKey);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + intake.getId()))
+                .body(new OrderIntakeDTO(intake));
+        } catch (OrderIntakeService.IntakeRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        } catch (OrderIdempotencyService.IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/intake/{id}")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('GERENTE') or hasRole('COCINERO') or hasRole('MESERO') or hasRole('CAJERO') or hasRole('AFANADOR')")
+    public ResponseEntity<OrderIntakeDTO> getIntake(@PathVariable Long id) {
+        return orderIntakeService.getIntake(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('GERENTE') or hasRole('COCINERO')")
-    public ResponseEntity<List<Order>> getUserOrders() {
+    public ResponseEntity<List<OrderDTO>> getUserOrders() {
         return ResponseEntity.ok(orderService.getUserOrders());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('GERENTE') or hasRole('COCINERO')")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
         try {
             return ResponseEntity.ok(orderService.getOrderById(id));
         } catch (Exception e) {
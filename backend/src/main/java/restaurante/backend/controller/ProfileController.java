@@ -140,6 +140,7 @@ public class ProfileController {
                     response.put("message", "El email ya está en uso por otro usuario");
                     return ResponseEntity.badRequest().body(response);
                 }
+                userService.evictAuthenticatedUser(user.getEmail());
                 user.setEmail(request.getEmail());
                 updated = true;
             }
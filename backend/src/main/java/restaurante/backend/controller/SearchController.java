@@ -0,0 +1,38 @@
+package restaurante.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import restaurante.backend.dto.SearchResultDTO;
+import restaurante.backend.entity.SearchKind;
+import restaurante.backend.service.SearchIndexService;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SearchController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    // Búsqueda unificada por relevancia; sin "kinds" busca en todos los tipos
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GERENTE')")
+    public ResponseEntity<Page<SearchResultDTO>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) List<SearchKind> kinds,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<SearchKind> searchKinds = kinds != null && !kinds.isEmpty() ? kinds : Arrays.asList(SearchKind.values());
+        return ResponseEntity.ok(searchIndexService.search(q, searchKinds, PageRequest.of(page, size)));
+    }
+}
@@ -0,0 +1,185 @@
+package restaurante.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InventoryImportReportDTO {
+
+    public enum Status {
+        VALID,   // Sin errores; no se aplicó (validación sola o por errores en otras líneas)
+        APPLIED, // Aplicada
+        ERROR    // Con errores
+    }
+
+    public enum Action {
+        CREATE, UPDATE
+    }
+
+    private boolean dryRun;
+    private boolean applied;
+    private String error; // Problema del archivo completo (formato, tamaño); las líneas pueden faltar
+    private int totalLines;
+    private int errorLines;
+    private int createdItems;
+    private int updatedItems;
+    private List<LineResult> lines = new ArrayList<>();
+
+    // Constructor por defecto
+    public InventoryImportReportDTO() {}
+
+    // Getters y Setters
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    public void setTotalLines(int totalLines) {
+        this.totalLines = totalLines;
+    }
+
+    public int getErrorLines() {
+        return errorLines;
+    }
+
+    public void setErrorLines(int errorLines) {
+        this.errorLines = errorLines;
+    }
+
+    public int getCreatedItems() {
+        return createdItems;
+    }
+
+    public void setCreatedItems(int createdItems) {
+        this.createdItems = createdItems;
+    }
+
+    public int getUpdatedItems() {
+        return updatedItems;
+    }
+
+    public void setUpdatedItems(int updatedItems) {
+        this.updatedItems = updatedItems;
+    }
+
+    public List<LineResult> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<LineResult> lines) {
+        this.lines = lines;
+    }
+
+    public static class LineResult {
+        private int line; // Línea del archivo (CSV) o posición en el arreglo (JSON, desde 1)
+        private Long itemId;
+        private String name;
+        private Action action;
+        private BigDecimal quantity;
+        private BigDecimal stockBefore;
+        private BigDecimal stockAfter;
+        private Status status;
+        private List<String> errors = new ArrayList<>();
+
+        public LineResult() {}
+
+        public LineResult(int line) {
+            this.line = line;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public void setAction(Action action) {
+            this.action = action;
+        }
+
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(BigDecimal quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getStockBefore() {
+            return stockBefore;
+        }
+
+        public void setStockBefore(BigDecimal stockBefore) {
+            this.stockBefore = stockBefore;
+        }
+
+        public BigDecimal getStockAfter() {
+            return stockAfter;
+        }
+
+        public void setStockAfter(BigDecimal stockAfter) {
+            this.stockAfter = stockAfter;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public void setErrors(List<String> errors) {
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package restaurante.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+// Recepción de compra (cantidad recibida) o conteo físico (cantidad contada)
+public class InventoryMovementRequest {
+
+    @NotNull
+    @PositiveOrZero
+    private BigDecimal quantity;
+
+    @Size(max = 255)
+    private String note;
+
+    // Constructors
+    public InventoryMovementRequest() {}
+
+    // Getters and Setters
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public void setNote(String note) {
+        this.note = note;
+    }
+}
@@ -0,0 +1,65 @@
+package restaurante.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class InventoryStockAtDTO {
+    private Long itemId;
+    private String itemName;
+    private String unit;
+    private LocalDateTime at;
+    private BigDecimal stock;
+    private LocalDateTime snapshotAt; // Foto usada como base; null si se calculó hacia atrás desde el stock actual
+
+    // Constructor por defecto
+    public InventoryStockAtDTO() {}
+
+    // Getters y Setters
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public void setAt(LocalDateTime at) {
+        this.at = at;
+    }
+
+    public BigDecimal getStock() {
+        return stock;
+    }
+
+    public void setStock(BigDecimal stock) {
+        this.stock = stock;
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public void setSnapshotAt(LocalDateTime snapshotAt) {
+        this.snapshotAt = snapshotAt;
+    }
+}
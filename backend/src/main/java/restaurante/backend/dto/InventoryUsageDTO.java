@@ -0,0 +1,104 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.InventoryMovementType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class InventoryUsageDTO {
+    private Long itemId;
+    private String itemName;
+    private String unit;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal openingStock;
+    private BigDecimal closingStock;
+    private BigDecimal consumed; // Neto de órdenes (reservas menos cancelaciones), en positivo
+    private Map<InventoryMovementType, BigDecimal> quantityByType;
+    private Long movementCount;
+
+    // Constructor por defecto
+    public InventoryUsageDTO() {}
+
+    // Getters y Setters
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public BigDecimal getOpeningStock() {
+        return openingStock;
+    }
+
+    public void setOpeningStock(BigDecimal openingStock) {
+        this.openingStock = openingStock;
+    }
+
+    public BigDecimal getClosingStock() {
+        return closingStock;
+    }
+
+    public void setClosingStock(BigDecimal closingStock) {
+        this.closingStock = closingStock;
+    }
+
+    public BigDecimal getConsumed() {
+        return consumed;
+    }
+
+    public void setConsumed(BigDecimal consumed) {
+        this.consumed = consumed;
+    }
+
+    public Map<InventoryMovementType, BigDecimal> getQuantityByType() {
+        return quantityByType;
+    }
+
+    public void setQuantityByType(Map<InventoryMovementType, BigDecimal> quantityByType) {
+        this.quantityByType = quantityByType;
+    }
+
+    public Long getMovementCount() {
+        return movementCount;
+    }
+
+    public void setMovementCount(Long movementCount) {
+        this.movementCount = movementCount;
+    }
+}
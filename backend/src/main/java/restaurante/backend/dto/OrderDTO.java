@@ -0,0 +1,363 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+import restaurante.backend.entity.OrderPromotion;
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
+import restaurante.backend.entity.Promotion;
+import restaurante.backend.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modelo de lectura inmutable de una orden para las respuestas de la API.
+ *
+ * Conserva los nombres de campo del JSON de la entidad ({@code orderMeals[].meal},
+ * {@code user}, ...) pero solo con los datos que usan las pantallas, sin
+ * referencias de vuelta ni datos sensibles del usuario. Se construye dentro de
+ * la transacción con {@link #from(Order)}; las órdenes se leen con el usuario en
+ * la misma consulta y las líneas por lotes (hibernate.default_batch_fetch_size).
+ */
+public final class OrderDTO {
+    private final Long id;
+    private final LocalDateTime orderDate;
+    private final BigDecimal totalCost;
+    private final OrderType orderType;
+    private final Integer tableNumber;
+    private final OrderStatus status;
+    private final Boolean paid;
+    private final String customerFirstName;
+    private final String customerLastName;
+    private final String customerPhone;
+    private final String employeeId;
+    private final String employeeName;
+    private final String employeeRole;
+    private final UserSummary user;
+    private final List<MealLine> orderMeals;
+    private final List<DrinkLine> orderDrinks;
+    private final List<PromotionLine> orderPromotions;
+
+    private OrderDTO(Order order) {
+        this.id = order.getId();
+        this.orderDate = order.getOrderDate();
+        this.totalCost = order.getTotalCost();
+        this.orderType = order.getOrderType();
+        this.tableNumber = order.getTableNumber();
+        this.status = order.getStatus();
+        this.paid = order.getPaid();
+        this.customerFirstName = order.getCustomerFirstName();
+        this.customerLastName = order.getCustomerLastName();
+        this.customerPhone = order.getCustomerPhone();
+        this.employeeId = order.getEmployeeId();
+        this.employeeName = order.getEmployeeName();
+        this.employeeRole = order.getEmployeeRole();
+        this.user = order.getUser() != null ? new UserSummary(order.getUser()) : null;
+
+        List<MealLine> meals = new ArrayList<>();
+        if (order.getOrderMeals() != null) {
+            for (OrderMeal orderMeal : order.getOrderMeals()) {
+                meals.add(new MealLine(orderMeal));
+            }
+        }
+        this.orderMeals = Collections.unmodifiableList(meals);
+
+        List<DrinkLine> drinks = new ArrayList<>();
+        if (order.getOrderDrinks() != null) {
+            for (OrderDrink orderDrink : order.getOrderDrinks()) {
+                drinks.add(new DrinkLine(orderDrink));
+            }
+        }
+        this.orderDrinks = Collections.unmodifiableList(drinks);
+
+        List<PromotionLine> promotions = new ArrayList<>();
+        if (order.getOrderPromotions() != null) {
+            for (OrderPromotion orderPromotion : order.getOrderPromotions()) {
+                promotions.add(new PromotionLine(orderPromotion));
+            }
+        }
+        this.orderPromotions = Collections.unmodifiableList(promotions);
+    }
+
+    public static OrderDTO from(Order order) {
+        return new OrderDTO(order);
+    }
+
+    public static List<OrderDTO> fromAll(List<Order> orders) {
+        List<OrderDTO> dtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            dtos.add(new OrderDTO(order));
+        }
+        return dtos;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public BigDecimal getTotalCost() {
+        return totalCost;
+    }
+
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    public Integer getTableNumber() {
+        return tableNumber;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public Boolean getPaid() {
+        return paid;
+    }
+
+    public String getCustomerFirstName() {
+        return customerFirstName;
+    }
+
+    public String getCustomerLastName() {
+        return customerLastName;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public String getEmployeeRole() {
+        return employeeRole;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public List<MealLine> getOrderMeals() {
+        return orderMeals;
+    }
+
+    public List<DrinkLine> getOrderDrinks() {
+        return orderDrinks;
+    }
+
+    public List<PromotionLine> getOrderPromotions() {
+        return orderPromotions;
+    }
+
+    public static final class UserSummary {
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String email;
+
+        private UserSummary(User user) {
+            this.id = user.getId();
+            this.firstName = user.getFirstName();
+            this.lastName = user.getLastName();
+            this.email = user.getEmail();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    /**
+     * Producto del menú (platillo o bebida) tal como se muestra en una línea de la orden.
+     */
+    public static final class ItemSummary {
+        private final Long id;
+        private final String name;
+        private final BigDecimal price;
+        private final String type;
+        private final String imageUrl;
+
+        private ItemSummary(Long id, String name, BigDecimal price, String type, String imageUrl) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.type = type;
+            this.imageUrl = imageUrl;
+        }
+
+        private static ItemSummary of(Meal meal) {
+            return new ItemSummary(meal.getId(), meal.getName(), meal.getPrice(),
+                meal.getType() != null ? meal.getType().name() : null, meal.getImageUrl());
+        }
+
+        private static ItemSummary of(Drink drink) {
+            return new ItemSummary(drink.getId(), drink.getName(), drink.getPrice(),
+                drink.getType() != null ? drink.getType().name() : null, drink.getImageUrl());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+    }
+
+    public static final class MealLine {
+        private final Long id;
+        private final Integer quantity;
+        private final ItemSummary meal;
+
+        private MealLine(OrderMeal orderMeal) {
+            this.id = orderMeal.getId();
+            this.quantity = orderMeal.getQuantity();
+            this.meal = ItemSummary.of(orderMeal.getMeal());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public ItemSummary getMeal() {
+            return meal;
+        }
+    }
+
+    public static final class DrinkLine {
+        private final Long id;
+        private final Integer quantity;
+        private final ItemSummary drink;
+
+        private DrinkLine(OrderDrink orderDrink) {
+            this.id = orderDrink.getId();
+            this.quantity = orderDrink.getQuantity();
+            this.drink = ItemSummary.of(orderDrink.getDrink());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public ItemSummary getDrink() {
+            return drink;
+        }
+    }
+
+    public static final class PromotionLine {
+        private final Long id;
+        private final Integer quantity;
+        private final BigDecimal unitPrice;
+        private final BigDecimal totalPrice;
+        private final PromotionSummary promotion;
+
+        private PromotionLine(OrderPromotion orderPromotion) {
+            this.id = orderPromotion.getId();
+            this.quantity = orderPromotion.getQuantity();
+            this.unitPrice = orderPromotion.getUnitPrice();
+            this.totalPrice = orderPromotion.getUnitPrice() != null && orderPromotion.getQuantity() != null
+                ? orderPromotion.getTotalPrice() : null;
+            this.promotion = new PromotionSummary(orderPromotion.getPromotion());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public PromotionSummary getPromotion() {
+            return promotion;
+        }
+    }
+
+    public static final class PromotionSummary {
+        private final Long id;
+        private final String name;
+        private final BigDecimal comboPrice;
+        private final String imageUrl;
+
+        private PromotionSummary(Promotion promotion) {
+            this.id = promotion.getId();
+            this.name = promotion.getName();
+            this.comboPrice = promotion.getComboPrice();
+            this.imageUrl = promotion.getImageUrl();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getComboPrice() {
+            return comboPrice;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+    }
+}
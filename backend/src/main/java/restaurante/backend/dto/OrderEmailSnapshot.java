@@ -0,0 +1,170 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copia inmutable de los datos de una orden que necesitan sus emails.
+ * Se toma dentro de la transacción de la orden y se guarda como JSON en el
+ * outbox, así el envío no vuelve a leer la entidad ni sus colecciones lazy.
+ */
+public class OrderEmailSnapshot {
+    private Long orderId;
+    private String recipientEmail;
+    private String customerFirstName;
+    private String orderType;
+    private Integer tableNumber;
+    private LocalDateTime orderDate;
+    private BigDecimal totalCost;
+    private List<Item> items = new ArrayList<>();
+
+    // Constructor por defecto
+    public OrderEmailSnapshot() {}
+
+    public static OrderEmailSnapshot from(Order order) {
+        OrderEmailSnapshot snapshot = new OrderEmailSnapshot();
+        snapshot.orderId = order.getId();
+        snapshot.recipientEmail = order.getUser() != null ? order.getUser().getEmail() : null;
+        snapshot.customerFirstName = order.getUser() != null ? order.getUser().getFirstName() : order.getCustomerFirstName();
+        snapshot.orderType = order.getOrderType() != null ? order.getOrderType().toString() : null;
+        snapshot.tableNumber = order.getTableNumber();
+        snapshot.orderDate = order.getOrderDate();
+        snapshot.totalCost = order.getTotalCost();
+
+        if (order.getOrderMeals() != null) {
+            for (OrderMeal orderMeal : order.getOrderMeals()) {
+                snapshot.items.add(new Item(Item.MEAL, orderMeal.getMeal().getName(),
+                    orderMeal.getQuantity(), orderMeal.getMeal().getPrice()));
+            }
+        }
+        if (order.getOrderDrinks() != null) {
+            for (OrderDrink orderDrink : order.getOrderDrinks()) {
+                snapshot.items.add(new Item(Item.DRINK, orderDrink.getDrink().getName(),
+                    orderDrink.getQuantity(), orderDrink.getDrink().getPrice()));
+            }
+        }
+        return snapshot;
+    }
+
+    // Getters y Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getRecipientEmail() {
+        return recipientEmail;
+    }
+
+    public void setRecipientEmail(String recipientEmail) {
+        this.recipientEmail = recipientEmail;
+    }
+
+    public String getCustomerFirstName() {
+        return customerFirstName;
+    }
+
+    public void setCustomerFirstName(String customerFirstName) {
+        this.customerFirstName = customerFirstName;
+    }
+
+    public String getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(String orderType) {
+        this.orderType = orderType;
+    }
+
+    public Integer getTableNumber() {
+        return tableNumber;
+    }
+
+    public void setTableNumber(Integer tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public BigDecimal getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(BigDecimal totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public static class Item {
+        public static final String MEAL = "MEAL";
+        public static final String DRINK = "DRINK";
+
+        private String kind; // MEAL o DRINK
+        private String name;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+
+        public Item() {}
+
+        public Item(String kind, String name, Integer quantity, BigDecimal unitPrice) {
+            this.kind = kind;
+            this.name = name;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public void setUnitPrice(BigDecimal unitPrice) {
+            this.unitPrice = unitPrice;
+        }
+    }
+}
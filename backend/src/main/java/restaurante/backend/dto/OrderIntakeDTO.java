@@ -0,0 +1,80 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.OrderIntake;
+import restaurante.backend.entity.OrderIntakeStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una orden recibida en modo asíncrono, para {@code GET /api/orders/intake/{id}}.
+ * {@code orderId} aparece cuando el estado es COMPLETED y {@code error} cuando es FAILED.
+ */
+public class OrderIntakeDTO {
+    private Long id;
+    private OrderIntakeStatus status;
+    private Long orderId;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    // Constructor por defecto
+    public OrderIntakeDTO() {}
+
+    public OrderIntakeDTO(OrderIntake intake) {
+        this.id = intake.getId();
+        this.status = intake.getStatus();
+        this.orderId = intake.getOrderId();
+        this.error = intake.getError();
+        this.createdAt = intake.getCreatedAt();
+        this.completedAt = intake.getCompletedAt();
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrderIntakeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderIntakeStatus status) {
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,58 @@
+package restaurante.backend.dto;
+
+import java.util.List;
+
+/**
+ * Página de órdenes ordenada por (orderDate, id) descendente.
+ * {@code nextCursor} se envía como {@code cursor} para pedir la siguiente página.
+ */
+public class OrderPageDTO {
+    private List<OrderDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+
+    // Constructor por defecto
+    public OrderPageDTO() {}
+
+    // Constructor con parámetros
+    public OrderPageDTO(List<OrderDTO> items, String nextCursor, boolean hasMore, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.limit = limit;
+    }
+
+    // Getters y Setters
+    public List<OrderDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,70 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales del listado de órdenes de administración. Los campos nulos no filtran.
+ */
+public class OrderSearchCriteria {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private OrderStatus status;
+    private OrderType orderType;
+    private Integer tableNumber;
+    private String employeeId;
+
+    // Constructor por defecto
+    public OrderSearchCriteria() {}
+
+    // Getters y Setters
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(OrderType orderType) {
+        this.orderType = orderType;
+    }
+
+    public Integer getTableNumber() {
+        return tableNumber;
+    }
+
+    public void setTableNumber(Integer tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+}
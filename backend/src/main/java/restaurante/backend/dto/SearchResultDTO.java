@@ -0,0 +1,53 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.SearchKind;
+
+public class SearchResultDTO {
+    private SearchKind kind;
+    private Long id;
+    private String name;
+    private Double score; // Relevancia: >= 1 si el nombre o la descripción contienen la búsqueda completa
+
+    // Constructor por defecto
+    public SearchResultDTO() {}
+
+    public SearchResultDTO(SearchKind kind, Long id, String name, Double score) {
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.score = score;
+    }
+
+    // Getters y Setters
+    public SearchKind getKind() {
+        return kind;
+    }
+
+    public void setKind(SearchKind kind) {
+        this.kind = kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,118 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.InventoryCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Nivel de stock de un item de inventario tal como lo muestran las alertas.
+ *
+ * Conserva los campos del JSON de {@code InventoryItem} que usan las alertas
+ * ({@code id}, {@code name}, {@code currentStock}, {@code lowStock}, ...). En los
+ * eventos del stream, {@code previousLevel} indica desde qué nivel cruzó.
+ */
+public final class StockAlertDTO {
+
+    public enum Level {
+        OK, LOW, OUT
+    }
+
+    private final Long id;
+    private final String name;
+    private final String unit;
+    private final InventoryCategory category;
+    private final BigDecimal currentStock;
+    private final BigDecimal minimumStock;
+    private final Level level;
+    private final Level previousLevel;
+    private final LocalDateTime changedAt;
+
+    public StockAlertDTO(Long id, String name, String unit, InventoryCategory category,
+                         BigDecimal currentStock, BigDecimal minimumStock, boolean active) {
+        this(id, name, unit, category, currentStock, minimumStock,
+                levelOf(currentStock, minimumStock, active), null, LocalDateTime.now());
+    }
+
+    private StockAlertDTO(Long id, String name, String unit, InventoryCategory category,
+                          BigDecimal currentStock, BigDecimal minimumStock,
+                          Level level, Level previousLevel, LocalDateTime changedAt) {
+        this.id = id;
+        this.name = name;
+        this.unit = unit;
+        this.category = category;
+        this.currentStock = currentStock;
+        this.minimumStock = minimumStock;
+        this.level = level;
+        this.previousLevel = previousLevel;
+        this.changedAt = changedAt;
+    }
+
+    // Mismos criterios que InventoryItem.isOutOfStock / isLowStock; los items inactivos no alertan
+    private static Level levelOf(BigDecimal currentStock, BigDecimal minimumStock, boolean active) {
+        if (!active || currentStock == null) {
+            return Level.OK;
+        }
+        if (currentStock.compareTo(BigDecimal.ZERO) <= 0) {
+            return Level.OUT;
+        }
+        if (minimumStock != null && currentStock.compareTo(minimumStock) <= 0) {
+            return Level.LOW;
+        }
+        return Level.OK;
+    }
+
+    public StockAlertDTO withPreviousLevel(Level previous) {
+        return new StockAlertDTO(id, name, unit, category, currentStock, minimumStock, level, previous, changedAt);
+    }
+
+    // Stock actual con el cruce (nivel anterior y momento) de la alerta ya conocida
+    public StockAlertDTO sinceCrossingOf(StockAlertDTO known) {
+        return new StockAlertDTO(id, name, unit, category, currentStock, minimumStock,
+                level, known.previousLevel, known.changedAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public InventoryCategory getCategory() {
+        return category;
+    }
+
+    public BigDecimal getCurrentStock() {
+        return currentStock;
+    }
+
+    public BigDecimal getMinimumStock() {
+        return minimumStock;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public Level getPreviousLevel() {
+        return previousLevel;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public boolean isLowStock() {
+        return level != Level.OK;
+    }
+
+    public boolean isOutOfStock() {
+        return level == Level.OUT;
+    }
+}
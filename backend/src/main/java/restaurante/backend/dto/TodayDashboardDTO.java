@@ -0,0 +1,107 @@
+package restaurante.backend.dto;
+
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class TodayDashboardDTO {
+    private LocalDate day;
+    private LocalDateTime seededAt; // Última vez que los contadores se recalcularon desde la base
+    private Double revenue;
+    private Long saleCount;
+    private Long orderCount;
+    private Map<OrderStatus, Long> ordersByStatus;
+    private Map<OrderType, Long> ordersByType;
+    private List<ProductStatsDTO> products;
+    private BigDecimal wasteCost;
+    private Long wasteCount;
+
+    // Constructor por defecto
+    public TodayDashboardDTO() {}
+
+    // Getters y Setters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public LocalDateTime getSeededAt() {
+        return seededAt;
+    }
+
+    public void setSeededAt(LocalDateTime seededAt) {
+        this.seededAt = seededAt;
+    }
+
+    public Double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Double revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(Long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Map<OrderStatus, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    public void setOrdersByStatus(Map<OrderStatus, Long> ordersByStatus) {
+        this.ordersByStatus = ordersByStatus;
+    }
+
+    public Map<OrderType, Long> getOrdersByType() {
+        return ordersByType;
+    }
+
+    public void setOrdersByType(Map<OrderType, Long> ordersByType) {
+        this.ordersByType = ordersByType;
+    }
+
+    public List<ProductStatsDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductStatsDTO> products) {
+        this.products = products;
+    }
+
+    public BigDecimal getWasteCost() {
+        return wasteCost;
+    }
+
+    public void setWasteCost(BigDecimal wasteCost) {
+        this.wasteCost = wasteCost;
+    }
+
+    public Long getWasteCount() {
+        return wasteCount;
+    }
+
+    public void setWasteCount(Long wasteCount) {
+        this.wasteCount = wasteCount;
+    }
+}
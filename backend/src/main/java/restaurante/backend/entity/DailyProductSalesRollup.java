@@ -0,0 +1,96 @@
+package restaurante.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Ventas por día y producto: cantidad, ingresos y número de ventas que lo incluyen.
+ * Se mantiene de forma incremental desde {@code SaleService.createSale} y {@code SaleRecorder}.
+ */
+@Entity
+@Table(name = "daily_product_sales_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_product_sales_rollup", columnNames = {"sale_date", "product_name", "product_type"})
+})
+public class DailyProductSalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    @Column(name = "product_type", nullable = false)
+    private String productType; // "MEAL" o "DRINK"
+
+    @Column(nullable = false)
+    private Long quantity = 0L;
+
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    // Constructor por defecto
+    public DailyProductSalesRollup() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public void setSaleDate(LocalDate saleDate) {
+        this.saleDate = saleDate;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public void setProductType(String productType) {
+        this.productType = productType;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Double revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+}
@@ -0,0 +1,61 @@
+package restaurante.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Totales de ventas por día. Se mantiene de forma incremental desde
+ * {@code SaleService.createSale} y {@code SaleRecorder} (ver {@code SalesRollupService}).
+ */
+@Entity
+@Table(name = "daily_sales_rollups")
+public class DailySalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sale_date", nullable = false, unique = true)
+    private LocalDate saleDate;
+
+    @Column(name = "sale_count", nullable = false)
+    private Long saleCount = 0L;
+
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+
+    // Constructor por defecto
+    public DailySalesRollup() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public void setSaleDate(LocalDate saleDate) {
+        this.saleDate = saleDate;
+    }
+
+    public Long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(Long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public Double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Double revenue) {
+        this.revenue = revenue;
+    }
+}
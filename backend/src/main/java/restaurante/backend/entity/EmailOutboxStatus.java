@@ -0,0 +1,7 @@
+package restaurante.backend.entity;
+
+public enum EmailOutboxStatus {
+    PENDING,  // Pendiente de envío o de reintento
+    SENT,     // Entregado al servidor SMTP
+    FAILED    // Se agotaron los reintentos
+}
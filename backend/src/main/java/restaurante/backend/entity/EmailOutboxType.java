@@ -0,0 +1,6 @@
+package restaurante.backend.entity;
+
+public enum EmailOutboxType {
+    ORDER_CONFIRMATION,
+    ORDER_READY
+}
@@ -0,0 +1,88 @@
+package restaurante.backend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de stock de un item de inventario. Las filas solo se insertan, en lote y
+ * en la misma transacción que cambia {@code current_stock} (ver {@code InventoryLedgerService}).
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_movements", indexes = {
+    @Index(name = "idx_inventory_movements_item_occurred_at", columnList = "inventory_item_id, occurred_at"),
+    @Index(name = "idx_inventory_movements_occurred_at", columnList = "occurred_at")
+})
+public class InventoryMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_item_id", nullable = false)
+    private Long inventoryItemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 30)
+    private InventoryMovementType movementType;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal quantity; // Positiva si entra stock, negativa si sale
+
+    @Column(name = "stock_after", precision = 10, scale = 2)
+    private BigDecimal stockAfter;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(length = 255)
+    private String note;
+
+    @Column(name = "recorded_by")
+    private String recordedBy;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Constructor por defecto
+    protected InventoryMovement() {}
+
+    // Solo getters: un movimiento no se modifica
+    public Long getId() {
+        return id;
+    }
+
+    public Long getInventoryItemId() {
+        return inventoryItemId;
+    }
+
+    public InventoryMovementType getMovementType() {
+        return movementType;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getStockAfter() {
+        return stockAfter;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public String getRecordedBy() {
+        return recordedBy;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
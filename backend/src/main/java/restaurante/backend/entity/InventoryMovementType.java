@@ -0,0 +1,9 @@
+package restaurante.backend.entity;
+
+public enum InventoryMovementType {
+    ORDER_RESERVATION,  // Descuento al colocar una orden
+    ORDER_CANCELLATION, // Devolución al cancelar una orden
+    PURCHASE,           // Recepción de compra
+    ADJUSTMENT,         // Alta o edición manual del stock
+    COUNT               // Conteo físico: ajusta el stock a lo contado
+}
@@ -0,0 +1,50 @@
+package restaurante.backend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stock de un item en un momento dado. Las escribe {@code InventoryLedgerService} de forma
+ * periódica para que las consultas a una fecha no recorran todo el historial de movimientos.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_snapshots", indexes = {
+    @Index(name = "idx_inventory_snapshots_item_taken_at", columnList = "inventory_item_id, taken_at")
+})
+public class InventorySnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_item_id", nullable = false)
+    private Long inventoryItemId;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal stock;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    // Constructor por defecto
+    protected InventorySnapshot() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getInventoryItemId() {
+        return inventoryItemId;
+    }
+
+    public BigDecimal getStock() {
+        return stock;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+}
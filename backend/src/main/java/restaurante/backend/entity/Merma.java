@@ -9,11 +9,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "mermas")
+@Table(name = "mermas", indexes = {
+    @Index(name = "idx_mermas_registered_at", columnList = "registered_at")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Merma {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mermas_seq")
+    @SequenceGenerator(name = "mermas_seq", sequenceName = "mermas_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
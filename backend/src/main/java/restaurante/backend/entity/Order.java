@@ -1,5 +1,6 @@
 package restaurante.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
@@ -11,11 +12,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_order_date_id", columnList = "order_date, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +46,14 @@ public class Order {
     @Column(name = "paid")
     private Boolean paid = true; // Las órdenes se consideran pagadas por defecto al ser colocadas
 
+    // Pagada y con su venta aún sin registrar; lo limpia SaleRecorder al insertar la venta.
+    // Solo se escribe en el INSERT: después cambia únicamente por SQL dedicado
+    // (OrderRepository.markSalePending y SaleRecorder), así el UPDATE de otro cambio de
+    // la orden no puede volver a marcar una venta que ya se registró
+    @JsonIgnore
+    @Column(name = "sale_pending", nullable = false, updatable = false, columnDefinition = "boolean default false")
+    private Boolean salePending = false;
+
     // Campos para órdenes creadas por empleados (información del cliente)
     @Column(name = "customer_first_name")
     private String customerFirstName;
@@ -154,6 +166,14 @@ public class Order {
         this.paid = paid;
     }
 
+    public Boolean getSalePending() {
+        return salePending;
+    }
+
+    public void setSalePending(Boolean salePending) {
+        this.salePending = salePending;
+    }
+
     public List<OrderMeal> getOrderMeals() {
         return orderMeals;
     }
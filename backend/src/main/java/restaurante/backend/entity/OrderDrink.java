@@ -11,7 +11,8 @@ import jakarta.validation.constraints.Positive;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class OrderDrink {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_drinks_seq")
+    @SequenceGenerator(name = "order_drinks_seq", sequenceName = "order_drinks_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,131 @@
+package restaurante.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Orden recibida en modo asíncrono ({@code Prefer: respond-async}). Guarda el
+ * request tal como llegó; {@code OrderIntakeService} la procesa en segundo plano
+ * y deja aquí el id de la orden creada o el motivo del rechazo.
+ */
+@Entity
+@Table(name = "order_intake", indexes = {
+    @Index(name = "idx_order_intake_status_id", columnList = "status, id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_intake_requester_key", columnNames = {"requested_by", "idempotency_key"})
+})
+public class OrderIntake {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderIntakeStatus status = OrderIntakeStatus.QUEUED;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload; // JSON de OrderRequest
+
+    @Column(name = "requested_by")
+    private String requestedBy; // email del usuario autenticado
+
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public OrderIntake() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public OrderIntake(String payload, String requestedBy, String idempotencyKey) {
+        this();
+        this.payload = payload;
+        this.requestedBy = requestedBy;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrderIntakeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderIntakeStatus status) {
+        this.status = status;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(String requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
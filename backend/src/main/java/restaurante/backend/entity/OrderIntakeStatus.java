@@ -0,0 +1,8 @@
+package restaurante.backend.entity;
+
+public enum OrderIntakeStatus {
+    QUEUED,      // Recibida, esperando a un worker
+    PROCESSING,  // Un worker está creando la orden
+    COMPLETED,   // Orden creada (ver orderId)
+    FAILED       // Rechazada: sin inventario, datos inválidos, etc. (ver error)
+}
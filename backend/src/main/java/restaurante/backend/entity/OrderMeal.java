@@ -11,7 +11,8 @@ import jakarta.validation.constraints.Positive;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class OrderMeal {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_meals_seq")
+    @SequenceGenerator(name = "order_meals_seq", sequenceName = "order_meals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
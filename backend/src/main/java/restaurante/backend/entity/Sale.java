@@ -6,10 +6,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+    @Index(name = "idx_sales_sale_date", columnList = "sale_date")
+})
 public class Sale {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,6 +24,9 @@ public class Sale {
     @Column(nullable = false)
     private LocalDateTime saleDate;
 
+    @Column(name = "order_id")
+    private Long orderId; // Orden que originó la venta; null en ventas registradas a mano
+
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<SaleItem> items;
@@ -68,6 +74,14 @@ public class Sale {
         this.saleDate = saleDate;
     }
 
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
     public List<SaleItem> getItems() {
         return items;
     }
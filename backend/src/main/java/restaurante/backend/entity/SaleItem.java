@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 @Table(name = "sale_items")
 public class SaleItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_items_seq")
+    @SequenceGenerator(name = "sale_items_seq", sequenceName = "sale_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -19,7 +20,7 @@ public class SaleItem {
     private String productName;
 
     @Column(nullable = false)
-    private String productType; // "MEAL" o "DRINK"
+    private String productType; // "MEAL", "DRINK" o "PROMOTION"
 
     @Column(nullable = false)
     private Integer quantity;
@@ -0,0 +1,10 @@
+package restaurante.backend.entity;
+
+public enum SearchKind {
+    INVENTORY,  // Items de inventario activos
+    MEAL,       // Platillos del menú
+    DRINK,      // Bebidas del menú
+    PROMOTION,  // Promociones
+    COUPON,     // Cupones (nombre y código)
+    PRODUCT     // Productos
+}
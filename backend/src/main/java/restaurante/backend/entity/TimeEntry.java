@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class TimeEntry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "time_entries_seq")
+    @SequenceGenerator(name = "time_entries_seq", sequenceName = "time_entries_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
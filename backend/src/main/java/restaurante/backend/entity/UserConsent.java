@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class UserConsent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_consents_seq")
+    @SequenceGenerator(name = "user_consents_seq", sequenceName = "user_consents_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
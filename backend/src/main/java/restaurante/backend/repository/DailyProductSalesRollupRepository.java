@@ -0,0 +1,21 @@
+package restaurante.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import restaurante.backend.entity.DailyProductSalesRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRollupRepository extends JpaRepository<DailyProductSalesRollup, Long> {
+
+    // Cantidad e ingresos por producto en los días completos [fromDate, toDate]
+    @Query("SELECT r.productName, r.productType, SUM(r.quantity), SUM(r.revenue) " +
+           "FROM DailyProductSalesRollup r " +
+           "WHERE r.saleDate BETWEEN :fromDate AND :toDate " +
+           "GROUP BY r.productName, r.productType")
+    List<Object[]> getProductStatsBetweenDays(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
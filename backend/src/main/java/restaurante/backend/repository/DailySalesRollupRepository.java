@@ -0,0 +1,19 @@
+package restaurante.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import restaurante.backend.entity.DailySalesRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    // Número de ventas e ingresos de los días completos [fromDate, toDate]
+    @Query("SELECT COALESCE(SUM(r.saleCount), 0), COALESCE(SUM(r.revenue), 0) " +
+           "FROM DailySalesRollup r WHERE r.saleDate BETWEEN :fromDate AND :toDate")
+    List<Object[]> sumBetweenDays(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
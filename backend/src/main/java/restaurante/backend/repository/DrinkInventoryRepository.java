@@ -18,6 +18,10 @@ public interface DrinkInventoryRepository extends JpaRepository<DrinkInventory,
     @Query("SELECT di FROM DrinkInventory di WHERE di.drink.id = :drinkId AND di.inventoryItem.active = true")
     List<DrinkInventory> findByDrinkIdAndActiveInventory(@Param("drinkId") Long drinkId);
     
+    // Filas (drinkId, inventoryItemId, quantityNeeded) de todas las recetas con ingredientes activos
+    @Query("SELECT di.drink.id, di.inventoryItem.id, di.quantityNeeded FROM DrinkInventory di WHERE di.inventoryItem.active = true")
+    List<Object[]> findActiveRecipeLines();
+    
     @Query("SELECT di FROM DrinkInventory di WHERE di.inventoryItem.id = :inventoryItemId AND di.drink.available = true")
     List<DrinkInventory> findByInventoryItemIdAndAvailableDrinks(@Param("inventoryItemId") Long inventoryItemId);
     
@@ -0,0 +1,23 @@
+package restaurante.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import restaurante.backend.entity.EmailOutbox;
+import restaurante.backend.entity.EmailOutboxStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Emails pendientes cuyo siguiente intento ya venció, en orden de llegada
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<EmailOutbox> findDue(@Param("status") EmailOutboxStatus status, @Param("now") LocalDateTime now,
+                              Pageable pageable);
+
+    long countByStatus(EmailOutboxStatus status);
+}
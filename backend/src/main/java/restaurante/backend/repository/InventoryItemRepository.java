@@ -3,12 +3,14 @@ package restaurante.backend.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import restaurante.backend.entity.InventoryCategory;
 import restaurante.backend.entity.InventoryItem;
 
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +30,11 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
     
     @Query("SELECT i FROM InventoryItem i WHERE i.active = true AND i.currentStock <= i.minimumStock")
     List<InventoryItem> findLowStockItems();
+
+    // Bloquea la fila hasta el commit: el stock leído es la base del movimiento que se registra
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.id = :id")
+    Optional<InventoryItem> findByIdForUpdate(@Param("id") Long id);
     
     @Query("SELECT i FROM InventoryItem i WHERE i.active = true AND i.currentStock <= :threshold")
     List<InventoryItem> findItemsBelowStock(@Param("threshold") BigDecimal threshold);
@@ -0,0 +1,23 @@
+package restaurante.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import restaurante.backend.entity.InventoryMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    // Movimientos de un item en (from, to], en el orden en que se aplicaron
+    @Query("SELECT m FROM InventoryMovement m WHERE m.inventoryItemId = :itemId " +
+           "AND m.occurredAt > :from AND m.occurredAt <= :to ORDER BY m.occurredAt, m.id")
+    List<InventoryMovement> findByItemInRange(@Param("itemId") Long itemId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              Pageable pageable);
+}
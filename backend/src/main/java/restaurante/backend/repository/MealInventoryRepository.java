@@ -18,6 +18,10 @@ public interface MealInventoryRepository extends JpaRepository<MealInventory, Lo
     @Query("SELECT mi FROM MealInventory mi WHERE mi.meal.id = :mealId AND mi.inventoryItem.active = true")
     List<MealInventory> findByMealIdAndActiveInventory(@Param("mealId") Long mealId);
     
+    // Filas (mealId, inventoryItemId, quantityNeeded) de todas las recetas con ingredientes activos
+    @Query("SELECT mi.meal.id, mi.inventoryItem.id, mi.quantityNeeded FROM MealInventory mi WHERE mi.inventoryItem.active = true")
+    List<Object[]> findActiveRecipeLines();
+    
     @Query("SELECT mi FROM MealInventory mi WHERE mi.inventoryItem.id = :inventoryItemId AND mi.meal.available = true")
     List<MealInventory> findByInventoryItemIdAndAvailableMeals(@Param("inventoryItemId") Long inventoryItemId);
     
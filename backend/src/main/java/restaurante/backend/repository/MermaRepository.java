@@ -30,6 +30,10 @@ public interface MermaRepository extends JpaRepository<Merma, Long> {
     @Query("SELECT COALESCE(SUM(m.totalCost), 0) FROM Merma m WHERE m.registeredAt BETWEEN :start AND :end")
     BigDecimal getTotalCostByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
+    // Número y costo total de mermas en [from, to) (límite superior exclusivo)
+    @Query("SELECT COUNT(m), COALESCE(SUM(m.totalCost), 0) FROM Merma m WHERE m.registeredAt >= :from AND m.registeredAt < :to")
+    List<Object[]> countAndSumCostInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
     // Obtener costo total de mermas por tipo y rango de fechas
     @Query("SELECT COALESCE(SUM(m.totalCost), 0) FROM Merma m WHERE m.type = :type AND m.registeredAt BETWEEN :start AND :end")
     BigDecimal getTotalCostByTypeAndDateRange(@Param("type") MermaType type, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
@@ -0,0 +1,33 @@
+package restaurante.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import restaurante.backend.entity.OrderIntake;
+import restaurante.backend.entity.OrderIntakeStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, Long> {
+
+    // Órdenes en espera, en orden de llegada
+    @Query("SELECT i FROM OrderIntake i WHERE i.status = :status ORDER BY i.id")
+    List<OrderIntake> findByStatusInArrivalOrder(@Param("status") OrderIntakeStatus status, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderIntake i SET i.status = :to WHERE i.id IN :ids AND i.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") OrderIntakeStatus from,
+                     @Param("to") OrderIntakeStatus to);
+
+    List<OrderIntake> findByStatus(OrderIntakeStatus status);
+
+    Optional<OrderIntake> findByRequestedByAndIdempotencyKey(String requestedBy, String idempotencyKey);
+
+    long countByStatus(OrderIntakeStatus status);
+}
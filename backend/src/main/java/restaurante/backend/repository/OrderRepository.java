@@ -1,17 +1,53 @@
 package restaurante.backend.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import restaurante.backend.entity.Order;
 import restaurante.backend.entity.OrderStatus;
 import restaurante.backend.entity.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+// Las consultas de lectura traen el usuario en el mismo SELECT; las líneas de la
+// orden se cargan por lotes (hibernate.default_batch_fetch_size) al armar OrderDTO.
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     List<Order> findByUser(User user);
+
+    @EntityGraph(attributePaths = "user")
     List<Order> findByUserOrderByOrderDateDesc(User user);
+
+    @EntityGraph(attributePaths = "user")
     List<Order> findAllByOrderByOrderDateDesc();
+
+    @EntityGraph(attributePaths = "user")
     List<Order> findByStatusOrderByOrderDateDesc(OrderStatus status);
+
+    @EntityGraph(attributePaths = "user")
+    List<Order> findByStatusInOrderByOrderDateDesc(Collection<OrderStatus> statuses);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<Order> findWithUserById(Long id);
+
+    // Órdenes pagadas cuya venta sigue sin registrar, por páginas de id (ver SaleRecorder)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.salePending = true AND o.id > :afterId ORDER BY o.id")
+    List<Order> findSalePendingAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // sale_pending no es actualizable por la entidad (ver Order); se marca solo con esta sentencia
+    @Modifying
+    @Query("UPDATE Order o SET o.salePending = true WHERE o.id = :id")
+    int markSalePending(@Param("id") Long id);
+
+    // Órdenes en [from, to) agrupadas por estado y tipo (semilla del tablero del día)
+    @Query("SELECT o.status, o.orderType, COUNT(o) FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :to GROUP BY o.status, o.orderType")
+    List<Object[]> countByStatusAndTypeInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,16 @@
+package restaurante.backend.repository;
+
+import restaurante.backend.dto.OrderSearchCriteria;
+import restaurante.backend.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Órdenes que cumplen los filtros, ordenadas por (orderDate, id) descendente,
+     * estrictamente después del cursor (afterOrderDate, afterId) si se indica.
+     */
+    List<Order> findPage(OrderSearchCriteria criteria, LocalDateTime afterOrderDate, Long afterId, int limit);
+}
@@ -0,0 +1,71 @@
+package restaurante.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import restaurante.backend.dto.OrderSearchCriteria;
+import restaurante.backend.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta de páginas por keyset: un solo SELECT con el usuario en fetch join y
+ * solo los filtros presentes. Las colecciones de la orden se cargan por lotes
+ * (hibernate.default_batch_fetch_size) al serializar la página.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(OrderSearchCriteria criteria, LocalDateTime afterOrderDate, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT o FROM Order o LEFT JOIN FETCH o.user");
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.getFrom() != null) {
+            conditions.add("o.orderDate >= :from");
+            params.put("from", criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            conditions.add("o.orderDate <= :to");
+            params.put("to", criteria.getTo());
+        }
+        if (criteria.getStatus() != null) {
+            conditions.add("o.status = :status");
+            params.put("status", criteria.getStatus());
+        }
+        if (criteria.getOrderType() != null) {
+            conditions.add("o.orderType = :orderType");
+            params.put("orderType", criteria.getOrderType());
+        }
+        if (criteria.getTableNumber() != null) {
+            conditions.add("o.tableNumber = :tableNumber");
+            params.put("tableNumber", criteria.getTableNumber());
+        }
+        if (criteria.getEmployeeId() != null) {
+            conditions.add("o.employeeId = :employeeId");
+            params.put("employeeId", criteria.getEmployeeId());
+        }
+        if (afterOrderDate != null && afterId != null) {
+            conditions.add("(o.orderDate < :afterOrderDate OR (o.orderDate = :afterOrderDate AND o.id < :afterId))");
+            params.put("afterOrderDate", afterOrderDate);
+            params.put("afterId", afterId);
+        }
+
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY o.orderDate DESC, o.id DESC");
+
+        TypedQuery<Order> query = entityManager.createQuery(jpql.toString(), Order.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -45,4 +45,15 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     // Query personalizada para promociones con bebidas específicas
     @Query("SELECT DISTINCT p FROM Promotion p JOIN p.drinks d WHERE d.id = :drinkId AND p.available = true")
     List<Promotion> findPromotionsWithDrink(@Param("drinkId") Long drinkId);
+    
+    @Query("SELECT p.id FROM Promotion p")
+    List<Long> findAllIds();
+    
+    // Pares (promoción, platillo) de todas las promociones
+    @Query("SELECT p.id, m.id FROM Promotion p JOIN p.meals m")
+    List<Object[]> findAllPromotionMealIds();
+    
+    // Pares (promoción, bebida) de todas las promociones
+    @Query("SELECT p.id, d.id FROM Promotion p JOIN p.drinks d")
+    List<Object[]> findAllPromotionDrinkIds();
 }
@@ -39,4 +39,11 @@ public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
     List<Object[]> getProductStatsByTypeBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                                     @Param("endDate") LocalDateTime endDate,
                                                     @Param("productType") String productType);
+    
+    // Estadísticas de productos en [from, to) (límite superior exclusivo), sin ordenar
+    @Query("SELECT si.productName, si.productType, SUM(si.quantity), SUM(si.totalPrice) " +
+           "FROM SaleItem si JOIN si.sale s " +
+           "WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "GROUP BY si.productName, si.productType")
+    List<Object[]> getProductStatsInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
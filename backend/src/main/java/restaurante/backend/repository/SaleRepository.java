@@ -23,10 +23,14 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     Double calculateTotalSalesBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                           @Param("endDate") LocalDateTime endDate);
     
+    // Número de ventas e ingresos en [from, to) (límite superior exclusivo)
+    @Query("SELECT COUNT(s), COALESCE(SUM(s.totalAmount), 0) FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to")
+    List<Object[]> countAndSumInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
     // Obtener las últimas N ventas
     List<Sale> findTop10ByOrderBySaleDateDesc();
     
-    // Encontrar ventas de hoy
-    @Query(value = "SELECT * FROM sales WHERE DATE(sale_date) = CURRENT_DATE", nativeQuery = true)
-    List<Sale> findTodaySales();
+    // Ventas en [from, to); con rango (y no DATE(sale_date)) usa idx_sales_sale_date
+    @Query("SELECT s FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to ORDER BY s.saleDate")
+    List<Sale> findInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
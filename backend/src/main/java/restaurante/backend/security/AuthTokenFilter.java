@@ -5,7 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,15 +25,22 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+
+    @Value("${jwt.stateless-auth.enabled:true}")
+    private boolean statelessAuthEnabled;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getEmailFromJwtToken(jwt);
+            JwtUtils.VerifiedToken token = jwt != null ? jwtUtils.parseAndValidate(jwt) : null;
+            if (token != null) {
+                String email = token.getSubject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                UserDetails userDetails = resolveUserDetails(token, email);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -45,6 +54,27 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Con el modo sin estado activo, una cuenta ya verificada con el mismo rol del token
+    // se autentica solo con los claims; si no, se consulta la base de datos y se cachea el rol
+    private UserDetails resolveUserDetails(JwtUtils.VerifiedToken token, String email) {
+        if (!statelessAuthEnabled) {
+            return userDetailsService.loadUserByUsername(email);
+        }
+
+        String tokenRole = token.getRole();
+        if (tokenRole != null && tokenRole.equals(authenticatedUserCache.getVerifiedRole(email))) {
+            return UserPrincipal.fromClaims(email, tokenRole);
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        userDetails.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .filter(authority -> authority.startsWith("ROLE_"))
+            .findFirst()
+            .ifPresent(authority -> authenticatedUserCache.put(email, authority.substring("ROLE_".length())));
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,84 @@
+package restaurante.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import restaurante.backend.config.AfterCommit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché acotada (LRU con TTL) de cuentas ya verificadas contra la base de datos.
+ *
+ * Guarda, por email, el rol que tenía la cuenta la última vez que se consultó.
+ * Mientras la entrada esté vigente y el rol del JWT coincida, {@link AuthTokenFilter}
+ * construye el {@link UserPrincipal} directamente de los claims sin consultar
+ * {@code workers} ni {@code users}. Desactivar un trabajador, cambiar su rol o
+ * email, o cambiar una contraseña debe llamar a {@link #evict(String)} para que
+ * el siguiente request vuelva a validar la cuenta en la base de datos.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    @Value("${jwt.stateless-auth.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${jwt.stateless-auth.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Devuelve el rol verificado para el email, o {@code null} si no hay entrada vigente.
+     */
+    public String getVerifiedRole(String email) {
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(email);
+                return null;
+            }
+            return entry.role;
+        }
+    }
+
+    public void put(String email, String role) {
+        synchronized (entries) {
+            entries.put(email, new Entry(role, System.currentTimeMillis() + ttlSeconds * 1000));
+        }
+    }
+
+    /**
+     * Gancho de revocación: obliga a verificar de nuevo la cuenta en el próximo request.
+     * Dentro de una transacción se vuelve a descartar al confirmar: un request que llegue
+     * antes del commit todavía lee el rol o el estado anterior y lo guardaría en la caché.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        AfterCommit.runNowAndAfterCommit(() -> {
+            synchronized (entries) {
+                entries.remove(email);
+            }
+        });
+    }
+
+    private static final class Entry {
+        private final String role;
+        private final long expiresAt;
+
+        private Entry(String role, long expiresAt) {
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
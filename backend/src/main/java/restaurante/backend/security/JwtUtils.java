@@ -5,20 +5,39 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtils {
-    
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    // La clave y el parser se construyen una sola vez a partir de jwt.secret
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Digest SHA-256 del token -> datos ya verificados; cada entrada vive hasta que expira el token
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public String generateJwtToken(String email) {
@@ -26,42 +45,51 @@ public class JwtUtils {
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
     public String generateJwtToken(String email, String role) {
         return Jwts.builder()
                 .setSubject(email)
                 .claim("role", role)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getEmailFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-    
-    public String getRoleFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
-    }
+    /**
+     * Verifica el token una sola vez y devuelve su email, rol y expiración, o {@code null}
+     * si no es válido. Los tokens ya verificados se reconocen por su digest hasta su fecha
+     * de expiración; lo que se cachea es inmutable porque lo comparten todos los requests.
+     */
+    public VerifiedToken parseAndValidate(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            System.err.println("JWT claims string is empty");
+            return null;
+        }
+
+        String digest = digest(authToken);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            verifiedTokens.remove(digest);
+            System.err.println("JWT token is expired: " + new Date(cached.getExpiresAt()));
+            return null;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Date expiration = claims.getExpiration();
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+            if (expiration != null) {
+                rememberVerified(digest, verified);
+            }
+            return verified;
         } catch (SecurityException e) {
             System.err.println("Invalid JWT signature: " + e.getMessage());
         } catch (MalformedJwtException e) {
@@ -73,6 +101,71 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             System.err.println("JWT claims string is empty: " + e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getEmailFromJwtToken(String token) {
+        VerifiedToken verified = parseAndValidate(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+
+    public String getRoleFromJwtToken(String token) {
+        VerifiedToken verified = parseAndValidate(token);
+        return verified != null ? verified.getRole() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidate(authToken) != null;
+    }
+
+    private void rememberVerified(String digest, VerifiedToken verified) {
+        if (verifiedTokens.size() >= verifiedCacheMaxEntries) {
+            verifiedTokens.values().removeIf(VerifiedToken::isExpired);
+            if (verifiedTokens.size() >= verifiedCacheMaxEntries) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(digest, verified);
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Lo que la autenticación usa de un token válido: email (subject), rol y expiración
+     * en milisegundos ({@link Long#MAX_VALUE} si el token no expira).
+     */
+    public static final class VerifiedToken {
+        private final String subject;
+        private final String role;
+        private final long expiresAt;
+
+        public VerifiedToken(String subject, String role, long expiresAt) {
+            this.subject = subject;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
     }
 }
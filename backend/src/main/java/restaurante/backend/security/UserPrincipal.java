@@ -48,6 +48,17 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Principal construido solo con los claims de un JWT ya verificado (sin id ni contraseña).
+     */
+    public static UserPrincipal fromClaims(String email, String role) {
+        Collection<GrantedAuthority> authorities = Collections.singletonList(
+            new SimpleGrantedAuthority("ROLE_" + role)
+        );
+
+        return new UserPrincipal(null, email, null, authorities);
+    }
+
     public Long getId() {
         return id;
     }
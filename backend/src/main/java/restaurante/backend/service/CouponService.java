@@ -6,6 +6,7 @@ import restaurante.backend.dto.CouponDTO;
 import restaurante.backend.dto.CouponValidationRequest;
 import restaurante.backend.dto.CouponValidationResponse;
 import restaurante.backend.entity.Coupon;
+import restaurante.backend.entity.SearchKind;
 import restaurante.backend.repository.CouponRepository;
 
 import java.math.BigDecimal;
@@ -18,6 +19,9 @@ public class CouponService {
     
     @Autowired
     private CouponRepository couponRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
     
     // Obtener todos los cupones
     public List<CouponDTO> getAllCoupons() {
@@ -58,6 +62,7 @@ public class CouponService {
         coupon.setCode(coupon.getCode().toUpperCase()); // Asegurar mayúsculas
         
         Coupon savedCoupon = couponRepository.save(coupon);
+        searchIndexService.index(SearchKind.COUPON, savedCoupon.getId(), savedCoupon.getName(), savedCoupon.getCode());
         return new CouponDTO(savedCoupon);
     }
     
@@ -81,6 +86,7 @@ public class CouponService {
         existingCoupon.setMinimumPurchase(couponDTO.getMinimumPurchase());
         
         Coupon updatedCoupon = couponRepository.save(existingCoupon);
+        searchIndexService.index(SearchKind.COUPON, updatedCoupon.getId(), updatedCoupon.getName(), updatedCoupon.getCode());
         return new CouponDTO(updatedCoupon);
     }
     
@@ -90,6 +96,7 @@ public class CouponService {
             throw new RuntimeException("Cupón no encontrado con ID: " + id);
         }
         couponRepository.deleteById(id);
+        searchIndexService.remove(SearchKind.COUPON, id);
     }
     
     // Activar/Desactivar cupón
@@ -134,9 +141,10 @@ public class CouponService {
         return CouponValidationResponse.success(discountAmount, finalAmount, new CouponDTO(coupon));
     }
     
-    // Buscar cupones por nombre
+    // Buscar cupones por nombre y código, por relevancia
     public List<CouponDTO> searchCouponsByName(String name) {
-        return couponRepository.findByNameContainingIgnoreCase(name)
+        List<Long> ids = searchIndexService.searchIds(SearchKind.COUPON, name);
+        return SearchIndexService.inIdOrder(ids, couponRepository.findAllById(ids), Coupon::getId)
                 .stream()
                 .map(CouponDTO::new)
                 .collect(Collectors.toList());
@@ -0,0 +1,190 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import restaurante.backend.dto.OrderEmailSnapshot;
+import restaurante.backend.entity.EmailOutbox;
+import restaurante.backend.entity.EmailOutboxStatus;
+import restaurante.backend.repository.EmailOutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Despacha en segundo plano los emails encolados por {@link EmailOutboxService}.
+ *
+ * Cada ciclo toma un lote de filas vencidas, construye los mensajes desde el
+ * {@link OrderEmailSnapshot} guardado y los envía con una sola conexión SMTP.
+ * Los envíos fallidos se reintentan con backoff exponencial
+ * ({@code email.outbox.base-backoff-seconds} * 2^(intentos-1), hasta
+ * {@code email.outbox.max-backoff-seconds}); al agotar
+ * {@code email.outbox.max-attempts} la fila queda en FAILED.
+ *
+ * Pensado para una sola instancia de la aplicación: dos instancias leyendo el
+ * mismo outbox podrían enviar un email dos veces.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    @Value("${email.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    private Counter sentCounter;
+    private Counter retryCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        sentCounter = Counter.builder("email.outbox.dispatched")
+                .description("Emails del outbox entregados al SMTP")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        retryCounter = Counter.builder("email.outbox.dispatched")
+                .description("Envíos del outbox fallidos que se reintentarán")
+                .tag("result", "retry")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("email.outbox.dispatched")
+                .description("Emails del outbox descartados tras agotar los reintentos")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        int size = Math.max(1, batchSize);
+        List<EmailOutbox> batch;
+        do {
+            batch = emailOutboxRepository.findDue(EmailOutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, size));
+            if (!batch.isEmpty()) {
+                dispatchBatch(batch);
+            }
+        } while (batch.size() == size);
+    }
+
+    private void dispatchBatch(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox entry : batch) {
+            try {
+                messages.put(buildMessage(entry), entry);
+            } catch (Exception e) {
+                markFailure(entry, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Map<Object, Exception> failedMessages = Map.of();
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failedMessages = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+            } catch (MailException e) {
+                failedMessages = allFailed(messages, e);
+            }
+
+            for (Map.Entry<MimeMessage, EmailOutbox> sent : messages.entrySet()) {
+                Exception failure = failedMessages.get(sent.getKey());
+                if (failure != null) {
+                    markFailure(sent.getValue(), failure);
+                } else {
+                    markSent(sent.getValue());
+                }
+            }
+        }
+
+        emailOutboxRepository.saveAll(batch);
+    }
+
+    private MimeMessage buildMessage(EmailOutbox entry) throws Exception {
+        OrderEmailSnapshot snapshot = objectMapper.readValue(entry.getPayload(), OrderEmailSnapshot.class);
+        return switch (entry.getType()) {
+            case ORDER_CONFIRMATION -> emailService.buildOrderConfirmationMessage(snapshot);
+            case ORDER_READY -> emailService.buildOrderReadyMessage(snapshot);
+        };
+    }
+
+    private Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutbox> messages, Exception e) {
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+        messages.keySet().forEach(message -> failed.put(message, e));
+        return failed;
+    }
+
+    private void markSent(EmailOutbox entry) {
+        entry.setStatus(EmailOutboxStatus.SENT);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setSentAt(LocalDateTime.now());
+        entry.setLastError(null);
+        sentCounter.increment();
+        logger.info("{} email sent to {} for order {}", entry.getType(), entry.getRecipientEmail(), entry.getOrderId());
+    }
+
+    private void markFailure(EmailOutbox entry, Exception e) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(e.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            entry.setStatus(EmailOutboxStatus.FAILED);
+            failedCounter.increment();
+            logger.error("{} email for order {} failed permanently after {} attempts: {}",
+                    entry.getType(), entry.getOrderId(), attempts, e.getMessage());
+            return;
+        }
+
+        long backoffSeconds = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min(attempts - 1, 20));
+        entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+        retryCounter.increment();
+        logger.warn("{} email for order {} failed (attempt {}/{}), retrying in {}s: {}",
+                entry.getType(), entry.getOrderId(), attempts, maxAttempts, backoffSeconds, e.getMessage());
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,58 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import restaurante.backend.dto.OrderEmailSnapshot;
+import restaurante.backend.entity.EmailOutbox;
+import restaurante.backend.entity.EmailOutboxType;
+import restaurante.backend.entity.Order;
+import restaurante.backend.repository.EmailOutboxRepository;
+
+/**
+ * Encola emails de órdenes en la tabla {@code email_outbox}.
+ *
+ * Se llama dentro de la transacción que guarda la orden: si la orden se revierte,
+ * el email también; si se confirma, {@link EmailOutboxDispatcher} lo enviará
+ * aunque la aplicación se reinicie antes del envío.
+ */
+@Service
+@Transactional
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void enqueueOrderConfirmation(Order order) {
+        enqueue(EmailOutboxType.ORDER_CONFIRMATION, order);
+    }
+
+    public void enqueueOrderReady(Order order) {
+        enqueue(EmailOutboxType.ORDER_READY, order);
+    }
+
+    private void enqueue(EmailOutboxType type, Order order) {
+        OrderEmailSnapshot snapshot = OrderEmailSnapshot.from(order);
+        if (snapshot.getRecipientEmail() == null || snapshot.getRecipientEmail().isEmpty()) {
+            logger.warn("Cannot enqueue {} email: user or email is null for order {}", type, order.getId());
+            return;
+        }
+
+        try {
+            String payload = objectMapper.writeValueAsString(snapshot);
+            emailOutboxRepository.save(new EmailOutbox(type, snapshot.getRecipientEmail(), order.getId(), payload));
+            logger.info("{} email queued for order {}", type, order.getId());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el email de la orden " + order.getId(), e);
+        }
+    }
+}
@@ -12,27 +12,18 @@ import org.slf4j.LoggerFactory;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import restaurante.backend.entity.Order;
-import restaurante.backend.entity.OrderMeal;
-import restaurante.backend.entity.OrderDrink;
-import restaurante.backend.entity.User;
-import restaurante.backend.repository.UserRepository;
+import restaurante.backend.dto.OrderEmailSnapshot;
 import java.math.BigDecimal;
-import java.util.List;
 
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    @Autowired
-    private JavaMailSender mailSender;
-
-    @Autowired
-    private UserRepository userRepository;
+    private static final String UNSUBSCRIBE_URL_PLACEHOLDER = "{{unsubscribeUrl}}";
 
     @Autowired
-    private ConsentService consentService;
+    private JavaMailSender mailSender;
 
     @Value("${restaurant.email:noreply@restaurant.com}")
     private String fromEmail;
@@ -49,7 +40,7 @@ public class EmailService {
     @Value("${frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
-    @Async("emailTaskExecutor")
+    @Async("transactionalEmailExecutor")
     public void sendWelcomeEmail(String toEmail, String firstName, String lastName) {
         try {
             logger.info("Sending welcome email to: {}", toEmail);
@@ -75,7 +66,7 @@ public class EmailService {
         }
     }
 
-    @Async("emailTaskExecutor")
+    @Async("transactionalEmailExecutor")
     public void sendSimpleWelcomeEmail(String toEmail, String firstName, String lastName) {
         try {
             logger.info("Sending simple welcome email to: {}", toEmail);
@@ -183,115 +174,56 @@ public class EmailService {
             restaurantPhone, restaurantName);
     }
 
-    @Async("emailTaskExecutor")
-    public void sendOrderConfirmationEmail(Order order) {
-        try {
-            if (order.getUser() == null || order.getUser().getEmail() == null) {
-                logger.warn("Cannot send order confirmation email: user or email is null for order {}", order.getId());
-                return;
-            }
-
-            logger.info("Sending order confirmation email to: {} for order {}", order.getUser().getEmail(), order.getId());
-            
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("¡Pedido Confirmado! - Orden #" + order.getId());
-
-            String htmlContent = buildOrderConfirmationContent(order);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            logger.info("Order confirmation email sent successfully to: {} for order {}", order.getUser().getEmail(), order.getId());
-
-        } catch (MessagingException e) {
-            logger.error("Error sending order confirmation email to {} for order {}: {}", 
-                order.getUser() != null ? order.getUser().getEmail() : "null", order.getId(), e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error sending order confirmation email to {} for order {}: {}", 
-                order.getUser() != null ? order.getUser().getEmail() : "null", order.getId(), e.getMessage());
-        }
+    /**
+     * Construye el email de confirmación a partir de la copia guardada en el outbox.
+     * El envío y los reintentos los maneja {@link EmailOutboxDispatcher}.
+     */
+    public MimeMessage buildOrderConfirmationMessage(OrderEmailSnapshot order) throws MessagingException {
+        return buildHtmlMessage(order.getRecipientEmail(),
+            "¡Pedido Confirmado! - Orden #" + order.getOrderId(),
+            buildOrderConfirmationContent(order));
     }
 
-    @Async("emailTaskExecutor")
-    public void sendOrderReadyEmail(Order order) {
-        try {
-            if (order.getUser() == null || order.getUser().getEmail() == null) {
-                logger.warn("Cannot send order ready email: user or email is null for order {}", order.getId());
-                return;
-            }
-
-            logger.info("Sending order ready email to: {} for order {}", order.getUser().getEmail(), order.getId());
-            
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("¡Tu Pedido Está Listo! - Orden #" + order.getId());
-
-            String htmlContent = buildOrderReadyContent(order);
-            helper.setText(htmlContent, true);
+    public MimeMessage buildOrderReadyMessage(OrderEmailSnapshot order) throws MessagingException {
+        return buildHtmlMessage(order.getRecipientEmail(),
+            "¡Tu Pedido Está Listo! - Orden #" + order.getOrderId(),
+            buildOrderReadyContent(order));
+    }
 
-            mailSender.send(message);
-            logger.info("Order ready email sent successfully to: {} for order {}", order.getUser().getEmail(), order.getId());
+    private MimeMessage buildHtmlMessage(String toEmail, String subject, String htmlContent) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-        } catch (MessagingException e) {
-            logger.error("Error sending order ready email to {} for order {}: {}", 
-                order.getUser() != null ? order.getUser().getEmail() : "null", order.getId(), e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error sending order ready email to {} for order {}: {}", 
-                order.getUser() != null ? order.getUser().getEmail() : "null", order.getId(), e.getMessage());
-        }
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        return message;
     }
 
-    private String buildOrderConfirmationContent(Order order) {
+    private String buildOrderConfirmationContent(OrderEmailSnapshot order) {
         StringBuilder itemsHtml = new StringBuilder();
         BigDecimal total = BigDecimal.ZERO;
 
-        // Agregar comidas
-        if (order.getOrderMeals() != null) {
-            for (OrderMeal orderMeal : order.getOrderMeals()) {
-                BigDecimal itemTotal = orderMeal.getMeal().getPrice().multiply(BigDecimal.valueOf(orderMeal.getQuantity()));
-                itemsHtml.append(String.format("""
-                    <tr>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee;">🍽️ %s</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: center;">%d</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
-                    </tr>
-                    """, 
-                    orderMeal.getMeal().getName(), 
-                    orderMeal.getQuantity(), 
-                    orderMeal.getMeal().getPrice(), 
-                    itemTotal));
-                total = total.add(itemTotal);
-            }
-        }
-
-        // Agregar bebidas
-        if (order.getOrderDrinks() != null) {
-            for (OrderDrink orderDrink : order.getOrderDrinks()) {
-                BigDecimal itemTotal = orderDrink.getDrink().getPrice().multiply(BigDecimal.valueOf(orderDrink.getQuantity()));
-                itemsHtml.append(String.format("""
-                    <tr>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee;">🥤 %s</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: center;">%d</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
-                        <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
-                    </tr>
-                    """, 
-                    orderDrink.getDrink().getName(), 
-                    orderDrink.getQuantity(), 
-                    orderDrink.getDrink().getPrice(), 
-                    itemTotal));
-                total = total.add(itemTotal);
-            }
+        for (OrderEmailSnapshot.Item item : order.getItems()) {
+            BigDecimal itemTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            itemsHtml.append(String.format("""
+                <tr>
+                    <td style="padding: 8px; border-bottom: 1px solid #eee;">%s %s</td>
+                    <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: center;">%d</td>
+                    <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
+                    <td style="padding: 8px; border-bottom: 1px solid #eee; text-align: right;">$%.2f</td>
+                </tr>
+                """, 
+                OrderEmailSnapshot.Item.DRINK.equals(item.getKind()) ? "🥤" : "🍽️",
+                item.getName(), 
+                item.getQuantity(), 
+                item.getUnitPrice(), 
+                itemTotal));
+            total = total.add(itemTotal);
         }
 
-        String orderTypeText = order.getOrderType().toString().equals("DINE_IN") ? 
+        String orderTypeText = "DINE_IN".equals(order.getOrderType()) ? 
             "Para comer en el restaurante" + (order.getTableNumber() != null ? " (Mesa " + order.getTableNumber() + ")" : "") :
             "Para llevar";
 
@@ -364,8 +296,8 @@ public class EmailService {
             </body>
             </html>
             """, 
-            order.getId(),
-            order.getUser().getFirstName(),
+            order.getOrderId(),
+            order.getCustomerFirstName(),
             orderTypeText,
             order.getOrderDate().toString().substring(0, 16).replace("T", " a las "),
             itemsHtml.toString(),
@@ -376,8 +308,8 @@ public class EmailService {
             restaurantPhone);
     }
 
-    private String buildOrderReadyContent(Order order) {
-        String orderTypeText = order.getOrderType().toString().equals("DINE_IN") ? 
+    private String buildOrderReadyContent(OrderEmailSnapshot order) {
+        String orderTypeText = "DINE_IN".equals(order.getOrderType()) ? 
             "en el restaurante" + (order.getTableNumber() != null ? " (Mesa " + order.getTableNumber() + ")" : "") :
             "en el mostrador para llevar";
 
@@ -436,8 +368,8 @@ public class EmailService {
             </body>
             </html>
             """, 
-            order.getId(),
-            order.getUser().getFirstName(),
+            order.getOrderId(),
+            order.getCustomerFirstName(),
             orderTypeText,
             order.getTotalCost(),
             restaurantAddress,
@@ -448,72 +380,35 @@ public class EmailService {
             restaurantPhone);
     }
 
-    @Async("emailTaskExecutor")
-    public void sendMarketingEmail(String subject, String content, List<String> recipients) {
-        logger.info("Starting marketing email campaign to {} recipients", recipients.size());
-        
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (String email : recipients) {
-            try {
-                logger.info("Sending marketing email to: {}", email);
-                
-                MimeMessage message = mailSender.createMimeMessage();
-                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-                helper.setFrom(fromEmail);
-                helper.setTo(email);
-                helper.setSubject(subject);
-
-                String htmlContent = buildMarketingEmailContent(subject, content, email);
-                helper.setText(htmlContent, true);
-
-                mailSender.send(message);
-                successCount++;
-                logger.info("Marketing email sent successfully to: {}", email);
-
-                // Pequeña pausa entre emails para no sobrecargar el servidor SMTP
-                Thread.sleep(100);
-
-            } catch (Exception e) {
-                failureCount++;
-                logger.error("Error sending marketing email to {}: {}", email, e.getMessage());
-            }
-        }
-        
-        logger.info("Marketing campaign completed. Success: {}, Failures: {}", successCount, failureCount);
+    /**
+     * Renderiza la plantilla de marketing una sola vez por campaña. El enlace de baja
+     * queda como {@link #UNSUBSCRIBE_URL_PLACEHOLDER} y se completa por destinatario
+     * en {@link #buildMarketingMessage(String, String, String)}.
+     */
+    public String renderMarketingTemplate(String subject, String content) {
+        return buildMarketingEmailContent(subject, content, UNSUBSCRIBE_URL_PLACEHOLDER);
     }
 
-    public void sendMarketingEmailToAllCustomers(String subject, String content) {
-        try {
-            // Obtener solo usuarios que han dado consentimiento para marketing
-            List<User> customers = consentService.getUsersWithMarketingConsent();
-            List<String> emails = customers.stream()
-                .map(User::getEmail)
-                .filter(email -> email != null && !email.isEmpty())
-                .toList();
-            
-            if (emails.isEmpty()) {
-                logger.warn("No customers with marketing consent found for campaign");
-                return;
-            }
-            
-            logger.info("Starting marketing campaign to {} customers with marketing consent", emails.size());
-            sendMarketingEmail(subject, content, emails);
-            
-        } catch (Exception e) {
-            logger.error("Error retrieving customers with marketing consent: {}", e.getMessage());
-        }
+    public MimeMessage buildMarketingMessage(String subject, String renderedTemplate, String recipientEmail)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(recipientEmail);
+        helper.setSubject(subject);
+        helper.setText(renderedTemplate.replace(UNSUBSCRIBE_URL_PLACEHOLDER, buildUnsubscribeUrl(recipientEmail)), true);
+        return message;
     }
 
-    private String buildMarketingEmailContent(String subject, String content, String recipientEmail) {
+    private String buildUnsubscribeUrl(String recipientEmail) {
+        return frontendUrl + "/unsubscribe?email=" + recipientEmail;
+    }
+
+    private String buildMarketingEmailContent(String subject, String content, String unsubscribeUrl) {
         // Convertir saltos de línea a <br> para HTML
         String htmlContent = content.replace("\n", "<br>");
         
-        // Crear URL de unsubscribe
-        String unsubscribeUrl = frontendUrl + "/unsubscribe?email=" + recipientEmail;
-        
         return String.format("""
             <!DOCTYPE html>
             <html>
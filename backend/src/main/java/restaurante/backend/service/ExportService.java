@@ -0,0 +1,301 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportaciones completas de ventas, items de venta, órdenes y mermas en CSV o NDJSON.
+ *
+ * Las filas se leen con un cursor de solo avance ({@code export.fetch-size} filas
+ * por viaje al servidor) y se escriben directo al {@link Writer} de la respuesta,
+ * así la memoria no crece con el rango de fechas. PostgreSQL solo usa el cursor
+ * con autocommit apagado, por eso cada exportación corre en una transacción de
+ * solo lectura.
+ *
+ * Las filas salen ordenadas por id: si la descarga se corta, el cliente puede
+ * retomarla pidiendo {@code afterId} con el último id que recibió.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Tiempo máximo por consulta; 0 = sin límite
+    @Value("${export.query-timeout-seconds:0}")
+    private int queryTimeoutSeconds;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(Math.max(1, fetchSize));
+        cursorTemplate.setQueryTimeout(queryTimeoutSeconds);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public enum Dataset {
+        SALES("sales", "id",
+                "SELECT id, customer_name, total_amount, sale_date, order_id FROM sales",
+                "sale_date"),
+        SALE_ITEMS("sale-items", "si.id",
+                "SELECT si.id, si.sale_id, s.sale_date, si.product_name, si.product_type, "
+                        + "si.quantity, si.unit_price, si.total_price "
+                        + "FROM sale_items si JOIN sales s ON s.id = si.sale_id",
+                "s.sale_date"),
+        ORDERS("orders", "id",
+                "SELECT id, order_date, status, order_type, table_number, total_cost, paid, user_id, "
+                        + "customer_first_name, customer_last_name, customer_phone, "
+                        + "employee_id, employee_name, employee_role FROM orders",
+                "order_date"),
+        MERMAS("mermas", "id",
+                "SELECT id, registered_at, type, item_id, item_name, quantity, unit, unit_cost, "
+                        + "total_cost, reason, registered_by FROM mermas",
+                "registered_at");
+
+        private final String path;
+        private final String idColumn;
+        private final String select;
+        private final String dateColumn;
+
+        Dataset(String path, String idColumn, String select, String dateColumn) {
+            this.path = path;
+            this.idColumn = idColumn;
+            this.select = select;
+            this.dateColumn = dateColumn;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public static Dataset fromPath(String path) {
+            for (Dataset dataset : values()) {
+                if (dataset.path.equals(path)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Exportación desconocida: " + path);
+        }
+    }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Escribe las filas del rango ({@code start} inclusive, {@code end} exclusivo,
+     * ambos opcionales) con id mayor que {@code afterId}, hasta {@code limit} filas
+     * si se indica. Devuelve cuántas filas se escribieron.
+     */
+    public long export(Dataset dataset, Format format, LocalDateTime start, LocalDateTime end,
+                       Long afterId, Integer limit, Writer writer) {
+        StringBuilder sql = new StringBuilder(dataset.select);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (afterId != null) {
+            conditions.add(dataset.idColumn + " > ?");
+            params.add(afterId);
+        }
+        if (start != null) {
+            conditions.add(dataset.dateColumn + " >= ?");
+            params.add(Timestamp.valueOf(start));
+        }
+        if (end != null) {
+            conditions.add(dataset.dateColumn + " < ?");
+            params.add(Timestamp.valueOf(end));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(dataset.idColumn);
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+
+        ResultSetExtractor<Long> extractor = format == Format.CSV
+                ? rs -> writeCsv(rs, writer)
+                : rs -> writeNdjson(rs, writer);
+
+        long started = System.currentTimeMillis();
+        Long rows = readOnlyTransaction.execute(status -> cursorTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, extractor));
+
+        long written = rows != null ? rows : 0;
+        Counter.builder("export.rows")
+                .description("Filas escritas por las exportaciones")
+                .tag("dataset", dataset.path)
+                .tag("format", format.name().toLowerCase())
+                .register(meterRegistry)
+                .increment(written);
+        logger.info("Exported {} {} rows as {} in {} ms", written, dataset.path, format,
+                System.currentTimeMillis() - started);
+        return written;
+    }
+
+    private long writeCsv(ResultSet rs, Writer writer) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columns = metaData.getColumnCount();
+        try {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write(metaData.getColumnLabel(i));
+            }
+            writer.write("\r\n");
+
+            long rows = 0;
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    Object raw = rs.getObject(i);
+                    if (raw instanceof String text) {
+                        writeCsvField(writer, neutralizeFormula(text));
+                    } else if (raw != null) {
+                        writeCsvField(writer, toExportValue(raw).toString());
+                    }
+                }
+                writer.write("\r\n");
+                rows++;
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long writeNdjson(ResultSet rs, Writer writer) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columns = metaData.getColumnCount();
+        String[] labels = new String[columns];
+        for (int i = 1; i <= columns; i++) {
+            labels[i - 1] = metaData.getColumnLabel(i);
+        }
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            long rows = 0;
+            while (rs.next()) {
+                generator.writeStartObject();
+                for (int i = 1; i <= columns; i++) {
+                    generator.writeFieldName(labels[i - 1]);
+                    writeJsonValue(generator, rs.getObject(i));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Fechas como ISO-8601 local, igual que en el JSON del resto de la API
+    private static Object toExportValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof BigDecimal decimal) {
+            // Montos NUMERIC sin pasar por double para no perder precisión
+            generator.writeNumber(decimal);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else {
+            generator.writeString(toExportValue(value).toString());
+        }
+    }
+
+    /**
+     * Los textos libres (nombres de cliente, motivos de merma, nombres de items) que
+     * empiezan con =, +, -, @, tabulador o retorno de carro se abren en Excel o
+     * Sheets como fórmulas; con una comilla simple delante quedan como texto. Solo se
+     * aplica a columnas de texto, para no alterar montos ni cantidades negativas.
+     */
+    static String neutralizeFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,655 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.InventoryImportReportDTO;
+import restaurante.backend.dto.InventoryImportReportDTO.Action;
+import restaurante.backend.dto.InventoryImportReportDTO.LineResult;
+import restaurante.backend.dto.InventoryImportReportDTO.Status;
+import restaurante.backend.entity.InventoryCategory;
+import restaurante.backend.entity.InventoryMovementType;
+import restaurante.backend.entity.SearchKind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Importación masiva de inventario desde CSV o un arreglo JSON: entradas de proveedor,
+ * ajustes de stock y altas de items nuevos.
+ *
+ * Cada línea identifica el item por {@code id} o {@code name} y trae la cantidad a
+ * sumar (o restar) más, opcionalmente, costo, caducidad, proveedor, unidad, categoría,
+ * stock mínimo y descripción; en un item existente, los campos vacíos conservan su
+ * valor. Un nombre que no existe crea el item si trae {@code unit} y {@code category}.
+ * El archivo se lee por registros y se valida completo antes de tocar nada: con un solo
+ * error no se aplica ninguna línea. Si todo es válido, los cambios se aplican en una
+ * transacción con un UPDATE condicional en lote para los items existentes y un INSERT
+ * en lote para los nuevos, y quedan en el libro de movimientos. Si entre la validación
+ * y la escritura otro proceso cambió un item o creó uno de los nombres, se revierte todo.
+ */
+@Service
+public class InventoryImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryImportService.class);
+
+    private static final String NOTE = "Importación de inventario";
+
+    // Nombre de columna (CSV) o de propiedad (JSON), en minúsculas -> nombre canónico
+    private static final Map<String, String> COLUMNS = new HashMap<>();
+
+    static {
+        for (String column : List.of("id", "name", "quantity", "costPerUnit", "expirationDate", "supplier",
+                "unit", "category", "minimumStock", "description")) {
+            COLUMNS.put(column.toLowerCase(Locale.ROOT), column);
+        }
+    }
+
+    private static final String RESOLVE_SQL =
+            "SELECT id, name, current_stock, active FROM inventory_items WHERE id = ANY (?) OR LOWER(name) = ANY (?)";
+
+    // Condicional como la reserva: si el stock cambió y quedaría negativo, la fila no se toca
+    private static final String UPDATE_SQL =
+            "UPDATE inventory_items SET current_stock = current_stock + ?, " +
+            "cost_per_unit = COALESCE(CAST(? AS NUMERIC(10, 2)), cost_per_unit), " +
+            "expiration_date = COALESCE(CAST(? AS TIMESTAMP), expiration_date), " +
+            "supplier = COALESCE(CAST(? AS VARCHAR), supplier), " +
+            "unit = COALESCE(CAST(? AS VARCHAR), unit), " +
+            "category = COALESCE(CAST(? AS VARCHAR), category), " +
+            "minimum_stock = COALESCE(CAST(? AS NUMERIC(10, 2)), minimum_stock), " +
+            "description = COALESCE(CAST(? AS VARCHAR), description), updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND active = true AND current_stock + ? >= 0";
+
+    // Sin ON CONFLICT: si otro proceso creó el mismo nombre desde la validación, el
+    // índice único rechaza el lote y la importación se revierte como cualquier conflicto
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_items (name, description, current_stock, minimum_stock, unit, category, " +
+            "cost_per_unit, supplier, expiration_date, active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String BY_NAME_SQL =
+            "SELECT id, name FROM inventory_items WHERE name = ANY (?)";
+
+    private static final String STOCK_SQL =
+            "SELECT id, current_stock FROM inventory_items WHERE id = ANY (?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.import.max-lines:10000}")
+    private int maxLines;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter appliedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        appliedCounter = Counter.builder("inventory.import.lines")
+                .description("Líneas de importación de inventario aplicadas")
+                .tag("result", "applied")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("inventory.import.lines")
+                .description("Líneas de importación de inventario con errores")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * CSV con encabezado; las columnas reconocidas son las de {@link #COLUMNS}, en cualquier orden.
+     */
+    public InventoryImportReportDTO importCsv(Reader reader, boolean dryRun) {
+        List<RawLine> rawLines = new ArrayList<>();
+        try {
+            CsvRecordReader csv = new CsvRecordReader(reader);
+            List<String> header = csv.next();
+            if (header == null) {
+                return failed("El archivo está vacío", dryRun);
+            }
+            List<String> columns = new ArrayList<>(header.size());
+            for (int i = 0; i < header.size(); i++) {
+                // Excel agrega un BOM al inicio de los CSV en UTF-8
+                String name = (i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i)).trim();
+                String column = COLUMNS.get(name.toLowerCase(Locale.ROOT));
+                if (column == null) {
+                    return failed("Columna desconocida: " + name, dryRun);
+                }
+                columns.add(column);
+            }
+            if (!columns.contains("quantity") || (!columns.contains("id") && !columns.contains("name"))) {
+                return failed("El encabezado debe incluir quantity y id o name", dryRun);
+            }
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (rawLines.size() >= maxLines) {
+                    return failed("El archivo supera el máximo de " + maxLines + " líneas", dryRun);
+                }
+                RawLine rawLine = new RawLine(csv.getRecordLineNumber());
+                if (record.size() > columns.size()) {
+                    rawLine.errors.add("Tiene " + record.size() + " campos y el encabezado " + columns.size());
+                }
+                for (int i = 0; i < Math.min(record.size(), columns.size()); i++) {
+                    rawLine.values.put(columns.get(i), record.get(i));
+                }
+                rawLines.add(rawLine);
+            }
+        } catch (IllegalArgumentException e) {
+            return failed(e.getMessage(), dryRun);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return process(rawLines, dryRun);
+    }
+
+    /**
+     * Arreglo JSON de objetos con las mismas propiedades que las columnas del CSV.
+     */
+    public InventoryImportReportDTO importJson(InputStream input, boolean dryRun) {
+        List<RawLine> rawLines = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return failed("Se esperaba un arreglo JSON de líneas", dryRun);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (rawLines.size() >= maxLines) {
+                    return failed("El archivo supera el máximo de " + maxLines + " líneas", dryRun);
+                }
+                RawLine rawLine = new RawLine(rawLines.size() + 1);
+                JsonNode node = objectMapper.readTree(parser);
+                node.properties().forEach(field -> {
+                    String column = COLUMNS.get(field.getKey().toLowerCase(Locale.ROOT));
+                    if (column == null) {
+                        rawLine.errors.add("Propiedad desconocida: " + field.getKey());
+                    } else if (!field.getValue().isNull()) {
+                        rawLine.values.put(column, field.getValue().asText());
+                    }
+                });
+                rawLines.add(rawLine);
+            }
+            if (token != JsonToken.END_ARRAY) {
+                return failed("Cada línea debe ser un objeto JSON", dryRun);
+            }
+        } catch (JsonProcessingException e) {
+            return failed("JSON inválido: " + e.getOriginalMessage(), dryRun);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return process(rawLines, dryRun);
+    }
+
+    private InventoryImportReportDTO process(List<RawLine> rawLines, boolean dryRun) {
+        long started = System.currentTimeMillis();
+        InventoryImportReportDTO report = new InventoryImportReportDTO();
+        report.setDryRun(dryRun);
+        report.setTotalLines(rawLines.size());
+
+        List<ImportLine> lines = new ArrayList<>(rawLines.size());
+        for (RawLine rawLine : rawLines) {
+            ImportLine line = parse(rawLine);
+            lines.add(line);
+            report.getLines().add(line.result);
+        }
+        resolve(lines);
+
+        int errors = countErrors(lines);
+        if (errors == 0 && !dryRun && !lines.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(lines));
+                report.setApplied(true);
+            } catch (ImportConflictException e) {
+                // apply() ya anotó el error en las líneas; la transacción se revirtió completa
+                errors = countErrors(lines);
+            }
+        }
+
+        for (ImportLine line : lines) {
+            LineResult result = line.result;
+            if (!result.getErrors().isEmpty()) {
+                result.setStatus(Status.ERROR);
+            } else {
+                result.setStatus(report.isApplied() ? Status.APPLIED : Status.VALID);
+                if (report.isApplied() && line.action == Action.CREATE) {
+                    report.setCreatedItems(report.getCreatedItems() + 1);
+                } else if (report.isApplied()) {
+                    report.setUpdatedItems(report.getUpdatedItems() + 1);
+                }
+            }
+        }
+        report.setErrorLines(errors);
+        if (report.isApplied()) {
+            appliedCounter.increment(lines.size());
+            logger.info("Inventory import applied: {} lines ({} created, {} updated) in {} ms",
+                    lines.size(), report.getCreatedItems(), report.getUpdatedItems(), System.currentTimeMillis() - started);
+        } else if (errors > 0) {
+            rejectedCounter.increment(errors);
+        }
+        return report;
+    }
+
+    // Valida los campos de una línea, sin consultar la base
+    private ImportLine parse(RawLine rawLine) {
+        ImportLine line = new ImportLine(rawLine.line);
+        List<String> errors = line.result.getErrors();
+        errors.addAll(rawLine.errors);
+        Map<String, String> values = rawLine.values;
+
+        String id = text(values, "id");
+        if (id != null) {
+            try {
+                line.id = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                errors.add("id inválido: " + id);
+            }
+        }
+        line.name = text(values, "name");
+        if (id == null && line.name == null) {
+            errors.add("Falta id o name");
+        }
+        line.result.setItemId(line.id);
+        line.result.setName(line.name);
+
+        if (text(values, "quantity") == null) {
+            errors.add("Falta quantity");
+        } else {
+            line.quantity = decimal(values, "quantity", errors);
+        }
+        line.result.setQuantity(line.quantity);
+        line.costPerUnit = decimal(values, "costPerUnit", errors);
+        if (line.costPerUnit != null && line.costPerUnit.signum() < 0) {
+            errors.add("costPerUnit no puede ser negativo");
+        }
+        line.minimumStock = decimal(values, "minimumStock", errors);
+        if (line.minimumStock != null && line.minimumStock.signum() < 0) {
+            errors.add("minimumStock no puede ser negativo");
+        }
+
+        String expiration = text(values, "expirationDate");
+        if (expiration != null) {
+            try {
+                line.expirationDate = expiration.length() <= 10
+                        ? LocalDate.parse(expiration).atStartOfDay()
+                        : LocalDateTime.parse(expiration);
+            } catch (DateTimeParseException e) {
+                errors.add("expirationDate inválida (use 2024-05-01 o 2024-05-01T08:00:00): " + expiration);
+            }
+        }
+
+        String category = text(values, "category");
+        if (category != null) {
+            line.categoryGiven = true;
+            line.category = category(category);
+            if (line.category == null) {
+                errors.add("category desconocida: " + category);
+            }
+        }
+        line.supplier = text(values, "supplier");
+        line.unit = text(values, "unit");
+        if (line.unit != null && line.unit.length() > 20) {
+            errors.add("unit supera los 20 caracteres");
+        }
+        line.description = text(values, "description");
+        return line;
+    }
+
+    // Resuelve todas las referencias con una consulta y valida lo que depende del stock actual
+    private void resolve(List<ImportLine> lines) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ImportLine line : lines) {
+            if (line.id != null) {
+                ids.add(line.id);
+            } else if (line.name != null) {
+                names.add(line.name.toLowerCase(Locale.ROOT));
+            }
+        }
+        Map<Long, ItemRow> byId = new HashMap<>();
+        Map<String, ItemRow> byName = new HashMap<>();
+        if (!ids.isEmpty() || !names.isEmpty()) {
+            jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(RESOLVE_SQL);
+                        statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                        statement.setArray(2, connection.createArrayOf("varchar", names.toArray()));
+                        return statement;
+                    },
+                    rs -> {
+                        ItemRow row = new ItemRow(rs.getLong("id"), rs.getString("name"),
+                                rs.getBigDecimal("current_stock"), rs.getBoolean("active"));
+                        byId.put(row.id, row);
+                        ItemRow previous = byName.putIfAbsent(row.name.toLowerCase(Locale.ROOT), row);
+                        // Si solo difieren en mayúsculas, se prefiere el item activo
+                        if (previous != null && !previous.active && row.active) {
+                            byName.put(row.name.toLowerCase(Locale.ROOT), row);
+                        }
+                    });
+        }
+
+        Map<String, Integer> seen = new HashMap<>();
+        for (ImportLine line : lines) {
+            List<String> errors = line.result.getErrors();
+            if (line.id == null && line.name == null) {
+                continue;
+            }
+            ItemRow row = line.id != null ? byId.get(line.id) : byName.get(line.name.toLowerCase(Locale.ROOT));
+            if (line.id != null && row == null) {
+                errors.add("No existe el item con id " + line.id);
+                continue;
+            }
+            if (row != null && line.id != null && line.name != null && !row.name.equalsIgnoreCase(line.name)) {
+                errors.add("El id " + line.id + " corresponde a '" + row.name + "'");
+            }
+
+            String key = row != null ? "id:" + row.id : "name:" + line.name.toLowerCase(Locale.ROOT);
+            Integer firstLine = seen.putIfAbsent(key, line.result.getLine());
+            if (firstLine != null) {
+                errors.add("Item repetido: ya aparece en la línea " + firstLine);
+            }
+
+            if (row != null) {
+                line.action = Action.UPDATE;
+                line.itemId = row.id;
+                line.result.setItemId(row.id);
+                line.result.setName(row.name);
+                line.result.setStockBefore(row.stock);
+                if (!row.active) {
+                    errors.add("El item '" + row.name + "' está inactivo");
+                } else if (line.quantity != null) {
+                    BigDecimal projected = stockOrZero(row.stock).add(line.quantity);
+                    line.result.setStockAfter(projected);
+                    if (projected.signum() < 0) {
+                        errors.add("El stock quedaría negativo (actual " + stockOrZero(row.stock) + ")");
+                    }
+                }
+            } else {
+                line.action = Action.CREATE;
+                line.result.setStockBefore(BigDecimal.ZERO);
+                line.result.setStockAfter(line.quantity);
+                if (line.name.length() > 100) {
+                    errors.add("name supera los 100 caracteres");
+                }
+                if (line.unit == null) {
+                    errors.add("Item nuevo: falta unit");
+                }
+                if (!line.categoryGiven) {
+                    errors.add("Item nuevo: falta category");
+                }
+                if (line.quantity != null && line.quantity.signum() < 0) {
+                    errors.add("Item nuevo: quantity no puede ser negativa");
+                }
+            }
+            line.result.setAction(line.action);
+        }
+    }
+
+    private void apply(List<ImportLine> lines) {
+        List<ImportLine> updates = new ArrayList<>();
+        List<ImportLine> creates = new ArrayList<>();
+        for (ImportLine line : lines) {
+            (line.action == Action.UPDATE ? updates : creates).add(line);
+        }
+
+        if (!updates.isEmpty()) {
+            // Orden fijo por id, como la reserva de stock, para no cruzar bloqueos con las órdenes
+            updates.sort(Comparator.comparing(line -> line.itemId));
+            List<Object[]> batchArgs = new ArrayList<>(updates.size());
+            for (ImportLine line : updates) {
+                batchArgs.add(new Object[]{line.quantity, line.costPerUnit, timestamp(line.expirationDate),
+                        line.supplier, line.unit, line.category != null ? line.category.name() : null,
+                        line.minimumStock, line.description, line.itemId, line.quantity});
+            }
+            int[] updatedRows = jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs);
+            boolean conflict = false;
+            for (int i = 0; i < updatedRows.length; i++) {
+                if (updatedRows[i] == 0) {
+                    updates.get(i).result.getErrors().add(
+                            "El item cambió durante la importación (stock insuficiente o desactivado)");
+                    conflict = true;
+                }
+            }
+            if (conflict) {
+                throw new ImportConflictException();
+            }
+        }
+
+        if (!creates.isEmpty()) {
+            creates.sort(Comparator.comparing(line -> line.name));
+            List<Object[]> batchArgs = new ArrayList<>(creates.size());
+            for (ImportLine line : creates) {
+                batchArgs.add(new Object[]{line.name, line.description, line.quantity,
+                        line.minimumStock != null ? line.minimumStock : BigDecimal.ZERO, line.unit,
+                        line.category.name(), line.costPerUnit, line.supplier, timestamp(line.expirationDate)});
+            }
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+            } catch (DuplicateKeyException e) {
+                // El lote no dice qué nombre chocó; se marca en todas las altas
+                for (ImportLine line : creates) {
+                    line.result.getErrors().add("Otro proceso creó uno de los items nuevos durante la importación");
+                }
+                throw new ImportConflictException();
+            }
+
+            // Con reWriteBatchedInserts el lote no devuelve los ids generados: se buscan por nombre
+            Map<String, Long> created = new HashMap<>();
+            String[] names = creates.stream().map(line -> line.name).toArray(String[]::new);
+            jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(BY_NAME_SQL);
+                        statement.setArray(1, connection.createArrayOf("varchar", names));
+                        return statement;
+                    },
+                    rs -> {
+                        created.put(rs.getString("name"), rs.getLong("id"));
+                    });
+            for (ImportLine line : creates) {
+                line.itemId = created.get(line.name);
+                line.result.setItemId(line.itemId);
+            }
+        }
+
+        Map<Long, ImportLine> byItem = new TreeMap<>();
+        for (ImportLine line : lines) {
+            byItem.put(line.itemId, line);
+        }
+        // Solo los existentes: el stock de un item nuevo es la cantidad insertada
+        Long[] updatedIds = updates.stream().map(line -> line.itemId).toArray(Long[]::new);
+        if (updatedIds.length > 0) {
+            jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(STOCK_SQL);
+                        statement.setArray(1, connection.createArrayOf("bigint", updatedIds));
+                        return statement;
+                    },
+                    rs -> {
+                        byItem.get(rs.getLong("id")).result.setStockAfter(rs.getBigDecimal("current_stock"));
+                    });
+        }
+
+        Map<Long, BigDecimal> purchases = new TreeMap<>();
+        Map<Long, BigDecimal> adjustments = new TreeMap<>();
+        byItem.forEach((itemId, line) -> {
+            if (line.quantity.signum() > 0) {
+                purchases.put(itemId, line.quantity);
+            } else if (line.quantity.signum() < 0) {
+                adjustments.put(itemId, line.quantity);
+            }
+        });
+        inventoryLedgerService.record(InventoryMovementType.PURCHASE, purchases, null, NOTE);
+        inventoryLedgerService.record(InventoryMovementType.ADJUSTMENT, adjustments, null, NOTE);
+        stockAlertService.recordStockChange(byItem.keySet());
+        for (ImportLine line : creates) {
+            searchIndexService.index(SearchKind.INVENTORY, line.itemId, line.name, line.description);
+        }
+        for (ImportLine line : updates) {
+            if (line.description != null) {
+                searchIndexService.index(SearchKind.INVENTORY, line.itemId, line.result.getName(), line.description);
+            }
+        }
+    }
+
+    private static int countErrors(List<ImportLine> lines) {
+        int errors = 0;
+        for (ImportLine line : lines) {
+            if (!line.result.getErrors().isEmpty()) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    private static InventoryImportReportDTO failed(String error, boolean dryRun) {
+        InventoryImportReportDTO report = new InventoryImportReportDTO();
+        report.setDryRun(dryRun);
+        report.setError(error);
+        return report;
+    }
+
+    private static String text(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static BigDecimal decimal(Map<String, String> values, String column, List<String> errors) {
+        String value = text(values, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            BigDecimal decimal = new BigDecimal(value);
+            // Mismo tamaño que las columnas NUMERIC(10, 2)
+            if (decimal.scale() > 2 || decimal.abs().compareTo(new BigDecimal("99999999")) > 0) {
+                errors.add(column + " fuera de rango (hasta 8 enteros y 2 decimales): " + value);
+                return null;
+            }
+            return decimal;
+        } catch (NumberFormatException e) {
+            errors.add(column + " no es un número: " + value);
+            return null;
+        }
+    }
+
+    // Acepta el nombre del enum (VEGETABLES) o el que ve el usuario (Verduras)
+    private static InventoryCategory category(String value) {
+        for (InventoryCategory category : InventoryCategory.values()) {
+            if (category.name().equalsIgnoreCase(value) || category.getDisplayName().equalsIgnoreCase(value)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static BigDecimal stockOrZero(BigDecimal stock) {
+        return stock != null ? stock : BigDecimal.ZERO;
+    }
+
+    private static final class RawLine {
+        private final int line;
+        private final Map<String, String> values = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+
+        private RawLine(int line) {
+            this.line = line;
+        }
+    }
+
+    private static final class ImportLine {
+        private final LineResult result;
+        private Long id;
+        private String name;
+        private BigDecimal quantity;
+        private BigDecimal costPerUnit;
+        private BigDecimal minimumStock;
+        private LocalDateTime expirationDate;
+        private InventoryCategory category;
+        private boolean categoryGiven;
+        private String supplier;
+        private String unit;
+        private String description;
+        private Action action;
+        private Long itemId;
+
+        private ImportLine(int line) {
+            this.result = new LineResult(line);
+        }
+    }
+
+    private static final class ItemRow {
+        private final Long id;
+        private final String name;
+        private final BigDecimal stock;
+        private final boolean active;
+
+        private ItemRow(Long id, String name, BigDecimal stock, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.stock = stock;
+            this.active = active;
+        }
+    }
+
+    // Revierte la transacción cuando una fila cambió entre la validación y la escritura
+    private static final class ImportConflictException extends RuntimeException {
+        private ImportConflictException() {
+            super("La importación no se aplicó: el inventario cambió durante la escritura");
+        }
+    }
+}
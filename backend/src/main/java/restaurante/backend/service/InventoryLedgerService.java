@@ -0,0 +1,282 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.InventoryStockAtDTO;
+import restaurante.backend.dto.InventoryUsageDTO;
+import restaurante.backend.entity.InventoryMovement;
+import restaurante.backend.entity.InventoryMovementType;
+import restaurante.backend.repository.InventoryMovementRepository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Libro de movimientos de inventario: cada cambio de {@code current_stock} (reservas y
+ * cancelaciones de órdenes, recepciones de compra, altas, ediciones y conteos) queda
+ * como una fila inmutable en {@code inventory_movements}, insertada en lote dentro de
+ * la misma transacción que cambió el stock.
+ *
+ * Cada {@code inventory.ledger.snapshot-cron} se guarda una foto del stock de los items
+ * que tuvieron movimientos desde su foto anterior. El stock a una fecha es la foto más
+ * cercana anterior más los movimientos posteriores a ella, así la consulta recorre como
+ * mucho un intervalo de movimientos por item y no todo el historial.
+ */
+@Service
+public class InventoryLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerService.class);
+
+    // stock_after se lee de la fila recién actualizada; clock_timestamp() y no CURRENT_TIMESTAMP
+    // para que la hora sea posterior al bloqueo de la fila y no al inicio de la transacción
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO inventory_movements " +
+            "(inventory_item_id, movement_type, quantity, stock_after, order_id, note, recorded_by, occurred_at) " +
+            "SELECT id, ?, ?, current_stock, ?, ?, ?, clock_timestamp()::timestamp FROM inventory_items WHERE id = ?";
+
+    // Items sin foto o con movimientos posteriores a su última foto
+    private static final String SNAPSHOT_CANDIDATES_SQL =
+            "SELECT i.id FROM inventory_items i " +
+            "LEFT JOIN LATERAL (SELECT MAX(s.taken_at) AS taken_at FROM inventory_snapshots s " +
+            "                   WHERE s.inventory_item_id = i.id) last ON true " +
+            "WHERE last.taken_at IS NULL OR EXISTS (SELECT 1 FROM inventory_movements m " +
+            "      WHERE m.inventory_item_id = i.id AND m.occurred_at > last.taken_at) " +
+            "ORDER BY i.id";
+
+    // FOR SHARE espera a las transacciones que tienen esas filas modificadas: sus movimientos
+    // quedan antes de la foto y los de las que esperan a esta, después
+    private static final String LOCK_STOCK_SQL =
+            "SELECT id, COALESCE(current_stock, 0) AS current_stock FROM inventory_items " +
+            "WHERE id = ANY (?) ORDER BY id FOR SHARE";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO inventory_snapshots (inventory_item_id, stock, taken_at) VALUES (?, ?, ?)";
+
+    // Foto más cercana anterior + movimientos hasta la fecha; sin foto previa, stock actual
+    // menos los movimientos posteriores a la fecha
+    private static final String STOCK_AT_SQL =
+            "SELECT i.id, i.name, i.unit, s.taken_at, " +
+            "       CASE WHEN s.taken_at IS NOT NULL " +
+            "            THEN s.stock + COALESCE((SELECT SUM(m.quantity) FROM inventory_movements m " +
+            "                 WHERE m.inventory_item_id = i.id AND m.occurred_at > s.taken_at AND m.occurred_at <= ?), 0) " +
+            "            ELSE COALESCE(i.current_stock, 0) - COALESCE((SELECT SUM(m.quantity) FROM inventory_movements m " +
+            "                 WHERE m.inventory_item_id = i.id AND m.occurred_at > ?), 0) " +
+            "       END AS stock " +
+            "FROM inventory_items i " +
+            "LEFT JOIN LATERAL (SELECT sn.stock, sn.taken_at FROM inventory_snapshots sn " +
+            "                   WHERE sn.inventory_item_id = i.id AND sn.taken_at <= ? " +
+            "                   ORDER BY sn.taken_at DESC LIMIT 1) s ON true ";
+
+    private static final String USAGE_SQL =
+            "SELECT inventory_item_id, movement_type, SUM(quantity) AS quantity, COUNT(*) AS movements " +
+            "FROM inventory_movements WHERE occurred_at > ? AND occurred_at <= ? ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.ledger.snapshot-batch-size:500}")
+    private int snapshotBatchSize;
+
+    @Value("${inventory.ledger.max-movements:1000}")
+    private int maxMovements;
+
+    private TransactionTemplate transactionTemplate;
+    private final Map<InventoryMovementType, Counter> movementCounters = new EnumMap<>(InventoryMovementType.class);
+    private Counter snapshotCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (InventoryMovementType type : InventoryMovementType.values()) {
+            movementCounters.put(type, Counter.builder("inventory.ledger.movements")
+                    .description("Movimientos de inventario registrados")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        snapshotCounter = Counter.builder("inventory.ledger.snapshots")
+                .description("Fotos de stock por item guardadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra un movimiento por item (inventoryItemId -> cantidad con signo) en un solo lote.
+     * Debe llamarse dentro de la transacción que cambió el stock y después del cambio.
+     */
+    public void record(InventoryMovementType type, Map<Long, BigDecimal> quantities, Long orderId, String note) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        String recordedBy = currentUser();
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        quantities.forEach((itemId, quantity) ->
+                batchArgs.add(new Object[]{type.name(), quantity, orderId, note, recordedBy, itemId}));
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, batchArgs);
+        movementCounters.get(type).increment(batchArgs.size());
+    }
+
+    public List<InventoryMovement> getMovements(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return inventoryMovementRepository.findByItemInRange(itemId, from, to, PageRequest.of(0, maxMovements));
+    }
+
+    /**
+     * Stock de los items a una fecha. Con {@code itemIds} nulo devuelve todos los items activos.
+     */
+    public List<InventoryStockAtDTO> getStockAt(LocalDateTime at, Collection<Long> itemIds) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        String sql = STOCK_AT_SQL + (itemIds != null ? "WHERE i.id = ANY (?) " : "WHERE i.active = true ") + "ORDER BY i.name";
+        List<InventoryStockAtDTO> result = new ArrayList<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    statement.setTimestamp(1, timestamp);
+                    statement.setTimestamp(2, timestamp);
+                    statement.setTimestamp(3, timestamp);
+                    if (itemIds != null) {
+                        statement.setArray(4, connection.createArrayOf("bigint", itemIds.toArray()));
+                    }
+                    return statement;
+                },
+                rs -> {
+                    InventoryStockAtDTO dto = new InventoryStockAtDTO();
+                    dto.setItemId(rs.getLong("id"));
+                    dto.setItemName(rs.getString("name"));
+                    dto.setUnit(rs.getString("unit"));
+                    dto.setAt(at);
+                    dto.setStock(rs.getBigDecimal("stock"));
+                    Timestamp takenAt = rs.getTimestamp("taken_at");
+                    dto.setSnapshotAt(takenAt != null ? takenAt.toLocalDateTime() : null);
+                    result.add(dto);
+                });
+        return result;
+    }
+
+    /**
+     * Movimientos por tipo en (from, to] con el stock al inicio y al final del intervalo.
+     * Sin {@code itemId} incluye solo los items que tuvieron movimientos.
+     */
+    public List<InventoryUsageDTO> getUsage(LocalDateTime from, LocalDateTime to, Long itemId) {
+        Map<Long, InventoryUsageDTO> usage = new LinkedHashMap<>();
+        if (itemId != null) {
+            usage.put(itemId, newUsage(itemId, from, to));
+        }
+        String sql = USAGE_SQL + (itemId != null ? "AND inventory_item_id = ? " : "")
+                + "GROUP BY inventory_item_id, movement_type";
+        Object[] args = itemId != null
+                ? new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to), itemId}
+                : new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to)};
+        jdbcTemplate.query(sql, rs -> {
+            InventoryUsageDTO dto = usage.computeIfAbsent(rs.getLong("inventory_item_id"), id -> newUsage(id, from, to));
+            InventoryMovementType type = InventoryMovementType.valueOf(rs.getString("movement_type"));
+            BigDecimal quantity = rs.getBigDecimal("quantity");
+            dto.getQuantityByType().put(type, quantity);
+            dto.setMovementCount(dto.getMovementCount() + rs.getLong("movements"));
+            if (type == InventoryMovementType.ORDER_RESERVATION || type == InventoryMovementType.ORDER_CANCELLATION) {
+                dto.setConsumed(dto.getConsumed().subtract(quantity));
+            }
+        }, args);
+        if (usage.isEmpty()) {
+            return List.of();
+        }
+
+        for (InventoryStockAtDTO opening : getStockAt(from, usage.keySet())) {
+            InventoryUsageDTO dto = usage.get(opening.getItemId());
+            dto.setItemName(opening.getItemName());
+            dto.setUnit(opening.getUnit());
+            dto.setOpeningStock(opening.getStock());
+        }
+        for (InventoryStockAtDTO closing : getStockAt(to, usage.keySet())) {
+            usage.get(closing.getItemId()).setClosingStock(closing.getStock());
+        }
+        return new ArrayList<>(usage.values());
+    }
+
+    /**
+     * Guarda una foto del stock de los items con movimientos desde su foto anterior
+     * (y de los que aún no tienen ninguna), en lotes de {@code inventory.ledger.snapshot-batch-size}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventory.ledger.snapshot-cron:0 0 * * * *}")
+    public void takeSnapshots() {
+        long started = System.currentTimeMillis();
+        List<Long> candidates = jdbcTemplate.queryForList(SNAPSHOT_CANDIDATES_SQL, Long.class);
+        int batchSize = Math.max(1, snapshotBatchSize);
+        for (int start = 0; start < candidates.size(); start += batchSize) {
+            List<Long> batch = candidates.subList(start, Math.min(start + batchSize, candidates.size()));
+            // Una transacción por lote: las órdenes esperan a lo sumo el bloqueo de un lote
+            transactionTemplate.executeWithoutResult(status -> snapshot(batch));
+        }
+        if (!candidates.isEmpty()) {
+            logger.info("Inventory snapshots taken for {} items in {} ms",
+                    candidates.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    private void snapshot(List<Long> itemIds) {
+        Long[] ids = itemIds.toArray(new Long[0]);
+        List<Object[]> stock = new ArrayList<>(ids.length);
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LOCK_STOCK_SQL);
+                    statement.setArray(1, connection.createArrayOf("bigint", ids));
+                    return statement;
+                },
+                rs -> {
+                    stock.add(new Object[]{rs.getLong("id"), rs.getBigDecimal("current_stock"), null});
+                });
+        // La hora se toma con las filas ya bloqueadas
+        Timestamp takenAt = jdbcTemplate.queryForObject("SELECT clock_timestamp()::timestamp", Timestamp.class);
+        for (Object[] row : stock) {
+            row[2] = takenAt;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, stock);
+        snapshotCounter.increment(stock.size());
+    }
+
+    private static InventoryUsageDTO newUsage(Long itemId, LocalDateTime from, LocalDateTime to) {
+        InventoryUsageDTO dto = new InventoryUsageDTO();
+        dto.setItemId(itemId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setConsumed(BigDecimal.ZERO);
+        dto.setQuantityByType(new EnumMap<>(InventoryMovementType.class));
+        dto.setMovementCount(0L);
+        return dto;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
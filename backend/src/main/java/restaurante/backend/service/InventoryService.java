@@ -4,14 +4,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import restaurante.backend.dto.OrderRequest;
+import restaurante.backend.dto.StockAlertDTO;
 import restaurante.backend.entity.*;
 import restaurante.backend.repository.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -30,7 +37,22 @@ public class InventoryService {
     private DrinkInventoryRepository drinkInventoryRepository;
 
     @Autowired
-    private PromotionRepository promotionRepository;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private SellablePortionsService sellablePortionsService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     // ==================== INVENTORY ITEM MANAGEMENT ====================
 
@@ -38,8 +60,12 @@ public class InventoryService {
         return inventoryItemRepository.findByActiveTrueOrderByNameAsc();
     }
 
+    // Índice de trigramas en memoria: resultados por relevancia y tolerantes a errores de tipeo
     public Page<InventoryItem> searchItems(String searchTerm, Pageable pageable) {
-        return inventoryItemRepository.findBySearchTerm(searchTerm, pageable);
+        Page<Long> ids = searchIndexService.searchIds(SearchKind.INVENTORY, searchTerm, pageable);
+        List<InventoryItem> items = SearchIndexService.inIdOrder(ids.getContent(),
+                inventoryItemRepository.findAllById(ids.getContent()), InventoryItem::getId);
+        return new PageImpl<>(items, pageable, ids.getTotalElements());
     }
 
     public Optional<InventoryItem> getItemById(Long id) {
@@ -47,7 +73,54 @@ public class InventoryService {
     }
 
     public InventoryItem saveItem(InventoryItem item) {
-        return inventoryItemRepository.save(item);
+        // El stock anterior se lee con la fila bloqueada: la diferencia es el movimiento del libro
+        BigDecimal previousStock = item.getId() != null
+                ? inventoryItemRepository.findByIdForUpdate(item.getId()).map(InventoryItem::getCurrentStock).orElse(null)
+                : null;
+        boolean created = item.getId() == null;
+        InventoryItem savedItem = inventoryItemRepository.saveAndFlush(item);
+
+        BigDecimal delta = stockOrZero(savedItem.getCurrentStock()).subtract(stockOrZero(previousStock));
+        if (delta.signum() != 0) {
+            inventoryLedgerService.record(InventoryMovementType.ADJUSTMENT, Map.of(savedItem.getId(), delta), null,
+                    created ? "Alta de item" : "Edición manual");
+        }
+        stockAlertService.recordItem(savedItem);
+        if (savedItem.isActive()) {
+            searchIndexService.index(SearchKind.INVENTORY, savedItem.getId(), savedItem.getName(), savedItem.getDescription());
+        } else {
+            searchIndexService.remove(SearchKind.INVENTORY, savedItem.getId());
+        }
+        recipeCache.invalidate();
+        return savedItem;
+    }
+
+    /**
+     * Suma al stock una recepción de compra y la registra en el libro.
+     */
+    public InventoryItem receiveStock(Long itemId, BigDecimal quantity, String note) {
+        InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new InventoryItemNotFoundException(itemId));
+        item.setCurrentStock(stockOrZero(item.getCurrentStock()).add(quantity));
+        InventoryItem savedItem = inventoryItemRepository.saveAndFlush(item);
+        inventoryLedgerService.record(InventoryMovementType.PURCHASE, Map.of(itemId, quantity), null, note);
+        stockAlertService.recordItem(savedItem);
+        return savedItem;
+    }
+
+    /**
+     * Ajusta el stock a un conteo físico. El movimiento se registra aunque coincida,
+     * como constancia del conteo.
+     */
+    public InventoryItem countStock(Long itemId, BigDecimal countedStock, String note) {
+        InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new InventoryItemNotFoundException(itemId));
+        BigDecimal delta = countedStock.subtract(stockOrZero(item.getCurrentStock()));
+        item.setCurrentStock(countedStock);
+        InventoryItem savedItem = inventoryItemRepository.saveAndFlush(item);
+        inventoryLedgerService.record(InventoryMovementType.COUNT, Map.of(itemId, delta), null, note);
+        stockAlertService.recordItem(savedItem);
+        return savedItem;
     }
 
     public void deleteItem(Long id) {
@@ -55,15 +128,19 @@ public class InventoryService {
         if (item.isPresent()) {
             item.get().setActive(false);
             inventoryItemRepository.save(item.get());
+            stockAlertService.recordItem(item.get());
+            searchIndexService.remove(SearchKind.INVENTORY, id);
+            recipeCache.invalidate();
         }
     }
 
-    public List<InventoryItem> getLowStockItems() {
-        return inventoryItemRepository.findLowStockItems();
+    // Las alertas se leen del conjunto en memoria de StockAlertService, sin consultar la base
+    public List<StockAlertDTO> getLowStockItems() {
+        return stockAlertService.getLowStockItems();
     }
 
-    public List<InventoryItem> getOutOfStockItems() {
-        return inventoryItemRepository.findOutOfStockItems();
+    public List<StockAlertDTO> getOutOfStockItems() {
+        return stockAlertService.getOutOfStockItems();
     }
 
     public List<InventoryItem> getItemsByCategory(InventoryCategory category) {
@@ -77,11 +154,14 @@ public class InventoryService {
     }
 
     public MealInventory saveMealIngredient(MealInventory mealInventory) {
-        return mealInventoryRepository.save(mealInventory);
+        MealInventory savedMealInventory = mealInventoryRepository.save(mealInventory);
+        recipeCache.invalidate();
+        return savedMealInventory;
     }
 
     public void deleteMealIngredient(Long id) {
         mealInventoryRepository.deleteById(id);
+        recipeCache.invalidate();
     }
 
     // ==================== DRINK INVENTORY MANAGEMENT ====================
@@ -91,256 +171,225 @@ public class InventoryService {
     }
 
     public DrinkInventory saveDrinkIngredient(DrinkInventory drinkInventory) {
-        return drinkInventoryRepository.save(drinkInventory);
+        DrinkInventory savedDrinkInventory = drinkInventoryRepository.save(drinkInventory);
+        recipeCache.invalidate();
+        return savedDrinkInventory;
     }
 
     public void deleteDrinkIngredient(Long id) {
         drinkInventoryRepository.deleteById(id);
+        recipeCache.invalidate();
     }
 
     // ==================== STOCK VALIDATION ====================
 
+    // Consultas O(1) a la proyección de porciones vendibles, sin leer el stock de la base
     public boolean isMealAvailable(Long mealId, int quantity) {
-        List<MealInventory> insufficientItems = mealInventoryRepository
-                .findInsufficientStockForMeal(mealId, quantity);
-        return insufficientItems.isEmpty();
+        return sellablePortionsService.getMealPortions(mealId) >= quantity;
     }
 
     public boolean isDrinkAvailable(Long drinkId, int quantity) {
-        List<DrinkInventory> insufficientItems = drinkInventoryRepository
-                .findInsufficientStockForDrink(drinkId, quantity);
-        return insufficientItems.isEmpty();
+        return sellablePortionsService.getDrinkPortions(drinkId) >= quantity;
     }
 
     public boolean isPromotionAvailable(Long promotionId, int quantity) {
-        Optional<Promotion> promotionOpt = promotionRepository.findById(promotionId);
-        if (!promotionOpt.isPresent()) {
-            return false;
+        return sellablePortionsService.getPromotionPortions(promotionId) >= quantity;
+    }
+
+    // ==================== BATCH STOCK VALIDATION ====================
+
+    /**
+     * Calcula la demanda total por item de inventario de una orden completa
+     * (platillos, bebidas y componentes de promociones). Dos líneas que comparten
+     * un ingrediente suman su demanda y se validan juntas contra el mismo stock.
+     */
+    public Map<Long, BigDecimal> calculateOrderDemand(OrderRequest orderRequest) {
+        return aggregateDemand(
+                sumQuantities(orderRequest.getMeals()),
+                sumQuantities(orderRequest.getDrinks()),
+                sumQuantities(orderRequest.getPromotions()));
+    }
+
+    /**
+     * Demanda total por item de inventario de una orden ya persistida.
+     */
+    public Map<Long, BigDecimal> calculateOrderDemand(Order order) {
+        Map<Long, Integer> mealQuantities = new HashMap<>();
+        Map<Long, Integer> drinkQuantities = new HashMap<>();
+        Map<Long, Integer> promotionQuantities = new HashMap<>();
+
+        if (order.getOrderMeals() != null) {
+            for (OrderMeal orderMeal : order.getOrderMeals()) {
+                mealQuantities.merge(orderMeal.getMeal().getId(), orderMeal.getQuantity(), Integer::sum);
+            }
+        }
+        if (order.getOrderDrinks() != null) {
+            for (OrderDrink orderDrink : order.getOrderDrinks()) {
+                drinkQuantities.merge(orderDrink.getDrink().getId(), orderDrink.getQuantity(), Integer::sum);
+            }
+        }
+        if (order.getOrderPromotions() != null) {
+            for (OrderPromotion orderPromotion : order.getOrderPromotions()) {
+                promotionQuantities.merge(orderPromotion.getPromotion().getId(), orderPromotion.getQuantity(), Integer::sum);
+            }
         }
 
-        Promotion promotion = promotionOpt.get();
-        
-        // Verificar disponibilidad de platillos en la promoción
-        if (promotion.getMeals() != null) {
-            for (Meal meal : promotion.getMeals()) {
-                if (!isMealAvailable(meal.getId(), quantity)) {
-                    return false;
-                }
+        return aggregateDemand(mealQuantities, drinkQuantities, promotionQuantities);
+    }
+
+    /**
+     * Devuelve los items de inventario cuyo stock actual no alcanza la demanda
+     * total de la orden. Una lista vacía significa que la orden puede prepararse.
+     */
+    public List<InventoryItem> findInsufficientStockForOrder(OrderRequest orderRequest) {
+        return findInsufficientItems(calculateOrderDemand(orderRequest));
+    }
+
+    // Las recetas salen de la caché, así que la única consulta es la del stock actual
+    private List<InventoryItem> findInsufficientItems(Map<Long, BigDecimal> demand) {
+        List<InventoryItem> insufficientItems = new ArrayList<>();
+        if (demand.isEmpty()) {
+            return insufficientItems;
+        }
+
+        for (InventoryItem item : inventoryItemRepository.findAllById(demand.keySet())) {
+            if (item.getCurrentStock().compareTo(demand.get(item.getId())) < 0) {
+                insufficientItems.add(item);
             }
         }
+        return insufficientItems;
+    }
 
-        // Verificar disponibilidad de bebidas en la promoción
-        if (promotion.getDrinks() != null) {
-            for (Drink drink : promotion.getDrinks()) {
-                if (!isDrinkAvailable(drink.getId(), quantity)) {
-                    return false;
+    private Map<Long, Integer> sumQuantities(List<OrderRequest.OrderItemRequest> itemRequests) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (itemRequests != null) {
+            for (OrderRequest.OrderItemRequest itemRequest : itemRequests) {
+                if (itemRequest.getItemId() != null && itemRequest.getQuantity() != null) {
+                    quantities.merge(itemRequest.getItemId(), itemRequest.getQuantity(), Integer::sum);
                 }
             }
         }
+        return quantities;
+    }
+
+    private Map<Long, BigDecimal> aggregateDemand(Map<Long, Integer> mealQuantities,
+                                                  Map<Long, Integer> drinkQuantities,
+                                                  Map<Long, Integer> promotionQuantities) {
+        Map<Long, Long> demandUnits = new HashMap<>();
+        mealQuantities.forEach((mealId, quantity) ->
+                recipeCache.getMealRecipe(mealId).addDemand(demandUnits, quantity));
+        drinkQuantities.forEach((drinkId, quantity) ->
+                recipeCache.getDrinkRecipe(drinkId).addDemand(demandUnits, quantity));
+        promotionQuantities.forEach((promotionId, quantity) ->
+                recipeCache.getPromotionRecipe(promotionId).addDemand(demandUnits, quantity));
+        return toQuantities(demandUnits);
+    }
 
-        return true;
+    private Map<Long, BigDecimal> demandFor(RecipeCache.Recipe recipe, int quantity) {
+        Map<Long, Long> demandUnits = new HashMap<>();
+        recipe.addDemand(demandUnits, quantity);
+        return toQuantities(demandUnits);
+    }
+
+    private Map<Long, BigDecimal> toQuantities(Map<Long, Long> demandUnits) {
+        Map<Long, BigDecimal> demand = new HashMap<>(demandUnits.size() * 2);
+        demandUnits.forEach((itemId, units) ->
+                demand.put(itemId, BigDecimal.valueOf(units, RecipeCache.QUANTITY_SCALE)));
+        return demand;
     }
 
     // ==================== STOCK REDUCTION ====================
 
-    @Transactional
     public void reduceStockForMeal(Long mealId, int quantity) {
-        List<MealInventory> mealIngredients = getMealIngredients(mealId);
-        
-        for (MealInventory mealInventory : mealIngredients) {
-            InventoryItem inventoryItem = mealInventory.getInventoryItem();
-            BigDecimal totalNeeded = mealInventory.getTotalQuantityNeeded(quantity);
-            
-            logger.info("Reduciendo stock: {} - {} {} (tenía: {}, reduce: {})", 
-                       inventoryItem.getName(), 
-                       totalNeeded, 
-                       inventoryItem.getUnit(),
-                       inventoryItem.getCurrentStock(),
-                       totalNeeded);
-            
-            inventoryItem.reduceStock(totalNeeded);
-            inventoryItemRepository.save(inventoryItem);
-        }
+        stockReservationService.reserve(demandFor(recipeCache.getMealRecipe(mealId), quantity));
     }
 
-    @Transactional
     public void reduceStockForDrink(Long drinkId, int quantity) {
-        List<DrinkInventory> drinkIngredients = getDrinkIngredients(drinkId);
-        
-        for (DrinkInventory drinkInventory : drinkIngredients) {
-            InventoryItem inventoryItem = drinkInventory.getInventoryItem();
-            BigDecimal totalNeeded = drinkInventory.getTotalQuantityNeeded(quantity);
-            
-            logger.info("Reduciendo stock: {} - {} {} (tenía: {}, reduce: {})", 
-                       inventoryItem.getName(), 
-                       totalNeeded, 
-                       inventoryItem.getUnit(),
-                       inventoryItem.getCurrentStock(),
-                       totalNeeded);
-            
-            inventoryItem.reduceStock(totalNeeded);
-            inventoryItemRepository.save(inventoryItem);
-        }
+        stockReservationService.reserve(demandFor(recipeCache.getDrinkRecipe(drinkId), quantity));
     }
 
-    @Transactional
     public void reduceStockForPromotion(Long promotionId, int quantity) {
-        Optional<Promotion> promotionOpt = promotionRepository.findById(promotionId);
-        if (!promotionOpt.isPresent()) {
+        if (!recipeCache.containsPromotion(promotionId)) {
             logger.warn("Promoción no encontrada: {}", promotionId);
             return;
         }
-
-        Promotion promotion = promotionOpt.get();
-        
-        // Reducir stock de platillos en la promoción
-        if (promotion.getMeals() != null) {
-            for (Meal meal : promotion.getMeals()) {
-                reduceStockForMeal(meal.getId(), quantity);
-            }
-        }
-
-        // Reducir stock de bebidas en la promoción
-        if (promotion.getDrinks() != null) {
-            for (Drink drink : promotion.getDrinks()) {
-                reduceStockForDrink(drink.getId(), quantity);
-            }
-        }
+        stockReservationService.reserve(demandFor(recipeCache.getPromotionRecipe(promotionId), quantity));
     }
 
+
     // ==================== ORDER PROCESSING ====================
 
-    @Transactional
+    /**
+     * Reserva todo el inventario de la orden en un solo lote de UPDATEs condicionales.
+     * Si algún ingrediente no alcanza, no se descuenta nada y se lanza una excepción.
+     * No abre transacción propia: la reserva usa la del llamador o crea una con reintentos.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void processOrderCompletion(Order order) {
-        logger.info("Procesando finalización de orden #{} - reduciendo inventario", order.getId());
-
-        // Procesar platillos
-        if (order.getOrderMeals() != null) {
-            for (OrderMeal orderMeal : order.getOrderMeals()) {
-                reduceStockForMeal(orderMeal.getMeal().getId(), orderMeal.getQuantity());
-            }
-        }
-
-        // Procesar bebidas
-        if (order.getOrderDrinks() != null) {
-            for (OrderDrink orderDrink : order.getOrderDrinks()) {
-                reduceStockForDrink(orderDrink.getDrink().getId(), orderDrink.getQuantity());
-            }
-        }
+        logger.info("Procesando finalización de orden #{} - reservando inventario", order.getId());
 
-        // Procesar promociones
-        if (order.getOrderPromotions() != null) {
-            for (OrderPromotion orderPromotion : order.getOrderPromotions()) {
-                reduceStockForPromotion(orderPromotion.getPromotion().getId(), orderPromotion.getQuantity());
-            }
-        }
+        stockReservationService.reserve(calculateOrderDemand(order), order.getId());
 
         logger.info("Inventario actualizado para orden #{}", order.getId());
     }
 
+    /**
+     * Reserva el inventario de una orden a partir de su request. Usada por {@code OrderService}
+     * con la orden ya persistida (con id, aún sin insertar), en su misma transacción.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void reserveStockForOrder(OrderRequest orderRequest, Long orderId) {
+        stockReservationService.reserve(calculateOrderDemand(orderRequest), orderId);
+    }
+
     // ==================== STOCK RESTORATION ====================
 
     @Transactional
     public void restoreStockFromCancelledOrder(Order order) {
         logger.info("Restaurando inventario para orden cancelada #{}", order.getId());
 
-        // Restaurar platillos
-        if (order.getOrderMeals() != null) {
-            for (OrderMeal orderMeal : order.getOrderMeals()) {
-                restoreStockForMeal(orderMeal.getMeal().getId(), orderMeal.getQuantity());
-            }
-        }
-
-        // Restaurar bebidas
-        if (order.getOrderDrinks() != null) {
-            for (OrderDrink orderDrink : order.getOrderDrinks()) {
-                restoreStockForDrink(orderDrink.getDrink().getId(), orderDrink.getQuantity());
-            }
-        }
-
-        // Restaurar promociones
-        if (order.getOrderPromotions() != null) {
-            for (OrderPromotion orderPromotion : order.getOrderPromotions()) {
-                restoreStockForPromotion(orderPromotion.getPromotion().getId(), orderPromotion.getQuantity());
-            }
-        }
+        stockReservationService.release(calculateOrderDemand(order), order.getId());
 
         logger.info("Inventario restaurado para orden cancelada #{}", order.getId());
     }
 
-    @Transactional
     public void restoreStockForMeal(Long mealId, int quantity) {
-        List<MealInventory> mealIngredients = getMealIngredients(mealId);
-        
-        for (MealInventory mealInventory : mealIngredients) {
-            InventoryItem inventoryItem = mealInventory.getInventoryItem();
-            BigDecimal totalToRestore = mealInventory.getTotalQuantityNeeded(quantity);
-            
-            logger.info("Restaurando stock: {} + {} {} (tenía: {}, nuevo: {})", 
-                       inventoryItem.getName(), 
-                       totalToRestore, 
-                       inventoryItem.getUnit(),
-                       inventoryItem.getCurrentStock(),
-                       inventoryItem.getCurrentStock().add(totalToRestore));
-            
-            inventoryItem.addStock(totalToRestore);
-            inventoryItemRepository.save(inventoryItem);
-        }
+        stockReservationService.release(demandFor(recipeCache.getMealRecipe(mealId), quantity));
     }
 
-    @Transactional
     public void restoreStockForDrink(Long drinkId, int quantity) {
-        List<DrinkInventory> drinkIngredients = getDrinkIngredients(drinkId);
-        
-        for (DrinkInventory drinkInventory : drinkIngredients) {
-            InventoryItem inventoryItem = drinkInventory.getInventoryItem();
-            BigDecimal totalToRestore = drinkInventory.getTotalQuantityNeeded(quantity);
-            
-            logger.info("Restaurando stock: {} + {} {} (tenía: {}, nuevo: {})", 
-                       inventoryItem.getName(), 
-                       totalToRestore, 
-                       inventoryItem.getUnit(),
-                       inventoryItem.getCurrentStock(),
-                       inventoryItem.getCurrentStock().add(totalToRestore));
-            
-            inventoryItem.addStock(totalToRestore);
-            inventoryItemRepository.save(inventoryItem);
-        }
+        stockReservationService.release(demandFor(recipeCache.getDrinkRecipe(drinkId), quantity));
     }
 
-    @Transactional
     public void restoreStockForPromotion(Long promotionId, int quantity) {
-        // Obtener la promoción y sus componentes
-        Optional<Promotion> promotionOpt = promotionRepository.findById(promotionId);
-        if (promotionOpt.isEmpty()) {
+        if (!recipeCache.containsPromotion(promotionId)) {
             logger.warn("Promoción no encontrada: {}", promotionId);
             return;
         }
-
-        Promotion promotion = promotionOpt.get();
-        
-        // Restaurar stock de las comidas incluidas
-        if (promotion.getMeals() != null) {
-            for (Meal meal : promotion.getMeals()) {
-                restoreStockForMeal(meal.getId(), quantity);
-            }
-        }
-
-        // Restaurar stock de las bebidas incluidas  
-        if (promotion.getDrinks() != null) {
-            for (Drink drink : promotion.getDrinks()) {
-                restoreStockForDrink(drink.getId(), quantity);
-            }
-        }
+        stockReservationService.release(demandFor(recipeCache.getPromotionRecipe(promotionId), quantity));
     }
 
+
     // ==================== STOCK ALERTS ====================
 
-    public List<InventoryItem> generateStockAlerts() {
+    public List<StockAlertDTO> generateStockAlerts() {
         return getLowStockItems();
     }
 
     public boolean hasLowStockAlert() {
-        return !getLowStockItems().isEmpty();
+        return stockAlertService.hasAlerts();
+    }
+
+    private static BigDecimal stockOrZero(BigDecimal stock) {
+        return stock != null ? stock : BigDecimal.ZERO;
+    }
+
+    /**
+     * El item de inventario pedido no existe.
+     */
+    public static class InventoryItemNotFoundException extends RuntimeException {
+        public InventoryItemNotFoundException(Long itemId) {
+            super("Item de inventario no encontrado: " + itemId);
+        }
     }
 }
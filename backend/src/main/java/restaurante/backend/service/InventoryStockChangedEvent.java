@@ -0,0 +1,21 @@
+package restaurante.backend.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Stock confirmado de items de inventario que acaban de cambiar (inventoryItemId ->
+ * stock vendible; cero si el item está inactivo). Lo publica {@link StockAlertService}
+ * tras el commit de cada reserva, liberación o edición de items.
+ */
+public class InventoryStockChangedEvent {
+    private final Map<Long, BigDecimal> stock;
+
+    public InventoryStockChangedEvent(Map<Long, BigDecimal> stock) {
+        this.stock = stock;
+    }
+
+    public Map<Long, BigDecimal> getStock() {
+        return stock;
+    }
+}
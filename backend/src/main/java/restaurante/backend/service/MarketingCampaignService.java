@@ -0,0 +1,272 @@
+package restaurante.backend.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import restaurante.backend.entity.User;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envío de campañas de marketing en el carril de baja prioridad ({@code bulkEmailExecutor}).
+ *
+ * La plantilla HTML se renderiza una sola vez por campaña; por destinatario solo
+ * se completa el enlace de baja. Los mensajes se envían en lotes de
+ * {@code marketing.campaign.batch-size}: {@link JavaMailSender#send(MimeMessage...)}
+ * abre una única conexión SMTP por lote. La tasa de envío la limita un token
+ * bucket ({@code marketing.campaign.rate-per-second}) en lugar de una pausa fija.
+ * El progreso de las últimas campañas se puede consultar mientras se envían.
+ */
+@Service
+public class MarketingCampaignService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketingCampaignService.class);
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private ConsentService consentService;
+
+    @Autowired
+    @Qualifier("bulkEmailExecutor")
+    private Executor bulkEmailExecutor;
+
+    @Value("${marketing.campaign.batch-size:50}")
+    private int batchSize;
+
+    @Value("${marketing.campaign.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${marketing.campaign.history-size:20}")
+    private int historySize;
+
+    private final AtomicLong campaignSequence = new AtomicLong();
+
+    // Últimas campañas por id, en orden de creación
+    private final Map<Long, CampaignProgress> campaigns = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CampaignProgress> eldest) {
+            return size() > historySize;
+        }
+    };
+
+    private TokenBucket rateLimiter;
+
+    @PostConstruct
+    public void init() {
+        // Compartido entre campañas: dos campañas simultáneas no duplican la tasa hacia el SMTP
+        rateLimiter = new TokenBucket(ratePerSecond, Math.max(ratePerSecond, batchSize));
+    }
+
+    /**
+     * Encola una campaña para todos los clientes con consentimiento de marketing.
+     * Devuelve su progreso inicial; el envío continúa en segundo plano.
+     */
+    public CampaignProgress startCampaignToAllCustomers(String subject, String content) {
+        List<String> recipients = consentService.getUsersWithMarketingConsent().stream()
+                .map(User::getEmail)
+                .filter(email -> email != null && !email.isEmpty())
+                .distinct()
+                .toList();
+        return startCampaign(subject, content, recipients);
+    }
+
+    public CampaignProgress startCampaign(String subject, String content, List<String> recipients) {
+        CampaignProgress progress = new CampaignProgress(campaignSequence.incrementAndGet(), subject, recipients.size());
+        synchronized (campaigns) {
+            campaigns.put(progress.getId(), progress);
+        }
+
+        if (recipients.isEmpty()) {
+            logger.warn("No customers with marketing consent found for campaign {}", progress.getId());
+            progress.finish(CampaignStatus.COMPLETED);
+            return progress;
+        }
+
+        try {
+            bulkEmailExecutor.execute(() -> runCampaign(progress, subject, content, recipients));
+            logger.info("Marketing campaign {} queued for {} recipients", progress.getId(), recipients.size());
+        } catch (RejectedExecutionException e) {
+            progress.finish(CampaignStatus.REJECTED);
+            logger.error("Marketing campaign {} rejected: campaign queue is full", progress.getId());
+        }
+        return progress;
+    }
+
+    public CampaignProgress getCampaign(Long campaignId) {
+        synchronized (campaigns) {
+            return campaigns.get(campaignId);
+        }
+    }
+
+    public List<CampaignProgress> getRecentCampaigns() {
+        synchronized (campaigns) {
+            return new ArrayList<>(campaigns.values());
+        }
+    }
+
+    private void runCampaign(CampaignProgress progress, String subject, String content, List<String> recipients) {
+        progress.start();
+        logger.info("Starting marketing campaign {} to {} recipients", progress.getId(), recipients.size());
+
+        try {
+            String renderedTemplate = emailService.renderMarketingTemplate(subject, content);
+            int size = Math.max(1, batchSize);
+
+            for (int from = 0; from < recipients.size(); from += size) {
+                List<String> batch = recipients.subList(from, Math.min(from + size, recipients.size()));
+                sendBatch(progress, subject, renderedTemplate, batch);
+            }
+
+            progress.finish(CampaignStatus.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.finish(CampaignStatus.FAILED);
+            logger.warn("Marketing campaign {} interrupted", progress.getId());
+        } catch (Exception e) {
+            progress.finish(CampaignStatus.FAILED);
+            logger.error("Marketing campaign {} failed: {}", progress.getId(), e.getMessage());
+        }
+
+        logger.info("Marketing campaign {} finished with status {}. Success: {}, Failures: {}",
+                progress.getId(), progress.getStatus(), progress.getSentCount(), progress.getFailedCount());
+    }
+
+    private void sendBatch(CampaignProgress progress, String subject, String renderedTemplate, List<String> batch)
+            throws InterruptedException {
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (String email : batch) {
+            try {
+                messages.add(emailService.buildMarketingMessage(subject, renderedTemplate, email));
+            } catch (MessagingException e) {
+                progress.recordFailures(1);
+                logger.error("Error building marketing email for {}: {}", email, e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        rateLimiter.acquire(messages.size());
+
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+            progress.recordSent(messages.size());
+        } catch (MailSendException e) {
+            // Los mensajes que no aparecen en failedMessages sí se entregaron
+            int failed = e.getFailedMessages().isEmpty() ? messages.size() : e.getFailedMessages().size();
+            progress.recordSent(messages.size() - failed);
+            progress.recordFailures(failed);
+            logger.error("Marketing campaign {}: {} of {} emails in batch failed: {}",
+                    progress.getId(), failed, messages.size(), e.getMessage());
+        } catch (MailException e) {
+            progress.recordFailures(messages.size());
+            logger.error("Marketing campaign {}: batch of {} emails failed: {}",
+                    progress.getId(), messages.size(), e.getMessage());
+        }
+    }
+
+    public enum CampaignStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, REJECTED
+    }
+
+    /**
+     * Contadores de progreso de una campaña, seguros para leer mientras se envía.
+     */
+    public static final class CampaignProgress {
+        private final Long id;
+        private final String subject;
+        private final int totalRecipients;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger sentCount = new AtomicInteger();
+        private final AtomicInteger failedCount = new AtomicInteger();
+        private volatile CampaignStatus status = CampaignStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private CampaignProgress(Long id, String subject, int totalRecipients) {
+            this.id = id;
+            this.subject = subject;
+            this.totalRecipients = totalRecipients;
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+            status = CampaignStatus.RUNNING;
+        }
+
+        private void finish(CampaignStatus finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private void recordSent(int count) {
+            sentCount.addAndGet(count);
+        }
+
+        private void recordFailures(int count) {
+            failedCount.addAndGet(count);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public int getTotalRecipients() {
+            return totalRecipients;
+        }
+
+        public int getSentCount() {
+            return sentCount.get();
+        }
+
+        public int getFailedCount() {
+            return failedCount.get();
+        }
+
+        public int getPendingCount() {
+            return Math.max(0, totalRecipients - sentCount.get() - failedCount.get());
+        }
+
+        public CampaignStatus getStatus() {
+            return status;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
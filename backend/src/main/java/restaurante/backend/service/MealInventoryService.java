@@ -31,6 +31,9 @@ public class MealInventoryService {
     @Autowired
     private InventoryItemRepository inventoryItemRepository;
 
+    @Autowired
+    private RecipeCache recipeCache;
+
     /**
      * Obtiene los requerimientos de inventario para un platillo específico
      */
@@ -66,6 +69,7 @@ public class MealInventoryService {
             mealInventoryRepository.save(mealInventory);
         }
 
+        recipeCache.invalidate();
         logger.info("Requerimientos de inventario actualizados para meal ID: {}", mealId);
     }
 
@@ -96,6 +100,7 @@ public class MealInventoryService {
             mealInventoryRepository.save(mealInventory);
         }
 
+        recipeCache.invalidate();
         logger.info("Inventario en lote actualizado para meal ID: {}", mealId);
     }
 
@@ -107,6 +112,7 @@ public class MealInventoryService {
         logger.info("Eliminando requerimientos de inventario para meal ID: {}", mealId);
         List<MealInventory> existingRequirements = mealInventoryRepository.findByMealId(mealId);
         mealInventoryRepository.deleteAll(existingRequirements);
+        recipeCache.invalidate();
     }
 
     /**
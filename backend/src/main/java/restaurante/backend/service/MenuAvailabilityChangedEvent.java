@@ -0,0 +1,8 @@
+package restaurante.backend.service;
+
+/**
+ * Algún platillo, bebida o promoción pasó de tener porciones vendibles a no tenerlas
+ * (o al revés). {@link MenuSnapshotService} descarta el menú precalculado.
+ */
+public class MenuAvailabilityChangedEvent {
+}
@@ -8,13 +8,18 @@ import restaurante.backend.entity.DrinkType;
 import restaurante.backend.entity.Meal;
 import restaurante.backend.entity.MealType;
 import restaurante.backend.entity.Promotion;
+import restaurante.backend.entity.SearchKind;
 import restaurante.backend.repository.DrinkRepository;
 import restaurante.backend.repository.MealRepository;
 import restaurante.backend.repository.PromotionRepository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class MenuService {
@@ -28,6 +33,12 @@ public class MenuService {
     @Autowired
     private PromotionRepository promotionRepository;
 
+    @Autowired
+    private MenuSnapshotService menuSnapshotService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
     // Customer endpoints - only show available items
     public List<Meal> getAllMeals() {
         return mealRepository.findByAvailableTrue();
@@ -60,21 +71,57 @@ public class MenuService {
             .orElseThrow(() -> new RuntimeException("Promotion not found with id: " + id));
     }
 
+    // Resuelven todas las líneas de una orden con una consulta por tipo de producto
+    public Map<Long, Meal> getMealsByIds(Collection<Long> ids) {
+        return indexById(mealRepository.findAllById(ids), Meal::getId, ids, "Meal");
+    }
+
+    public Map<Long, Drink> getDrinksByIds(Collection<Long> ids) {
+        return indexById(drinkRepository.findAllById(ids), Drink::getId, ids, "Drink");
+    }
+
+    public Map<Long, Promotion> getPromotionsByIds(Collection<Long> ids) {
+        return indexById(promotionRepository.findAllById(ids), Promotion::getId, ids, "Promotion");
+    }
+
+    private <T> Map<Long, T> indexById(List<T> found, Function<T, Long> idOf, Collection<Long> ids, String kind) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : found) {
+            byId.put(idOf.apply(item), item);
+        }
+        for (Long id : ids) {
+            if (!byId.containsKey(id)) {
+                throw new RuntimeException(kind + " not found with id: " + id);
+            }
+        }
+        return byId;
+    }
+
     // Admin methods for CRUD operations
     public Meal saveMeal(Meal meal) {
-        return mealRepository.save(meal);
+        Meal savedMeal = mealRepository.save(meal);
+        menuSnapshotService.invalidate();
+        searchIndexService.index(SearchKind.MEAL, savedMeal.getId(), savedMeal.getName(), savedMeal.getDescription());
+        return savedMeal;
     }
 
     public Drink saveDrink(Drink drink) {
-        return drinkRepository.save(drink);
+        Drink savedDrink = drinkRepository.save(drink);
+        menuSnapshotService.invalidate();
+        searchIndexService.index(SearchKind.DRINK, savedDrink.getId(), savedDrink.getName(), savedDrink.getDescription());
+        return savedDrink;
     }
 
     public void deleteMeal(Long id) {
         mealRepository.deleteById(id);
+        menuSnapshotService.invalidate();
+        searchIndexService.remove(SearchKind.MEAL, id);
     }
 
     public void deleteDrink(Long id) {
         drinkRepository.deleteById(id);
+        menuSnapshotService.invalidate();
+        searchIndexService.remove(SearchKind.DRINK, id);
     }
 
     // Get all items for admin (including unavailable ones)
@@ -99,7 +146,7 @@ public class MenuService {
         meal.setImageUrl(mealData.getImageUrl());
         meal.setAvailable(mealData.getAvailable() != null ? mealData.getAvailable() : true);
         
-        return mealRepository.save(meal);
+        return saveMeal(meal);
     }
 
     public void updateMeal(Long id, MealWithInventoryDTO mealData) {
@@ -116,6 +163,6 @@ public class MenuService {
             meal.setAvailable(mealData.getAvailable());
         }
         
-        mealRepository.save(meal);
+        saveMeal(meal);
     }
 }
@@ -0,0 +1,187 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.DrinkType;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.MealType;
+import restaurante.backend.repository.DrinkRepository;
+import restaurante.backend.repository.MealRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot precalculado del menú público (/api/menu).
+ *
+ * El JSON de platillos y bebidas disponibles, completos y por tipo, se
+ * serializa una sola vez por versión del menú y se guarda como bytes junto
+ * con un ETag fuerte derivado del contenido. Cualquier alta, edición,
+ * eliminación o cambio de disponibilidad en {@link MenuService} descarta el
+ * snapshot y el siguiente request lo reconstruye. Los platillos y bebidas sin
+ * porciones vendibles ({@link SellablePortionsService}) no se incluyen; el
+ * snapshot se descarta cuando alguno se agota o vuelve a alcanzar.
+ */
+@Service
+public class MenuSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSnapshotService.class);
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DrinkRepository drinkRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SellablePortionsService sellablePortionsService;
+
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public CachedJson getMeals() {
+        return current().meals;
+    }
+
+    public CachedJson getMealsByType(MealType type) {
+        return current().mealsByType.get(type);
+    }
+
+    public CachedJson getDrinks() {
+        return current().drinks;
+    }
+
+    public CachedJson getDrinksByType(DrinkType type) {
+        return current().drinksByType.get(type);
+    }
+
+    /**
+     * Descarta el snapshot. Dentro de una transacción se vuelve a descartar al
+     * confirmar, para no conservar un menú leído antes del commit.
+     */
+    public void invalidate() {
+        AfterCommit.runNowAndAfterCommit(this::clear);
+    }
+
+    // DataInitializer escribe el menú directamente con los repositorios al arrancar
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        clear();
+    }
+
+    // Un platillo o bebida se agotó o volvió a alcanzar
+    @EventListener
+    public void onMenuAvailabilityChanged(MenuAvailabilityChangedEvent event) {
+        clear();
+    }
+
+    private synchronized void clear() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot build() {
+        // Solo lo que el stock actual permite vender al menos una vez
+        List<Meal> meals = mealRepository.findByAvailableTrue().stream()
+                .filter(meal -> sellablePortionsService.getMealPortions(meal.getId()) > 0)
+                .collect(Collectors.toList());
+        List<Drink> drinks = drinkRepository.findByAvailableTrue().stream()
+                .filter(drink -> sellablePortionsService.getDrinkPortions(drink.getId()) > 0)
+                .collect(Collectors.toList());
+
+        Map<MealType, CachedJson> mealsByType = new EnumMap<>(MealType.class);
+        for (MealType type : MealType.values()) {
+            mealsByType.put(type, toJson(meals.stream()
+                    .filter(meal -> meal.getType() == type)
+                    .collect(Collectors.toList())));
+        }
+
+        Map<DrinkType, CachedJson> drinksByType = new EnumMap<>(DrinkType.class);
+        for (DrinkType type : DrinkType.values()) {
+            drinksByType.put(type, toJson(drinks.stream()
+                    .filter(drink -> drink.getType() == type)
+                    .collect(Collectors.toList())));
+        }
+
+        long version = versionCounter.incrementAndGet();
+        logger.info("Snapshot del menú v{} construido: {} platillos, {} bebidas", version, meals.size(), drinks.size());
+        return new Snapshot(toJson(meals), mealsByType, toJson(drinks), drinksByType);
+    }
+
+    private CachedJson toJson(List<?> items) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(items);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String eTag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new CachedJson(body, eTag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo serializar el menú", e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final CachedJson meals;
+        private final Map<MealType, CachedJson> mealsByType;
+        private final CachedJson drinks;
+        private final Map<DrinkType, CachedJson> drinksByType;
+
+        private Snapshot(CachedJson meals, Map<MealType, CachedJson> mealsByType,
+                         CachedJson drinks, Map<DrinkType, CachedJson> drinksByType) {
+            this.meals = meals;
+            this.mealsByType = mealsByType;
+            this.drinks = drinks;
+            this.drinksByType = drinksByType;
+        }
+    }
+
+    /**
+     * Respuesta JSON ya serializada y su ETag fuerte (hash del contenido, entre comillas).
+     */
+    public static final class CachedJson {
+        private final byte[] body;
+        private final String eTag;
+
+        private CachedJson(byte[] body, String eTag) {
+            this.body = body;
+            this.eTag = eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
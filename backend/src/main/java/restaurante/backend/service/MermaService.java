@@ -31,6 +31,9 @@ public class MermaService {
     @Autowired
     private DrinkRepository drinkRepository;
 
+    @Autowired
+    private TodayMetricsService todayMetricsService;
+
     // Crear nueva merma
     public Merma createMerma(CreateMermaRequest request, String userEmail) {
         Merma merma = new Merma();
@@ -89,7 +92,9 @@ public class MermaService {
         }
 
         merma.calculateTotalCost();
-        return mermaRepository.save(merma);
+        Merma savedMerma = mermaRepository.save(merma);
+        todayMetricsService.recordMerma(savedMerma);
+        return savedMerma;
     }
 
     // Obtener todas las mermas
@@ -154,7 +159,10 @@ public class MermaService {
 
     // Eliminar merma (solo admin)
     public void deleteMerma(Long id) {
-        mermaRepository.deleteById(id);
+        mermaRepository.findById(id).ifPresent(merma -> {
+            mermaRepository.delete(merma);
+            todayMetricsService.recordMermaDeleted(merma);
+        });
     }
 
     // Obtener mermas de hoy
@@ -164,10 +172,8 @@ public class MermaService {
         return mermaRepository.findByRegisteredAtBetween(startOfDay, endOfDay);
     }
 
-    // Obtener costo total de mermas de hoy
+    // Obtener costo total de mermas de hoy (contadores en memoria del tablero)
     public BigDecimal getTodayTotalCost() {
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        return mermaRepository.getTotalCostByDateRange(startOfDay, endOfDay);
+        return todayMetricsService.getToday().getWasteCost();
     }
 }
@@ -0,0 +1,249 @@
+package restaurante.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre un nombre y un texto secundario (descripción,
+ * código) por documento.
+ *
+ * El texto se normaliza sin acentos ni mayúsculas y cada palabra se parte en trigramas
+ * con relleno al estilo de pg_trgm ({@code "  to", " to", "tom", ...}). Una búsqueda
+ * cuenta, por documento, cuántos trigramas de la consulta contiene: la fracción
+ * encontrada es la similitud, que tolera letras cambiadas o faltantes. Los documentos
+ * que contienen la consulta completa van primero, como con el {@code LIKE} anterior.
+ *
+ * Los trigramas de cada documento no se guardan: se recalculan del texto normalizado
+ * al reemplazarlo o quitarlo, y cada trigrama apunta a un arreglo de ids primitivos.
+ * Así 100k documentos ocupan decenas de MB y no más de un GB.
+ */
+final class NgramIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    // Coincidir en el texto secundario pesa menos que en el nombre
+    private static final double TEXT_WEIGHT = 0.8;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Postings> nameGrams = new HashMap<>();
+    private final Map<String, Postings> textGrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(Long id, String name, String text) {
+        Entry entry = new Entry(id, name, normalize(name), normalize(text));
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(grams(entry.normalizedName), nameGrams, id);
+            link(grams(entry.normalizedText), textGrams, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documentos que contienen la consulta o cuya similitud alcanza {@code minSimilarity},
+     * del más al menos relevante.
+     */
+    List<Hit> search(String query, double minSimilarity) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (normalized.length() < 3) {
+                // Muy corta para trigramas internos: solo coincidencia exacta, recorriendo los nombres
+                for (Entry entry : entries.values()) {
+                    double score = containsScore(entry, normalized);
+                    if (score > 0) {
+                        hits.add(new Hit(entry.id, entry.name, score));
+                    }
+                }
+            } else {
+                Set<String> queryGrams = grams(normalized);
+                Map<Long, int[]> matches = new HashMap<>();
+                for (String gram : queryGrams) {
+                    count(nameGrams.get(gram), matches, 0);
+                    count(textGrams.get(gram), matches, 1);
+                }
+                matches.forEach((id, counts) -> {
+                    Entry entry = entries.get(id);
+                    double nameSimilarity = (double) counts[0] / queryGrams.size();
+                    double textSimilarity = (double) counts[1] / queryGrams.size();
+                    double contains = containsScore(entry, normalized);
+                    if (contains > 0 || Math.max(nameSimilarity, textSimilarity) >= minSimilarity) {
+                        hits.add(new Hit(id, entry.name, contains + Math.max(nameSimilarity, TEXT_WEIGHT * textSimilarity)));
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Hit.RANKING);
+        return hits;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> grams(String normalized) {
+        if (normalized.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static double containsScore(Entry entry, String normalized) {
+        if (entry.normalizedName.contains(normalized)) {
+            return 1;
+        }
+        return entry.normalizedText.contains(normalized) ? 0.5 : 0;
+    }
+
+    private static void count(Postings postings, Map<Long, int[]> matches, int slot) {
+        if (postings != null) {
+            for (int i = 0; i < postings.size; i++) {
+                matches.computeIfAbsent(postings.ids[i], k -> new int[2])[slot]++;
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        unlink(grams(entry.normalizedName), nameGrams, entry.id);
+        unlink(grams(entry.normalizedText), textGrams, entry.id);
+    }
+
+    private static void link(Set<String> grams, Map<String, Postings> postings, Long id) {
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, k -> new Postings()).add(id);
+        }
+    }
+
+    private static void unlink(Set<String> grams, Map<String, Postings> postings, Long id) {
+        for (String gram : grams) {
+            Postings ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Ids de los documentos con un trigrama. Un documento aparece una sola vez por
+    // trigrama (put quita antes el anterior), así que agregar no revisa duplicados
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        // El orden no importa: el último ocupa el lugar del quitado
+        private boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final String name;
+        private final String normalizedName;
+        private final String normalizedText;
+
+        private Entry(Long id, String name, String normalizedName, String normalizedText) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = normalizedName;
+            this.normalizedText = normalizedText;
+        }
+    }
+
+    static final class Hit {
+        // Mayor puntaje primero; a igual puntaje, el nombre más corto (el más parecido a la consulta)
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit hit) -> -hit.score)
+                .thenComparingInt(hit -> hit.name != null ? hit.name.length() : Integer.MAX_VALUE)
+                .thenComparing(hit -> hit.id);
+
+        private final Long id;
+        private final String name;
+        private final double score;
+
+        Hit(Long id, String name, double score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+}
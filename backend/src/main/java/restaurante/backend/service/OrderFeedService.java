@@ -0,0 +1,313 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.repository.OrderRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feed de órdenes en vivo para las pantallas de cocina (Server-Sent Events).
+ *
+ * Al conectarse, cada suscriptor recibe un evento {@code snapshot} con las
+ * órdenes activas y luego eventos {@code order-created} / {@code order-updated}
+ * publicados por {@link OrderService}. Cada orden se serializa una sola vez por
+ * evento y los mismos bytes se envían a todas las pantallas.
+ *
+ * Los ids de evento tienen la forma {@code <arranque>-<secuencia>}. Un cliente
+ * que reconecta con {@code Last-Event-ID} recibe solo los eventos que se perdió
+ * si siguen en el buffer de repetición; si no (o si el servidor se reinició),
+ * recibe un snapshot nuevo. Los eventos pueden repetir una orden ya incluida en
+ * el snapshot: el cliente debe reemplazar la orden por id.
+ *
+ * Cada suscriptor tiene un buffer acotado; si se llena (cliente lento o colgado)
+ * se cierra su conexión y el navegador reconecta con su último id.
+ */
+@Service
+public class OrderFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderFeedService.class);
+
+    private static final Set<OrderStatus> ACTIVE_STATUSES =
+            EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.READY);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("orderFeedExecutor")
+    private Executor orderFeedExecutor;
+
+    @Value("${order-feed.replay-size:500}")
+    private int replaySize;
+
+    @Value("${order-feed.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    @Value("${order-feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Identifica este arranque: los ids de otro arranque no se pueden reanudar
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Protegidos por "this": secuencia y buffer de repetición avanzan juntos
+    private long sequence;
+    private final Deque<FeedEvent> replayBuffer = new ArrayDeque<>();
+
+    private Counter evictionCounter;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        Gauge.builder("order.feed.subscribers", subscribers, List::size)
+                .description("Pantallas conectadas al feed de órdenes")
+                .register(meterRegistry);
+        evictionCounter = Counter.builder("order.feed.evictions")
+                .description("Suscriptores desconectados por no consumir eventos a tiempo")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs));
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        Long resumeFrom = parseSequence(lastEventId);
+        if (resumeFrom == null || !registerWithReplay(subscriber, resumeFrom)) {
+            // Secuencia leída antes de consultar: lo publicado durante la consulta se repite después
+            long snapshotSequence = currentSequence();
+            String snapshotJson = readOnlyTransaction.execute(status ->
+                    toJson(OrderDTO.fromAll(orderRepository.findByStatusInOrderByOrderDateDesc(ACTIVE_STATUSES))));
+            subscriber.offer(SseEmitter.event()
+                    .id(eventId(snapshotSequence))
+                    .name("snapshot")
+                    .data(snapshotJson)
+                    .build());
+            if (!registerWithReplay(subscriber, snapshotSequence)) {
+                // Llegaron más eventos de los que caben en el buffer durante la consulta:
+                // se cierra la conexión y el cliente reconecta por un snapshot nuevo
+                evict(subscriber);
+            }
+        }
+
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    public void publishOrderCreated(Order order) {
+        publishAfterCommit("order-created", order);
+    }
+
+    public void publishOrderUpdated(Order order) {
+        publishAfterCommit("order-updated", order);
+    }
+
+    @Scheduled(fixedRateString = "${order-feed.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : subscribers) {
+            deliver(subscriber, heartbeat);
+        }
+    }
+
+    private void publishAfterCommit(String name, Order order) {
+        // Se serializa ahora, con el estado que se está guardando, y se envía tras el commit
+        String json = toJson(OrderDTO.from(order));
+        AfterCommit.run(() -> publish(name, json));
+    }
+
+    private synchronized void publish(String name, String json) {
+        long id = ++sequence;
+        FeedEvent event = new FeedEvent(id, SseEmitter.event().id(eventId(id)).name(name).data(json).build());
+        replayBuffer.addLast(event);
+        while (replayBuffer.size() > replaySize) {
+            replayBuffer.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            deliver(subscriber, event.payload);
+        }
+    }
+
+    private synchronized long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * Registra al suscriptor y le encola los eventos posteriores a {@code afterSequence}.
+     * Devuelve false si esos eventos ya salieron del buffer de repetición.
+     */
+    private synchronized boolean registerWithReplay(Subscriber subscriber, long afterSequence) {
+        if (afterSequence > sequence) {
+            return false;
+        }
+        long oldestAvailable = replayBuffer.isEmpty() ? sequence + 1 : replayBuffer.peekFirst().id;
+        if (afterSequence + 1 < oldestAvailable) {
+            return false;
+        }
+        List<Set<DataWithMediaType>> missed = new ArrayList<>();
+        for (FeedEvent event : replayBuffer) {
+            if (event.id > afterSequence) {
+                missed.add(event.payload);
+            }
+        }
+        register(subscriber, missed);
+        return true;
+    }
+
+    private synchronized void register(Subscriber subscriber, List<Set<DataWithMediaType>> backlog) {
+        for (Set<DataWithMediaType> payload : backlog) {
+            if (!subscriber.offer(payload)) {
+                evict(subscriber);
+                return;
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private void deliver(Subscriber subscriber, Set<DataWithMediaType> payload) {
+        if (subscriber.offer(payload)) {
+            scheduleDrain(subscriber);
+        } else {
+            evict(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            orderFeedExecutor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+            evict(subscriber);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> payload;
+            while ((payload = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(payload);
+            }
+        } catch (Exception e) {
+            // Cliente desconectado: el contenedor ya cerró la respuesta
+            subscribers.remove(subscriber);
+            if (subscriber.closed.compareAndSet(false, true)) {
+                subscriber.emitter.completeWithError(e);
+            }
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.closed.compareAndSet(false, true)) {
+            evictionCounter.increment();
+            logger.warn("Order feed subscriber evicted: buffer of {} events is full", subscriberBuffer);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private Long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del feed de órdenes", e);
+        }
+    }
+
+    private static final class FeedEvent {
+        private final long id;
+        private final Set<DataWithMediaType> payload;
+
+        private FeedEvent(long id, Set<DataWithMediaType> payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(Math.max(1, subscriberBuffer));
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private boolean offer(Set<DataWithMediaType> payload) {
+            return !closed.get() && queue.offer(payload);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.dto.OrderRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de {@code POST /api/orders} por clave de idempotencia ({@code Idempotency-Key}).
+ *
+ * La primera petición con una clave crea la orden y guarda el {@link OrderDTO}
+ * resultante durante {@code order.idempotency.ttl-seconds}; los reintentos con
+ * la misma clave reciben esa misma respuesta sin volver a reservar inventario
+ * ni registrar la venta. Un duplicado que llega mientras la original sigue en
+ * curso espera su resultado en vez de abrir otra transacción. Si la original
+ * falla, la clave se libera y el siguiente reintento vuelve a intentarlo.
+ *
+ * Cada clave queda ligada al SHA-256 del cuerpo de la petición: reusar la clave
+ * con otra orden es un error del cliente ({@link IdempotencyKeyMismatchException},
+ * 422) y no devuelve la orden anterior.
+ *
+ * Las claves se guardan por usuario autenticado, así dos tablets no chocan
+ * aunque generen la misma clave. El almacén vive en memoria de esta instancia y
+ * guarda a lo más {@code order.idempotency.max-entries} claves: al llenarse se
+ * descartan primero las vencidas y luego las más antiguas ya resueltas; si todas
+ * siguen en curso, la clave nueva se rechaza ({@link IdempotencyStoreFullException}).
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${order.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${order.idempotency.in-flight-wait-ms:30000}")
+    private long inFlightWaitMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Orden de resolución de las claves, para descartar primero las más antiguas
+    private final AtomicLong completions = new AtomicLong();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter inFlightCounter;
+    private Counter mismatchCounter;
+    private Counter evictedCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = requestCounter("hit", "Reintentos respondidos con el resultado guardado");
+        missCounter = requestCounter("miss", "Claves nuevas: la orden se crea");
+        inFlightCounter = requestCounter("in_flight", "Duplicados que esperaron a la petición en curso");
+        mismatchCounter = requestCounter("mismatch", "Claves reusadas con otro cuerpo (422)");
+        evictedCounter = Counter.builder("order.idempotency.evicted")
+                .description("Claves resueltas descartadas antes de vencer porque el almacén se llenó")
+                .register(meterRegistry);
+        Gauge.builder("order.idempotency.entries", entries, Map::size)
+                .description("Claves de idempotencia guardadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code createOrder} una sola vez por clave y devuelve su resultado
+     * a todas las peticiones con esa clave y el mismo {@code orderRequest}. Sin
+     * clave, simplemente lo ejecuta.
+     *
+     * @throws IllegalArgumentException si la clave excede {@link #MAX_KEY_LENGTH}
+     * @throws IdempotencyKeyMismatchException si la clave ya se usó con otro cuerpo
+     * @throws IdempotencyStoreFullException si no cabe otra clave
+     */
+    public OrderDTO execute(String idempotencyKey, OrderRequest orderRequest, Supplier<OrderDTO> createOrder) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return createOrder.get();
+        }
+        checkKeyLength(idempotencyKey);
+
+        String scopedKey = currentUser() + ':' + idempotencyKey;
+        Entry created = new Entry(fingerprint(orderRequest));
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries && !entries.containsKey(scopedKey)) {
+            makeRoom(now);
+        }
+        Entry entry = entries.compute(scopedKey,
+                (key, current) -> current == null || current.isExpired(now) ? created : current);
+
+        if (entry == created) {
+            missCounter.increment();
+            return runAndStore(scopedKey, created, createOrder);
+        }
+
+        if (!entry.fingerprint.equals(created.fingerprint)) {
+            mismatchCounter.increment();
+            throw new IdempotencyKeyMismatchException();
+        }
+        if (entry.result.isDone()) {
+            hitCounter.increment();
+        } else {
+            inFlightCounter.increment();
+        }
+        return await(entry);
+    }
+
+    /**
+     * @throws IllegalArgumentException si la clave excede {@link #MAX_KEY_LENGTH}
+     */
+    public static void checkKeyLength(String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key excede " + MAX_KEY_LENGTH + " caracteres");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    // Deja lugar para una clave nueva: primero las vencidas y, si no alcanza, las resueltas
+    // más antiguas hasta bajar al 90% del límite, para no recorrer el mapa en cada petición
+    private synchronized void makeRoom(long now) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        if (entries.size() > target) {
+            List<Map.Entry<String, Entry>> done = new ArrayList<>();
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().result.isDone()) {
+                    done.add(candidate);
+                }
+            }
+            done.sort(Comparator.comparingLong(candidate -> candidate.getValue().completedOrder));
+            int evicted = 0;
+            for (Map.Entry<String, Entry> candidate : done) {
+                if (entries.size() <= target) {
+                    break;
+                }
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evicted++;
+                }
+            }
+            if (evicted > 0) {
+                evictedCounter.increment(evicted);
+                logger.warn("Idempotency store full, evicted the {} oldest completed keys", evicted);
+            }
+        }
+        if (entries.size() >= maxEntries) {
+            throw new IdempotencyStoreFullException();
+        }
+    }
+
+    // SHA-256 del cuerpo tal como lo serializa Jackson; el mismo OrderRequest da el mismo digest
+    private String fingerprint(OrderRequest orderRequest) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(orderRequest));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo leer la orden", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private OrderDTO runAndStore(String scopedKey, Entry entry, Supplier<OrderDTO> createOrder) {
+        try {
+            OrderDTO order = createOrder.get();
+            entry.expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+            entry.completedOrder = completions.incrementAndGet();
+            entry.result.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            // Sin orden creada no hay nada que repetir: el siguiente reintento vuelve a intentarlo
+            entries.remove(scopedKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private OrderDTO await(Entry entry) {
+        try {
+            return entry.result.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new OrderInProgressException("La orden con esta clave de idempotencia sigue en proceso");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderInProgressException("Espera interrumpida por la orden en proceso");
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private Counter requestCounter(String result, String description) {
+        return Counter.builder("order.idempotency.requests")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+        // Sin vencimiento mientras la petición original sigue en curso
+        private volatile long expiresAt = Long.MAX_VALUE;
+        private volatile long completedOrder;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt < now;
+        }
+    }
+
+    /**
+     * La petición original con la misma clave no terminó dentro del tiempo de espera.
+     */
+    public static class OrderInProgressException extends RuntimeException {
+        public OrderInProgressException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * La clave ya se usó con un cuerpo distinto.
+     */
+    public static class IdempotencyKeyMismatchException extends RuntimeException {
+        public IdempotencyKeyMismatchException() {
+            super("La Idempotency-Key ya se usó con otra orden");
+        }
+    }
+
+    /**
+     * El almacén llegó a {@code order.idempotency.max-entries} claves y todas siguen en curso.
+     */
+    public static class IdempotencyStoreFullException extends RuntimeException {
+        public IdempotencyStoreFullException() {
+            super("Demasiadas órdenes con clave de idempotencia en curso");
+        }
+    }
+}
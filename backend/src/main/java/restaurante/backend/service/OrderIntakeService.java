@@ -0,0 +1,396 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.OrderIntakeDTO;
+import restaurante.backend.dto.OrderRequest;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderIntake;
+import restaurante.backend.entity.OrderIntakeStatus;
+import restaurante.backend.repository.OrderIntakeRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recepción asíncrona de órdenes ({@code POST /api/orders} con {@code Prefer: respond-async}).
+ *
+ * {@link #submit} valida el request, lo guarda en {@code order_intake} y responde
+ * de inmediato; el hilo HTTP no espera la reserva de inventario ni el registro
+ * de la venta. Un pool pequeño de workers ({@code orderIntakeExecutor}) toma las
+ * órdenes en espera por lotes, en orden de llegada, y crea cada una con
+ * {@link OrderService#createOrder(OrderRequest, String)}, en su propia transacción
+ * para que una orden sin stock no revierta las demás. Cada worker toma solo su
+ * parte de la cola (cola / workers, hasta {@code order.intake.batch-size}), así
+ * un worker libre no espera detrás de órdenes que otro ya reservó. El cliente
+ * consulta el resultado con {@link #getIntake(Long)}.
+ *
+ * Control de admisión: si hay {@code order.intake.max-queue-depth} órdenes en
+ * espera o en proceso, {@link #submit} lanza {@link IntakeRejectedException} y
+ * el controlador responde 503 con {@code Retry-After}, antes de que la cola
+ * crezca más de lo que los workers (y el pool de conexiones) pueden atender.
+ *
+ * Pensado para una sola instancia de la aplicación, igual que el outbox de emails.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OrderIntakeRepository orderIntakeRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("orderIntakeExecutor")
+    private Executor orderIntakeExecutor;
+
+    @Value("${order.intake.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.intake.max-queue-depth:200}")
+    private int maxQueueDepth;
+
+    @Value("${order.intake.batch-size:10}")
+    private int batchSize;
+
+    @Value("${order.intake.workers:2}")
+    private int workers;
+
+    @Value("${order.intake.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    // Órdenes QUEUED + PROCESSING; se inicializa desde la tabla al arrancar
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    // Dos workers nunca toman la misma orden
+    private final Object claimLock = new Object();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter completedCounter;
+    private Counter failedCounter;
+    private Timer queueWaitTimer;
+    private Timer processingTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("order.intake.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Órdenes asíncronas en espera o en proceso")
+                .register(meterRegistry);
+        acceptedCounter = Counter.builder("order.intake.admission")
+                .description("Órdenes asíncronas aceptadas en la cola")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("order.intake.admission")
+                .description("Órdenes asíncronas rechazadas con 503 por cola llena")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        completedCounter = Counter.builder("order.intake.processed")
+                .description("Órdenes asíncronas creadas")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("order.intake.processed")
+                .description("Órdenes asíncronas rechazadas al procesarlas")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        queueWaitTimer = Timer.builder("order.intake.queue.wait")
+                .description("Tiempo desde la recepción hasta que un worker toma la orden")
+                .register(meterRegistry);
+        processingTimer = Timer.builder("order.intake.processing")
+                .description("Tiempo de creación de una orden asíncrona")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Guarda la orden para procesarla en segundo plano. Con la misma
+     * {@code idempotencyKey} y el mismo cuerpo devuelve la recepción existente en
+     * vez de duplicarla.
+     *
+     * @throws IllegalArgumentException si el request o la clave no son válidos
+     * @throws OrderIdempotencyService.IdempotencyKeyMismatchException si la clave ya se usó con otra orden
+     * @throws IntakeRejectedException si la cola está llena
+     */
+    public OrderIntake submit(OrderRequest orderRequest, String idempotencyKey) {
+        String requestedBy = currentUser();
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
+        OrderIdempotencyService.checkKeyLength(key);
+        String payload = toJson(orderRequest);
+        if (key != null) {
+            Optional<OrderIntake> existing = orderIntakeRepository.findByRequestedByAndIdempotencyKey(requestedBy, key);
+            if (existing.isPresent()) {
+                return samePayload(existing.get(), payload);
+            }
+        }
+
+        validate(orderRequest);
+
+        if (queueDepth.incrementAndGet() > maxQueueDepth) {
+            queueDepth.decrementAndGet();
+            rejectedCounter.increment();
+            throw new IntakeRejectedException(retryAfterSeconds);
+        }
+
+        OrderIntake intake;
+        try {
+            intake = orderIntakeRepository.save(new OrderIntake(payload, requestedBy, key));
+        } catch (DataIntegrityViolationException e) {
+            // Un reintento concurrente con la misma clave ganó la carrera
+            queueDepth.decrementAndGet();
+            return samePayload(orderIntakeRepository.findByRequestedByAndIdempotencyKey(requestedBy, key)
+                    .orElseThrow(() -> e), payload);
+        } catch (RuntimeException e) {
+            queueDepth.decrementAndGet();
+            throw e;
+        }
+
+        acceptedCounter.increment();
+        signalWorkers();
+        return intake;
+    }
+
+    /**
+     * Estado de una recepción. Un cliente solo ve las suyas; el personal ve todas.
+     */
+    public Optional<OrderIntakeDTO> getIntake(Long id) {
+        String currentUser = currentUser();
+        boolean customer = isCustomer();
+        return orderIntakeRepository.findById(id)
+                .filter(intake -> !customer || (currentUser != null && currentUser.equals(intake.getRequestedBy())))
+                .map(OrderIntakeDTO::new);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // Las órdenes que estaban en proceso al caer la aplicación pudieron crearse o no:
+    // se marcan FAILED para que el cliente las revise en vez de crearlas dos veces.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAfterRestart() {
+        List<OrderIntake> interrupted = orderIntakeRepository.findByStatus(OrderIntakeStatus.PROCESSING);
+        for (OrderIntake intake : interrupted) {
+            intake.setStatus(OrderIntakeStatus.FAILED);
+            intake.setError("Procesamiento interrumpido por un reinicio; verificar si la orden se creó");
+            intake.setCompletedAt(LocalDateTime.now());
+        }
+        if (!interrupted.isEmpty()) {
+            orderIntakeRepository.saveAll(interrupted);
+            logger.warn("Marked {} interrupted order intakes as FAILED", interrupted.size());
+        }
+        queueDepth.set((int) orderIntakeRepository.countByStatus(OrderIntakeStatus.QUEUED));
+        signalWorkers();
+    }
+
+    // Red de seguridad: recoge órdenes en espera si una señal se perdió
+    @Scheduled(fixedDelayString = "${order.intake.poll-interval-ms:5000}")
+    public void pollQueued() {
+        if (enabled && queueDepth.get() > 0) {
+            signalWorkers();
+        }
+    }
+
+    private void signalWorkers() {
+        // Si ya hay una señal pendiente por worker, el executor la descarta: esa señal ya vaciará la cola
+        orderIntakeExecutor.execute(this::drain);
+    }
+
+    private void drain() {
+        List<OrderIntake> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            for (OrderIntake intake : batch) {
+                process(intake);
+            }
+        }
+    }
+
+    private List<OrderIntake> claimBatch() {
+        synchronized (claimLock) {
+            List<OrderIntake> batch = transactionTemplate.execute(status -> {
+                List<OrderIntake> queued = orderIntakeRepository.findByStatusInArrivalOrder(
+                        OrderIntakeStatus.QUEUED, PageRequest.of(0, claimSize()));
+                if (queued.isEmpty()) {
+                    return queued;
+                }
+                List<Long> ids = new ArrayList<>(queued.size());
+                for (OrderIntake intake : queued) {
+                    ids.add(intake.getId());
+                }
+                // Un solo UPDATE para todo el lote; las entidades no se tocan dentro de la transacción
+                orderIntakeRepository.updateStatus(ids, OrderIntakeStatus.QUEUED, OrderIntakeStatus.PROCESSING);
+                return queued;
+            });
+            // Ya desconectadas: reflejan el estado en la base sin otro UPDATE
+            batch.forEach(intake -> intake.setStatus(OrderIntakeStatus.PROCESSING));
+            return batch;
+        }
+    }
+
+    // La parte de la cola que le toca a este worker, entre 1 y batch-size
+    private int claimSize() {
+        int share = (queueDepth.get() + Math.max(1, workers) - 1) / Math.max(1, workers);
+        return Math.max(1, Math.min(batchSize, share));
+    }
+
+    private void process(OrderIntake intake) {
+        queueWaitTimer.record(Duration.between(intake.getCreatedAt(), LocalDateTime.now()));
+        long startedAt = System.nanoTime();
+        try {
+            OrderRequest orderRequest = objectMapper.readValue(intake.getPayload(), OrderRequest.class);
+            Order order = orderService.createOrder(orderRequest, intake.getRequestedBy());
+            intake.setOrderId(order.getId());
+            intake.setStatus(OrderIntakeStatus.COMPLETED);
+            completedCounter.increment();
+        } catch (Exception e) {
+            intake.setStatus(OrderIntakeStatus.FAILED);
+            intake.setError(truncate(e.getMessage()));
+            failedCounter.increment();
+            logger.warn("Order intake {} failed: {}", intake.getId(), e.getMessage());
+        } finally {
+            processingTimer.record(Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+
+        intake.setCompletedAt(LocalDateTime.now());
+        try {
+            orderIntakeRepository.save(intake);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    private void validate(OrderRequest orderRequest) {
+        if (orderRequest == null) {
+            throw new IllegalArgumentException("La orden está vacía");
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(orderRequest);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<OrderRequest> first = violations.iterator().next();
+            throw new IllegalArgumentException(first.getPropertyPath() + " " + first.getMessage());
+        }
+        boolean hasItems = hasLines(orderRequest.getMeals()) || hasLines(orderRequest.getDrinks())
+                || hasLines(orderRequest.getPromotions());
+        if (!hasItems) {
+            throw new IllegalArgumentException("La orden debe tener al menos un platillo, bebida o promoción");
+        }
+        checkLines(orderRequest.getMeals());
+        checkLines(orderRequest.getDrinks());
+        checkLines(orderRequest.getPromotions());
+    }
+
+    private boolean hasLines(List<OrderRequest.OrderItemRequest> lines) {
+        return lines != null && !lines.isEmpty();
+    }
+
+    private void checkLines(List<OrderRequest.OrderItemRequest> lines) {
+        if (lines == null) {
+            return;
+        }
+        for (OrderRequest.OrderItemRequest line : lines) {
+            if (line == null || line.getItemId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cada línea necesita itemId y una cantidad positiva");
+            }
+        }
+    }
+
+    // La clave solo vale para el mismo cuerpo; el payload se guardó con el mismo ObjectMapper
+    private static OrderIntake samePayload(OrderIntake existing, String payload) {
+        if (!existing.getPayload().equals(payload)) {
+            throw new OrderIdempotencyService.IdempotencyKeyMismatchException();
+        }
+        return existing;
+    }
+
+    private String toJson(OrderRequest orderRequest) {
+        try {
+            return objectMapper.writeValueAsString(orderRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo leer la orden", e);
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private boolean isCustomer() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_CUSTOMER".equals(authority.getAuthority()));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    /**
+     * La cola de órdenes asíncronas está llena; el cliente debe reintentar más tarde.
+     */
+    public static class IntakeRejectedException extends RuntimeException {
+        private final int retryAfterSeconds;
+
+        public IntakeRejectedException(int retryAfterSeconds) {
+            super("Cola de órdenes llena");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package restaurante.backend.service;
+
+import restaurante.backend.entity.Sale;
+
+/**
+ * Una orden quedó pagada: {@link SaleRecorder} registra su venta tras el commit.
+ * La venta viaja armada (sin guardar) para no volver a leer la orden y sus líneas.
+ */
+public class OrderPaidEvent {
+    private final Sale sale;
+
+    public OrderPaidEvent(Sale sale) {
+        this.sale = sale;
+    }
+
+    public Sale getSale() {
+        return sale;
+    }
+}
@@ -2,25 +2,40 @@ package restaurante.backend.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.dto.OrderPageDTO;
 import restaurante.backend.dto.OrderRequest;
+import restaurante.backend.dto.OrderSearchCriteria;
 import restaurante.backend.entity.*;
 import restaurante.backend.repository.OrderRepository;
 import restaurante.backend.repository.UserRepository;
 import restaurante.backend.security.UserPrincipal;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -31,15 +46,62 @@ public class OrderService {
     private MenuService menuService;
 
     @Autowired
-    private SaleService saleService;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private InventoryService inventoryService;
 
     @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private OrderFeedService orderFeedService;
+
+    @Autowired
+    private TodayMetricsService todayMetricsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reservation.max-attempts:3}")
+    private int maxAttempts;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     public Order createOrder(OrderRequest orderRequest) {
+        return createOrder(orderRequest, SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    /**
+     * Crea la orden a nombre de {@code requestedBy} (email del usuario que la pidió).
+     * Lo usa también la recepción asíncrona, que procesa fuera del hilo del request.
+     *
+     * Todo ocurre en una sola transacción (catálogo, validación, reserva de
+     * inventario, orden y líneas, venta y email en el outbox): si algo falla no
+     * queda nada que compensar. Ante deadlocks o timeouts de bloqueo se reintenta
+     * la transacción completa hasta {@code inventory.reservation.max-attempts} veces.
+     */
+    public Order createOrder(OrderRequest orderRequest, String requestedBy) {
+        int attempts = Math.max(1, maxAttempts);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeOrder(orderRequest, requestedBy));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                logger.warn("Conflicto de concurrencia al crear la orden (intento {}/{}): {}",
+                        attempt, attempts, e.getMessage());
+            }
+        }
+    }
+
+    private Order placeOrder(OrderRequest orderRequest, String requestedBy) {
         System.out.println("=== DEBUG: OrderService.createOrder called ===");
         System.out.println("OrderRequest received: " + (orderRequest != null ? "NOT NULL" : "NULL"));
         
@@ -58,11 +120,10 @@ public class OrderService {
         if ("000000".equals(orderRequest.getEmployeeId())) {
             System.out.println("DEBUG: Creating customer direct order (user-linked order)");
             // Orden de cliente autenticado - vincular al user
-            UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            System.out.println("DEBUG: UserPrincipal username: " + userPrincipal.getUsername());
+            System.out.println("DEBUG: Requested by: " + requestedBy);
             
-            User user = userRepository.findByEmail(userPrincipal.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + userPrincipal.getUsername()));
+            User user = userRepository.findByEmail(requestedBy)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + requestedBy));
 
             order = new Order(user, orderRequest.getTotalCost(), orderRequest.getOrderType());
             order.setTableNumber(orderRequest.getTableNumber());
@@ -92,11 +153,10 @@ public class OrderService {
         } else {
             System.out.println("DEBUG: Creating regular user order (fallback)");
             // Fallback: Orden regular de usuario autenticado
-            UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            System.out.println("DEBUG: UserPrincipal username: " + userPrincipal.getUsername());
+            System.out.println("DEBUG: Requested by: " + requestedBy);
             
-            User user = userRepository.findByEmail(userPrincipal.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + userPrincipal.getUsername()));
+            User user = userRepository.findByEmail(requestedBy)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + requestedBy));
 
             order = new Order(user, orderRequest.getTotalCost(), orderRequest.getOrderType());
             order.setTableNumber(orderRequest.getTableNumber());
@@ -110,119 +170,144 @@ public class OrderService {
             order.setEmployeeRole("CUSTOMER");
         }
 
-        // Save order first to get ID
-        Order savedOrder = orderRepository.save(order);
+        // 1. Resolver el catálogo: una consulta por tipo de producto
+        Map<Long, Meal> meals = menuService.getMealsByIds(itemIds(orderRequest.getMeals()));
+        Map<Long, Drink> drinks = menuService.getDrinksByIds(itemIds(orderRequest.getDrinks()));
+        Map<Long, Promotion> promotions = menuService.getPromotionsByIds(itemIds(orderRequest.getPromotions()));
 
-        // Verificar que hay al menos un producto en la orden
-        boolean hasItems = false;
-
-        // Verificar disponibilidad de inventario ANTES de crear la orden
-        if (orderRequest.getMeals() != null && !orderRequest.getMeals().isEmpty()) {
+        // 2. Validar y armar las líneas en memoria
+        if (orderRequest.getMeals() != null) {
             for (OrderRequest.OrderItemRequest mealRequest : orderRequest.getMeals()) {
-                if (!inventoryService.isMealAvailable(mealRequest.getItemId(), mealRequest.getQuantity())) {
-                    throw new RuntimeException("No hay suficiente inventario para el platillo solicitado: " + mealRequest.getItemId());
-                }
+                Meal meal = meals.get(mealRequest.getItemId());
+                order.getOrderMeals().add(new OrderMeal(order, meal, mealRequest.getQuantity()));
             }
         }
-        
-        if (orderRequest.getDrinks() != null && !orderRequest.getDrinks().isEmpty()) {
+        if (orderRequest.getDrinks() != null) {
             for (OrderRequest.OrderItemRequest drinkRequest : orderRequest.getDrinks()) {
-                if (!inventoryService.isDrinkAvailable(drinkRequest.getItemId(), drinkRequest.getQuantity())) {
-                    throw new RuntimeException("No hay suficiente inventario para la bebida solicitada: " + drinkRequest.getItemId());
-                }
+                Drink drink = drinks.get(drinkRequest.getItemId());
+                order.getOrderDrinks().add(new OrderDrink(order, drink, drinkRequest.getQuantity()));
             }
         }
-
-        if (orderRequest.getPromotions() != null && !orderRequest.getPromotions().isEmpty()) {
+        if (orderRequest.getPromotions() != null) {
             for (OrderRequest.OrderItemRequest promotionRequest : orderRequest.getPromotions()) {
-                if (!inventoryService.isPromotionAvailable(promotionRequest.getItemId(), promotionRequest.getQuantity())) {
-                    throw new RuntimeException("No hay suficiente inventario para la promoción solicitada: " + promotionRequest.getItemId());
-                }
+                Promotion promotion = promotions.get(promotionRequest.getItemId());
+                order.getOrderPromotions().add(new OrderPromotion(order, promotion, promotionRequest.getQuantity(), promotion.getComboPrice()));
             }
         }
 
-        // Process meals
-        if (orderRequest.getMeals() != null && !orderRequest.getMeals().isEmpty()) {
-            for (OrderRequest.OrderItemRequest mealRequest : orderRequest.getMeals()) {
-                Meal meal = menuService.getMealById(mealRequest.getItemId());
-                OrderMeal orderMeal = new OrderMeal(savedOrder, meal, mealRequest.getQuantity());
-                savedOrder.getOrderMeals().add(orderMeal);
-                hasItems = true;
-            }
+        if (order.getOrderMeals().isEmpty() && order.getOrderDrinks().isEmpty() && order.getOrderPromotions().isEmpty()) {
+            throw new RuntimeException("Order must contain at least one item (meal, drink, or promotion)");
         }
 
-        // Process drinks
-        if (orderRequest.getDrinks() != null && !orderRequest.getDrinks().isEmpty()) {
-            for (OrderRequest.OrderItemRequest drinkRequest : orderRequest.getDrinks()) {
-                Drink drink = menuService.getDrinkById(drinkRequest.getItemId());
-                OrderDrink orderDrink = new OrderDrink(savedOrder, drink, drinkRequest.getQuantity());
-                savedOrder.getOrderDrinks().add(orderDrink);
-                hasItems = true;
-            }
-        }
+        // 3. Persistir la orden con sus líneas (cascade): toma su id de la secuencia, pero el
+        //    INSERT se hace en un solo flush al confirmar.
+        //    La orden se considera pagada por defecto: su venta queda pendiente en la misma fila
+        order.setSalePending(Boolean.TRUE.equals(order.getPaid()));
+        Order savedOrder = orderRepository.save(order);
 
-        // Process promotions if they exist
-        if (orderRequest.getPromotions() != null && !orderRequest.getPromotions().isEmpty()) {
-            for (OrderRequest.OrderItemRequest promotionRequest : orderRequest.getPromotions()) {
-                Promotion promotion = menuService.getPromotionById(promotionRequest.getItemId());
-                OrderPromotion orderPromotion = new OrderPromotion(savedOrder, promotion, promotionRequest.getQuantity(), promotion.getComboPrice());
-                savedOrder.getOrderPromotions().add(orderPromotion);
-                hasItems = true;
-            }
-        }
+        // 4. Reservar inventario: UPDATEs condicionales en lote, con los movimientos del libro
+        //    atribuidos a la orden; si algo no alcanza se lanza la excepción y no se llega a
+        //    insertar nada
+        inventoryService.reserveStockForOrder(orderRequest, savedOrder.getId());
+        System.out.println("Inventario reservado para orden #" + savedOrder.getId());
 
-        // Validar que hay al menos un producto en la orden
-        if (!hasItems) {
-            throw new RuntimeException("Order must contain at least one item (meal, drink, or promotion)");
+        // 5. La venta se registra tras el commit, en lote con las de otras órdenes
+        if (savedOrder.getSalePending()) {
+            eventPublisher.publishEvent(new OrderPaidEvent(SaleRecorder.buildSale(savedOrder)));
         }
 
-        Order finalOrder = orderRepository.save(savedOrder);
-        
-        // RESERVAR INVENTARIO INMEDIATAMENTE al crear la orden
-        try {
-            inventoryService.processOrderCompletion(finalOrder);
-            System.out.println("Inventario reservado para orden #" + finalOrder.getId());
-        } catch (Exception e) {
-            // Si falla la reserva de inventario, cancelar la orden
-            orderRepository.delete(finalOrder);
-            throw new RuntimeException("Error al reservar inventario: " + e.getMessage());
-        }
-        
-        // Registrar venta automáticamente ya que la orden se considera pagada por defecto
-        if (finalOrder.getPaid()) {
-            registerSaleFromOrder(finalOrder);
-        }
-        
-        // Enviar email de confirmación de orden solo si no es una orden de empleado
+        // Encolar email de confirmación de orden solo si no es una orden de empleado
         // (porque el cliente puede no tener email registrado)
-        if (finalOrder.getCustomerFirstName() == null || finalOrder.getCustomerFirstName().isEmpty()) {
-            try {
-                emailService.sendOrderConfirmationEmail(finalOrder);
-            } catch (Exception e) {
-                // Log del error pero no fallar la creación de la orden
-                System.err.println("Error sending order confirmation email for order " + finalOrder.getId() + ": " + e.getMessage());
+        if (savedOrder.getCustomerFirstName() == null || savedOrder.getCustomerFirstName().isEmpty()) {
+            emailOutboxService.enqueueOrderConfirmation(savedOrder);
+        }
+
+        // Se envía a las cocinas solo tras el commit: nunca ven una orden a medio armar
+        orderFeedService.publishOrderCreated(savedOrder);
+        todayMetricsService.recordOrderCreated(savedOrder);
+
+        return savedOrder;
+    }
+
+    private List<Long> itemIds(List<OrderRequest.OrderItemRequest> itemRequests) {
+        List<Long> ids = new ArrayList<>();
+        if (itemRequests != null) {
+            for (OrderRequest.OrderItemRequest itemRequest : itemRequests) {
+                ids.add(itemRequest.getItemId());
             }
         }
-        
-        return finalOrder;
+        return ids;
     }
 
-    public List<Order> getUserOrders() {
+    // Las lecturas devuelven OrderDTO armado dentro de la transacción: las líneas se
+    // cargan por lotes para toda la lista en vez de una consulta por orden al serializar.
+    @Transactional(readOnly = true)
+    public List<OrderDTO> getUserOrders() {
         UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User user = userRepository.findByEmail(userPrincipal.getUsername())
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return orderRepository.findByUserOrderByOrderDateDesc(user);
+        return OrderDTO.fromAll(orderRepository.findByUserOrderByOrderDateDesc(user));
     }
 
-    public Order getOrderById(Long orderId) {
-        return orderRepository.findById(orderId)
+    @Transactional(readOnly = true)
+    public OrderDTO getOrderById(Long orderId) {
+        return orderRepository.findWithUserById(orderId)
+            .map(OrderDTO::from)
             .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
     }
 
     // Admin methods
-    public List<Order> getAllOrdersForAdmin() {
-        return orderRepository.findAllByOrderByOrderDateDesc();
+    @Transactional(readOnly = true)
+    public List<OrderDTO> getAllOrdersForAdmin() {
+        return OrderDTO.fromAll(orderRepository.findAllByOrderByOrderDateDesc());
+    }
+
+    /**
+     * Página de órdenes por keyset sobre (orderDate, id) descendente.
+     * {@code cursor} es el {@code nextCursor} de la página anterior, o null para la primera.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDTO getOrdersPage(OrderSearchCriteria criteria, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime afterOrderDate = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeCursor(cursor);
+            afterOrderDate = LocalDateTime.parse(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+        }
+
+        // Se pide una fila de más para saber si hay otra página
+        List<Order> orders = orderRepository.findPage(criteria, afterOrderDate, afterId, pageSize + 1);
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> items = hasMore ? new ArrayList<>(orders.subList(0, pageSize)) : orders;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getOrderDate(), last.getId());
+        }
+        return new OrderPageDTO(OrderDTO.fromAll(items), nextCursor, hasMore, pageSize);
+    }
+
+    private String encodeCursor(LocalDateTime orderDate, Long id) {
+        String raw = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
     }
 
     @Transactional
@@ -251,6 +336,9 @@ public class OrderService {
         Order savedOrder = orderRepository.save(order);
         System.out.println("✅ DEBUG: Orden guardada exitosamente con estado: " + savedOrder.getStatus());
         
+        orderFeedService.publishOrderUpdated(savedOrder);
+        todayMetricsService.recordOrderStatusChange(savedOrder, previousStatus);
+        
         // Si se cancela la orden, restaurar inventario
         if (status == OrderStatus.CANCELLED) {
             inventoryService.restoreStockFromCancelledOrder(order);
@@ -259,15 +347,11 @@ public class OrderService {
         
         // Procesar cuando el pedido esté listo
         if (status == OrderStatus.READY && previousStatus != OrderStatus.READY) {
-            try {
-                // Solo enviar email cuando el pedido esté listo
-                // El inventario ya se redujo al crear la orden
-                emailService.sendOrderReadyEmail(savedOrder);
-                System.out.println("Email de pedido listo enviado para orden #" + savedOrder.getId());
-            } catch (Exception e) {
-                // Log del error pero no fallar la actualización del estado
-                System.err.println("Error sending ready email for order " + savedOrder.getId() + ": " + e.getMessage());
-            }
+            // Solo enviar email cuando el pedido esté listo
+            // El inventario ya se redujo al crear la orden. El email se encola en esta
+            // misma transacción y lo envía EmailOutboxDispatcher tras el commit.
+            emailOutboxService.enqueueOrderReady(savedOrder);
+            System.out.println("Email de pedido listo encolado para orden #" + savedOrder.getId());
         }
         
         return savedOrder;
@@ -316,69 +400,29 @@ public class OrderService {
         return isValid;
     }
 
-    private void registerSaleFromOrder(Order order) {
-        try {
-            // Crear la venta principal
-            String customerName = order.getUser() != null ? order.getUser().getEmail() : "Cliente Anónimo";
-            Double totalAmount = order.getTotalCost().doubleValue();
-            
-            Sale sale = new Sale(customerName, totalAmount, LocalDateTime.now());
-            
-            // Crear los items de venta
-            List<SaleItem> saleItems = new ArrayList<>();
-            
-            // Agregar meals
-            if (order.getOrderMeals() != null) {
-                for (OrderMeal orderMeal : order.getOrderMeals()) {
-                    SaleItem item = new SaleItem(
-                        sale,
-                        orderMeal.getMeal().getName(),
-                        "MEAL",
-                        orderMeal.getQuantity(),
-                        orderMeal.getMeal().getCost().doubleValue()
-                    );
-                    saleItems.add(item);
-                }
-            }
-            
-            // Agregar drinks
-            if (order.getOrderDrinks() != null) {
-                for (OrderDrink orderDrink : order.getOrderDrinks()) {
-                    SaleItem item = new SaleItem(
-                        sale,
-                        orderDrink.getDrink().getName(),
-                        "DRINK", 
-                        orderDrink.getQuantity(),
-                        orderDrink.getDrink().getPrice().doubleValue()
-                    );
-                    saleItems.add(item);
-                }
-            }
-            
-            sale.setItems(saleItems);
-            saleService.createSale(sale);
-            
-        } catch (Exception e) {
-            // Log el error pero no fallar la actualización del orden
-            System.err.println("Error registrando venta para orden " + order.getId() + ": " + e.getMessage());
-        }
-    }
-
-    public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatusOrderByOrderDateDesc(status);
+    @Transactional(readOnly = true)
+    public List<OrderDTO> getOrdersByStatus(OrderStatus status) {
+        return OrderDTO.fromAll(orderRepository.findByStatusOrderByOrderDateDesc(status));
     }
 
+    @Transactional
     public Order updateOrderPaidStatus(Long orderId, Boolean paid) {
         Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
         
         Boolean previousPaidStatus = order.getPaid();
         order.setPaid(paid);
+
+        // Si cambia de no pagado a pagado, la venta se registra tras el commit
+        boolean newlyPaid = paid && !previousPaidStatus;
         Order savedOrder = orderRepository.save(order);
-        
-        // Si cambia de no pagado a pagado, registrar la venta
-        if (paid && !previousPaidStatus) {
-            registerSaleFromOrder(savedOrder);
+        if (newlyPaid) {
+            orderRepository.markSalePending(orderId);
+        }
+        orderFeedService.publishOrderUpdated(savedOrder);
+
+        if (newlyPaid) {
+            eventPublisher.publishEvent(new OrderPaidEvent(SaleRecorder.buildSale(savedOrder)));
         }
         
         return savedOrder;
@@ -3,6 +3,7 @@ package restaurante.backend.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import restaurante.backend.entity.Product;
+import restaurante.backend.entity.SearchKind;
 import restaurante.backend.repository.ProductRepository;
 
 import java.util.List;
@@ -13,6 +14,9 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
@@ -23,7 +27,9 @@ public class ProductService {
     }
 
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        searchIndexService.index(SearchKind.PRODUCT, savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription());
+        return savedProduct;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
@@ -35,15 +41,20 @@ public class ProductService {
         product.setQuantity(productDetails.getQuantity());
         product.setUnit(productDetails.getUnit());
         
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        searchIndexService.index(SearchKind.PRODUCT, savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription());
+        return savedProduct;
     }
 
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
         productRepository.delete(product);
+        searchIndexService.remove(SearchKind.PRODUCT, id);
     }
 
+    // Por relevancia en nombre y descripción (índice de trigramas en memoria)
     public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        List<Long> ids = searchIndexService.searchIds(SearchKind.PRODUCT, name);
+        return SearchIndexService.inIdOrder(ids, productRepository.findAllById(ids), Product::getId);
     }
 }
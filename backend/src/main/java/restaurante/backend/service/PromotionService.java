@@ -7,6 +7,7 @@ import restaurante.backend.dto.PromotionDTO;
 import restaurante.backend.entity.Promotion;
 import restaurante.backend.entity.Meal;
 import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.SearchKind;
 import restaurante.backend.repository.PromotionRepository;
 import restaurante.backend.repository.MealRepository;
 import restaurante.backend.repository.DrinkRepository;
@@ -28,6 +29,15 @@ public class PromotionService {
     @Autowired
     private DrinkRepository drinkRepository;
     
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Autowired
+    private SellablePortionsService sellablePortionsService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
     // Obtener todas las promociones para admin (temporalmente solo COMBO)
     public List<PromotionDTO> getAllPromotionsForAdmin() {
         List<Promotion> promotions = promotionRepository.findAllByOrderByCreatedAtDesc();
@@ -42,6 +52,7 @@ public class PromotionService {
         List<Promotion> promotions = promotionRepository.findByAvailableTrueOrderByCreatedAtDesc();
         return promotions.stream()
                 .filter(promotion -> promotion.getType() == Promotion.PromotionType.COMBO)
+                .filter(promotion -> sellablePortionsService.getPromotionPortions(promotion.getId()) > 0)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -60,6 +71,8 @@ public class PromotionService {
         updatePromotionFromDTO(promotion, promotionDTO);
         
         Promotion savedPromotion = promotionRepository.save(promotion);
+        recipeCache.invalidate();
+        searchIndexService.index(SearchKind.PROMOTION, savedPromotion.getId(), savedPromotion.getName(), savedPromotion.getDescription());
         return convertToDTO(savedPromotion);
     }
     
@@ -73,6 +86,8 @@ public class PromotionService {
         updatePromotionFromDTO(promotion, promotionDTO);
         
         Promotion updatedPromotion = promotionRepository.save(promotion);
+        recipeCache.invalidate();
+        searchIndexService.index(SearchKind.PROMOTION, updatedPromotion.getId(), updatedPromotion.getName(), updatedPromotion.getDescription());
         return convertToDTO(updatedPromotion);
     }
     
@@ -93,11 +108,14 @@ public class PromotionService {
             throw new RuntimeException("Promoción no encontrada");
         }
         promotionRepository.deleteById(id);
+        recipeCache.invalidate();
+        searchIndexService.remove(SearchKind.PROMOTION, id);
     }
     
-    // Buscar promociones por nombre
+    // Buscar promociones por nombre y descripción, por relevancia
     public List<PromotionDTO> searchPromotions(String name) {
-        List<Promotion> promotions = promotionRepository.findByNameContainingIgnoreCase(name);
+        List<Long> ids = searchIndexService.searchIds(SearchKind.PROMOTION, name);
+        List<Promotion> promotions = SearchIndexService.inIdOrder(ids, promotionRepository.findAllById(ids), Promotion::getId);
         return promotions.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -113,6 +131,7 @@ public class PromotionService {
             }
             List<Promotion> promotions = promotionRepository.findByTypeAndAvailableTrue(promotionType);
             return promotions.stream()
+                    .filter(promotion -> sellablePortionsService.getPromotionPortions(promotion.getId()) > 0)
                     .map(this::convertToDTO)
                     .collect(Collectors.toList());
         } catch (IllegalArgumentException e) {
@@ -0,0 +1,246 @@
+package restaurante.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.repository.DrinkInventoryRepository;
+import restaurante.backend.repository.MealInventoryRepository;
+import restaurante.backend.repository.PromotionRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria de recetas (lista de materiales) de platillos, bebidas y promociones.
+ *
+ * Cada receta se guarda aplanada como arreglos primitivos de
+ * (inventoryItemId, cantidad por porción). Las cantidades se almacenan en
+ * centésimas, igual que la escala de la columna {@code quantity_needed},
+ * para sumar demanda sin errores de redondeo. Las promociones ya vienen
+ * expandidas a los ingredientes de sus platillos y bebidas.
+ *
+ * El snapshot completo se construye con unas pocas consultas la primera vez que se
+ * necesita y se descarta con {@link #invalidate()} cuando cambia una receta,
+ * un item de inventario o la composición de una promoción.
+ */
+@Component
+public class RecipeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeCache.class);
+
+    /** Escala de {@code meal_inventory.quantity_needed} y {@code drink_inventory.quantity_needed}. */
+    public static final int QUANTITY_SCALE = 2;
+
+    @Autowired
+    private MealInventoryRepository mealInventoryRepository;
+
+    @Autowired
+    private DrinkInventoryRepository drinkInventoryRepository;
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public Recipe getMealRecipe(Long mealId) {
+        return current().meals.getOrDefault(mealId, Recipe.EMPTY);
+    }
+
+    public Recipe getDrinkRecipe(Long drinkId) {
+        return current().drinks.getOrDefault(drinkId, Recipe.EMPTY);
+    }
+
+    public Recipe getPromotionRecipe(Long promotionId) {
+        return current().promotions.getOrDefault(promotionId, Recipe.EMPTY);
+    }
+
+    public boolean containsPromotion(Long promotionId) {
+        return current().promotions.containsKey(promotionId);
+    }
+
+    public Map<Long, Recipe> getMealRecipes() {
+        return current().meals;
+    }
+
+    public Map<Long, Recipe> getDrinkRecipes() {
+        return current().drinks;
+    }
+
+    public Map<Long, Recipe> getPromotionRecipes() {
+        return current().promotions;
+    }
+
+    /**
+     * Versión del snapshot de recetas; cambia cada vez que se recarga tras {@link #invalidate()}.
+     */
+    public long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * Descarta el snapshot actual. Si hay una transacción en curso, se vuelve a
+     * descartar al confirmar para no conservar una receta leída antes del commit.
+     */
+    public void invalidate() {
+        AfterCommit.runNowAndAfterCommit(this::clear);
+    }
+
+    private synchronized void clear() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            snapshot = load();
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        Map<Long, Map<Long, Long>> mealLines = groupLines(mealInventoryRepository.findActiveRecipeLines());
+        Map<Long, Map<Long, Long>> drinkLines = groupLines(drinkInventoryRepository.findActiveRecipeLines());
+
+        Map<Long, Map<Long, Long>> promotionLines = new HashMap<>();
+        for (Long promotionId : promotionRepository.findAllIds()) {
+            promotionLines.put(promotionId, new LinkedHashMap<>());
+        }
+        for (Object[] row : promotionRepository.findAllPromotionMealIds()) {
+            mergeInto(promotionLines.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>()),
+                    mealLines.get((Long) row[1]));
+        }
+        for (Object[] row : promotionRepository.findAllPromotionDrinkIds()) {
+            mergeInto(promotionLines.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>()),
+                    drinkLines.get((Long) row[1]));
+        }
+
+        Snapshot loaded = new Snapshot(versionCounter.incrementAndGet(),
+                toRecipes(mealLines), toRecipes(drinkLines), toRecipes(promotionLines));
+        logger.info("Caché de recetas cargada: {} platillos, {} bebidas, {} promociones",
+                loaded.meals.size(), loaded.drinks.size(), loaded.promotions.size());
+        return loaded;
+    }
+
+    // Filas (ownerId, inventoryItemId, quantityNeeded) agrupadas por dueño de la receta
+    private Map<Long, Map<Long, Long>> groupLines(List<Object[]> rows) {
+        Map<Long, Map<Long, Long>> lines = new HashMap<>();
+        for (Object[] row : rows) {
+            long units = ((BigDecimal) row[2]).setScale(QUANTITY_SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue().longValueExact();
+            lines.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>())
+                    .merge((Long) row[1], units, Long::sum);
+        }
+        return lines;
+    }
+
+    private void mergeInto(Map<Long, Long> target, Map<Long, Long> source) {
+        if (source != null) {
+            source.forEach((itemId, units) -> target.merge(itemId, units, Long::sum));
+        }
+    }
+
+    private Map<Long, Recipe> toRecipes(Map<Long, Map<Long, Long>> lines) {
+        Map<Long, Recipe> recipes = new HashMap<>(lines.size() * 2);
+        lines.forEach((ownerId, itemUnits) -> recipes.put(ownerId, Recipe.of(itemUnits)));
+        return Collections.unmodifiableMap(recipes);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<Long, Recipe> meals;
+        private final Map<Long, Recipe> drinks;
+        private final Map<Long, Recipe> promotions;
+
+        private Snapshot(long version, Map<Long, Recipe> meals, Map<Long, Recipe> drinks, Map<Long, Recipe> promotions) {
+            this.version = version;
+            this.meals = meals;
+            this.drinks = drinks;
+            this.promotions = promotions;
+        }
+    }
+
+    /**
+     * Receta inmutable: ingredientes y cantidad por porción (en centésimas).
+     */
+    public static final class Recipe {
+
+        static final Recipe EMPTY = new Recipe(new long[0], new long[0]);
+
+        private final long[] inventoryItemIds;
+        private final long[] quantityUnits;
+
+        private Recipe(long[] inventoryItemIds, long[] quantityUnits) {
+            this.inventoryItemIds = inventoryItemIds;
+            this.quantityUnits = quantityUnits;
+        }
+
+        static Recipe of(Map<Long, Long> itemUnits) {
+            long[] itemIds = new long[itemUnits.size()];
+            long[] units = new long[itemUnits.size()];
+            int i = 0;
+            for (Map.Entry<Long, Long> entry : itemUnits.entrySet()) {
+                itemIds[i] = entry.getKey();
+                units[i] = entry.getValue();
+                i++;
+            }
+            return new Recipe(itemIds, units);
+        }
+
+        public int size() {
+            return inventoryItemIds.length;
+        }
+
+        public boolean isEmpty() {
+            return inventoryItemIds.length == 0;
+        }
+
+        public long getInventoryItemId(int index) {
+            return inventoryItemIds[index];
+        }
+
+        public BigDecimal getQuantityNeeded(int index) {
+            return BigDecimal.valueOf(quantityUnits[index], QUANTITY_SCALE);
+        }
+
+        /**
+         * Porciones completas que alcanzan con el stock dado (inventoryItemId -> centésimas).
+         * Una receta sin ingredientes no limita: devuelve {@link Integer#MAX_VALUE}.
+         */
+        public int maxPortions(Map<Long, Long> stockUnits) {
+            long portions = Integer.MAX_VALUE;
+            for (int i = 0; i < inventoryItemIds.length; i++) {
+                if (quantityUnits[i] <= 0) {
+                    continue;
+                }
+                long available = Math.max(0, stockUnits.getOrDefault(inventoryItemIds[i], 0L));
+                portions = Math.min(portions, available / quantityUnits[i]);
+            }
+            return (int) portions;
+        }
+
+        /**
+         * Suma a {@code demandUnits} (inventoryItemId -> centésimas) lo que consumen {@code portions} porciones.
+         */
+        public void addDemand(Map<Long, Long> demandUnits, int portions) {
+            for (int i = 0; i < inventoryItemIds.length; i++) {
+                demandUnits.merge(inventoryItemIds[i], Math.multiplyExact(quantityUnits[i], (long) portions), Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+import restaurante.backend.entity.OrderPromotion;
+import restaurante.backend.entity.Sale;
+import restaurante.backend.entity.SaleItem;
+import restaurante.backend.repository.OrderRepository;
+import restaurante.backend.repository.SaleRepository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Registra las ventas de las órdenes pagadas fuera del request de la orden.
+ *
+ * La orden se guarda con {@code sale_pending = true} y publica un
+ * {@link OrderPaidEvent}; tras el commit la venta entra a una cola en memoria.
+ * Cada {@code sales.recorder.flush-interval-ms} se vacía la cola en una sola
+ * transacción: se limpia {@code sale_pending} de esas órdenes, se insertan sus
+ * ventas e items en lotes JDBC y se actualizan los agregados diarios una vez por
+ * día y producto.
+ *
+ * Solo se insertan las ventas de órdenes cuyo {@code sale_pending} se pudo
+ * limpiar, así una venta nunca se registra dos veces. Si la aplicación cae con
+ * ventas en la cola, o si un lote falla, las órdenes siguen marcadas y el barrido
+ * periódico ({@code sales.recorder.sweep-interval-ms}) vuelve a armar sus ventas.
+ * Un lote que falla se reintenta venta por venta, para que una orden con problemas
+ * no arrastre a las demás.
+ */
+@Service
+public class SaleRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleRecorder.class);
+
+    // Devuelve también si la orden ya tiene venta (p. ej. marcada de nuevo por una versión
+    // anterior): se limpia la marca sin insertar otra, en vez de chocar con el índice único
+    private static final String CLAIM_SQL =
+            "UPDATE orders o SET sale_pending = false WHERE o.id = ANY (?) AND o.sale_pending "
+                    + "RETURNING o.id, EXISTS (SELECT 1 FROM sales s WHERE s.order_id = o.id) AS recorded";
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private TodayMetricsService todayMetricsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sales.recorder.batch-size:500}")
+    private int batchSize;
+
+    @Value("${sales.recorder.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Sale> queue;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    private Counter recordedCounter;
+    private Counter failedCounter;
+    private Counter deferredCounter;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("sales.recorder.queue.depth", this, recorder -> recorder.queue.size())
+                .description("Ventas esperando a ser insertadas")
+                .register(meterRegistry);
+        recordedCounter = Counter.builder("sales.recorder.sales")
+                .description("Ventas de órdenes insertadas")
+                .tag("result", "recorded")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("sales.recorder.sales")
+                .description("Ventas que no se pudieron registrar; el barrido las reintenta")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        deferredCounter = Counter.builder("sales.recorder.sales")
+                .description("Ventas que no cupieron en la cola; el barrido las registra")
+                .tag("result", "deferred")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Arma la venta (sin guardar) de una orden con sus platillos, bebidas y promociones.
+     */
+    public static Sale buildSale(Order order) {
+        String customerName = order.getUser() != null ? order.getUser().getEmail() : "Cliente Anónimo";
+        // La fecha de la orden, no la del registro: el barrido puede armar la venta horas después
+        LocalDateTime saleDate = order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now();
+        Sale sale = new Sale(customerName, order.getTotalCost().doubleValue(), saleDate);
+        sale.setOrderId(order.getId());
+
+        List<SaleItem> saleItems = new ArrayList<>();
+        if (order.getOrderMeals() != null) {
+            for (OrderMeal orderMeal : order.getOrderMeals()) {
+                saleItems.add(new SaleItem(sale, orderMeal.getMeal().getName(), "MEAL",
+                        orderMeal.getQuantity(), orderMeal.getMeal().getCost().doubleValue()));
+            }
+        }
+        if (order.getOrderDrinks() != null) {
+            for (OrderDrink orderDrink : order.getOrderDrinks()) {
+                saleItems.add(new SaleItem(sale, orderDrink.getDrink().getName(), "DRINK",
+                        orderDrink.getQuantity(), orderDrink.getDrink().getPrice().doubleValue()));
+            }
+        }
+        if (order.getOrderPromotions() != null) {
+            for (OrderPromotion orderPromotion : order.getOrderPromotions()) {
+                saleItems.add(new SaleItem(sale, orderPromotion.getPromotion().getName(), "PROMOTION",
+                        orderPromotion.getQuantity(), orderPromotion.getUnitPrice().doubleValue()));
+            }
+        }
+        sale.setItems(saleItems);
+        return sale;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPaid(OrderPaidEvent event) {
+        if (!queue.offer(event.getSale())) {
+            // La orden sigue marcada como pendiente: el barrido la registrará
+            deferredCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sales.recorder.flush-interval-ms:250}")
+    public void flush() {
+        List<Sale> batch = new ArrayList<>();
+        while (queue.drainTo(batch, Math.max(1, batchSize)) > 0) {
+            record(batch);
+            batch = new ArrayList<>();
+        }
+    }
+
+    // Primer barrido al arrancar: ventas que quedaron en la cola al detenerse la aplicación.
+    // Avanza por id, así una orden que no se puede registrar no frena a las que siguen:
+    // queda pendiente y se reintenta en el próximo barrido.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sales.recorder.sweep-interval-ms:60000}",
+            initialDelayString = "${sales.recorder.sweep-interval-ms:60000}")
+    public void sweepPending() {
+        int size = Math.max(1, batchSize);
+        long[] lastId = {0};
+        int found;
+        do {
+            List<Sale> pending = new ArrayList<>();
+            found = readOnlyTransaction.execute(status -> {
+                List<Order> orders = orderRepository.findSalePendingAfter(lastId[0], PageRequest.of(0, size));
+                for (Order order : orders) {
+                    lastId[0] = order.getId();
+                    try {
+                        pending.add(buildSale(order));
+                    } catch (RuntimeException e) {
+                        failedCounter.increment();
+                        logger.error("Failed to build the sale of order {}, will retry on the next sweep: {}",
+                                order.getId(), e.getMessage());
+                    }
+                }
+                return orders.size();
+            });
+            if (!pending.isEmpty()) {
+                logger.info("Recording {} pending sales found by the sweep", pending.size());
+                record(pending);
+            }
+        } while (found == size);
+    }
+
+    private void record(List<Sale> sales) {
+        if (recordBatch(sales) || sales.size() == 1) {
+            return;
+        }
+        // Una sola venta hace fallar el lote completo: de a una, las demás se registran igual
+        logger.warn("Failed to record a batch of {} sales, retrying them one by one", sales.size());
+        for (Sale sale : sales) {
+            recordBatch(List.of(sale));
+        }
+    }
+
+    private boolean recordBatch(List<Sale> sales) {
+        try {
+            int recorded = transactionTemplate.execute(status -> {
+                List<Sale> claimed = claim(sales);
+                if (!claimed.isEmpty()) {
+                    saleRepository.saveAll(claimed);
+                    salesRollupService.recordSales(claimed);
+                    todayMetricsService.recordSales(claimed);
+                }
+                return claimed.size();
+            });
+            recordedCounter.increment(recorded);
+            return true;
+        } catch (RuntimeException e) {
+            // El rollback no deshace los ids asignados al persistir; sin limpiarlos el reintento haría merge
+            for (Sale sale : sales) {
+                sale.setId(null);
+                if (sale.getItems() != null) {
+                    sale.getItems().forEach(item -> item.setId(null));
+                }
+            }
+            if (sales.size() == 1) {
+                failedCounter.increment();
+                logger.error("Failed to record the sale of order {}, will retry on the next sweep: {}",
+                        sales.get(0).getOrderId(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    // Limpia sale_pending y devuelve solo las ventas de órdenes que seguían pendientes
+    private List<Sale> claim(List<Sale> sales) {
+        Long[] orderIds = sales.stream().map(Sale::getOrderId).toArray(Long[]::new);
+        Set<Long> claimedIds = new HashSet<>();
+        List<Long> alreadyRecorded = new ArrayList<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(CLAIM_SQL);
+                    statement.setArray(1, connection.createArrayOf("bigint", orderIds));
+                    return statement;
+                },
+                rs -> {
+                    if (rs.getBoolean("recorded")) {
+                        alreadyRecorded.add(rs.getLong("id"));
+                    } else {
+                        claimedIds.add(rs.getLong("id"));
+                    }
+                });
+        if (!alreadyRecorded.isEmpty()) {
+            logger.warn("Orders {} were marked sale_pending but already have a sale; cleared without recording again",
+                    alreadyRecorded);
+        }
+
+        List<Sale> claimed = new ArrayList<>(claimedIds.size());
+        for (Sale sale : sales) {
+            // claimedIds.remove evita insertar dos veces una orden repetida en el lote
+            if (claimedIds.remove(sale.getOrderId())) {
+                claimed.add(sale);
+            }
+        }
+        return claimed;
+    }
+}
@@ -8,9 +8,10 @@ import restaurante.backend.dto.SalesReportDTO;
 import restaurante.backend.entity.Sale;
 import restaurante.backend.entity.SaleItem;
 import restaurante.backend.repository.SaleRepository;
-import restaurante.backend.repository.SaleItemRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,7 +23,10 @@ public class SaleService {
     private SaleRepository saleRepository;
 
     @Autowired
-    private SaleItemRepository saleItemRepository;
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private TodayMetricsService todayMetricsService;
 
     @Transactional
     public Sale createSale(Sale sale) {
@@ -31,15 +35,17 @@ public class SaleService {
             sale.setSaleDate(LocalDateTime.now());
         }
         
-        Sale savedSale = saleRepository.save(sale);
-        
-        // Asociar los items con la venta guardada
+        // Los items se guardan en cascada con la venta y se insertan en un solo lote JDBC
         if (sale.getItems() != null) {
             for (SaleItem item : sale.getItems()) {
-                item.setSale(savedSale);
-                saleItemRepository.save(item);
+                item.setSale(sale);
             }
         }
+        Sale savedSale = saleRepository.save(sale);
+        
+        // Mantener los agregados diarios en la misma transacción que la venta
+        salesRollupService.recordSale(savedSale);
+        todayMetricsService.recordSales(List.of(savedSale));
         
         return savedSale;
     }
@@ -57,7 +63,8 @@ public class SaleService {
     }
 
     public List<Sale> getTodaySales() {
-        return saleRepository.findTodaySales();
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        return saleRepository.findInRange(startOfDay, startOfDay.plusDays(1));
     }
 
     public List<Sale> getRecentSales() {
@@ -65,58 +72,40 @@ public class SaleService {
     }
 
     public SalesReportDTO getSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
-        // Obtener todas las ventas en el rango
-        List<Sale> sales = saleRepository.findBySaleDateBetween(startDate, endDate);
-        
-        // Calcular totales
-        Double totalRevenue = saleRepository.calculateTotalSalesBetweenDates(startDate, endDate);
-        if (totalRevenue == null) totalRevenue = 0.0;
-        
-        Integer totalSales = sales.size();
+        // Totales y estadísticas salen de los agregados diarios; solo los días parciales leen ventas
+        SalesRollupService.RangeTotals totals = salesRollupService.getTotals(startDate, endDate);
         
-        // Obtener estadísticas de productos
-        List<Object[]> productStatsRaw = saleItemRepository.getProductStatsBetweenDates(startDate, endDate);
-        
-        List<ProductStatsDTO> productStats = productStatsRaw.stream()
-                .map(row -> new ProductStatsDTO(
-                        (String) row[0],           // productName
-                        (String) row[1],           // productType
-                        ((Number) row[2]).longValue(), // totalQuantity
-                        ((Number) row[3]).doubleValue() // totalRevenue
-                ))
+        List<ProductStatsDTO> productStats = salesRollupService.getProductStats(startDate, endDate).stream()
+                .sorted(Comparator.comparing(ProductStatsDTO::getTotalRevenue).reversed())
                 .collect(Collectors.toList());
         
-        return new SalesReportDTO(startDate, endDate, totalRevenue, totalSales, productStats);
+        return new SalesReportDTO(startDate, endDate, totals.getRevenue(), (int) totals.getSaleCount(), productStats);
     }
 
     public List<ProductStatsDTO> getProductStatsByType(LocalDateTime startDate, LocalDateTime endDate, String productType) {
-        List<Object[]> statsRaw = saleItemRepository.getProductStatsByTypeBetweenDates(startDate, endDate, productType);
-        
-        return statsRaw.stream()
-                .map(row -> new ProductStatsDTO(
-                        (String) row[0],           // productName
-                        productType,               // productType
-                        ((Number) row[1]).longValue(), // totalQuantity
-                        ((Number) row[2]).doubleValue() // totalRevenue
-                ))
+        return salesRollupService.getProductStats(startDate, endDate).stream()
+                .filter(stats -> productType.equals(stats.getProductType()))
+                .sorted(Comparator.comparing(ProductStatsDTO::getTotalRevenue).reversed())
                 .collect(Collectors.toList());
     }
 
     public List<ProductStatsDTO> getMostSoldProducts(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Object[]> statsRaw = saleItemRepository.getMostSoldProductsBetweenDates(startDate, endDate);
-        
-        return statsRaw.stream()
-                .map(row -> new ProductStatsDTO(
-                        (String) row[0],           // productName
-                        (String) row[1],           // productType
-                        ((Number) row[2]).longValue(), // totalQuantity
+        return salesRollupService.getProductStats(startDate, endDate).stream()
+                .sorted(Comparator.comparing(ProductStatsDTO::getTotalQuantity).reversed())
+                .map(stats -> new ProductStatsDTO(
+                        stats.getProductName(),
+                        stats.getProductType(),
+                        stats.getTotalQuantity(),
                         null                       // totalRevenue (no incluido en esta consulta)
                 ))
                 .collect(Collectors.toList());
     }
 
     public Double calculateTotalRevenueBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        Double total = saleRepository.calculateTotalSalesBetweenDates(startDate, endDate);
-        return total != null ? total : 0.0;
+        return salesRollupService.getTotals(startDate, endDate).getRevenue();
+    }
+
+    public void rebuildRollups() {
+        salesRollupService.rebuild();
     }
 }
@@ -0,0 +1,330 @@
+package restaurante.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import restaurante.backend.dto.ProductStatsDTO;
+import restaurante.backend.entity.Sale;
+import restaurante.backend.entity.SaleItem;
+import restaurante.backend.repository.DailyProductSalesRollupRepository;
+import restaurante.backend.repository.DailySalesRollupRepository;
+import restaurante.backend.repository.SaleItemRepository;
+import restaurante.backend.repository.SaleRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Agregados diarios de ventas para los reportes de /api/sales.
+ *
+ * {@link #recordSale(Sale)} suma cada venta a {@code daily_sales_rollups} y
+ * {@code daily_product_sales_rollups} con UPSERTs en la misma transacción que
+ * la venta. Las consultas por rango leen los días completos de los agregados
+ * y solo los días parciales de los extremos (típicamente el día en curso)
+ * de las tablas {@code sales} y {@code sale_items}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String UPSERT_DAY_SQL =
+            "INSERT INTO daily_sales_rollups (sale_date, sale_count, revenue) VALUES (?, ?, ?) " +
+            "ON CONFLICT (sale_date) DO UPDATE SET " +
+            "sale_count = daily_sales_rollups.sale_count + EXCLUDED.sale_count, " +
+            "revenue = daily_sales_rollups.revenue + EXCLUDED.revenue";
+
+    private static final String UPSERT_PRODUCT_SQL =
+            "INSERT INTO daily_product_sales_rollups (sale_date, product_name, product_type, quantity, revenue, order_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sale_date, product_name, product_type) DO UPDATE SET " +
+            "quantity = daily_product_sales_rollups.quantity + EXCLUDED.quantity, " +
+            "revenue = daily_product_sales_rollups.revenue + EXCLUDED.revenue, " +
+            "order_count = daily_product_sales_rollups.order_count + EXCLUDED.order_count";
+
+    private static final String REBUILD_DAYS_SQL =
+            "INSERT INTO daily_sales_rollups (sale_date, sale_count, revenue) " +
+            "SELECT CAST(s.sale_date AS DATE), COUNT(*), SUM(s.total_amount) FROM sales s " +
+            "GROUP BY CAST(s.sale_date AS DATE)";
+
+    private static final String REBUILD_PRODUCTS_SQL =
+            "INSERT INTO daily_product_sales_rollups (sale_date, product_name, product_type, quantity, revenue, order_count) " +
+            "SELECT CAST(s.sale_date AS DATE), si.product_name, si.product_type, " +
+            "SUM(si.quantity), SUM(si.total_price), COUNT(DISTINCT s.id) " +
+            "FROM sale_items si JOIN sales s ON s.id = si.sale_id " +
+            "GROUP BY CAST(s.sale_date AS DATE), si.product_name, si.product_type";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private DailyProductSalesRollupRepository dailyProductSalesRollupRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    /**
+     * Suma una venta recién guardada a los agregados de su día.
+     */
+    @Transactional
+    public void recordSale(Sale sale) {
+        recordSales(List.of(sale));
+    }
+
+    /**
+     * Suma un lote de ventas recién guardadas: las agrupa por día y producto y
+     * aplica un UPSERT por fila de agregado, no uno por venta.
+     */
+    @Transactional
+    public void recordSales(List<Sale> sales) {
+        // Orden fijo de claves para que dos lotes concurrentes bloqueen filas en el mismo orden
+        Map<LocalDate, DayTotals> days = new TreeMap<>();
+        Map<String, ProductTotals> products = new TreeMap<>();
+
+        for (Sale sale : sales) {
+            LocalDate day = sale.getSaleDate().toLocalDate();
+            days.computeIfAbsent(day, key -> new DayTotals())
+                    .add(sale.getTotalAmount() != null ? sale.getTotalAmount() : 0.0);
+
+            if (sale.getItems() == null) {
+                continue;
+            }
+            // Un producto repetido en la venta cuenta una sola vez en order_count
+            Map<String, ProductTotals> saleLines = new TreeMap<>();
+            for (SaleItem item : sale.getItems()) {
+                double lineRevenue = item.getTotalPrice() != null ? item.getTotalPrice() : item.getQuantity() * item.getUnitPrice();
+                saleLines.computeIfAbsent(day + "\u0000" + productKey(item.getProductName(), item.getProductType()),
+                        key -> new ProductTotals(item.getProductName(), item.getProductType(), day))
+                        .add(item.getQuantity(), lineRevenue);
+            }
+            for (Map.Entry<String, ProductTotals> line : saleLines.entrySet()) {
+                products.computeIfAbsent(line.getKey(),
+                        key -> new ProductTotals(line.getValue().productName, line.getValue().productType, day))
+                        .addOrder(line.getValue());
+            }
+        }
+
+        if (!days.isEmpty()) {
+            List<Object[]> dayArgs = new ArrayList<>(days.size());
+            days.forEach((day, totals) -> dayArgs.add(new Object[]{Date.valueOf(day), totals.saleCount, totals.revenue}));
+            jdbcTemplate.batchUpdate(UPSERT_DAY_SQL, dayArgs);
+        }
+        if (!products.isEmpty()) {
+            List<Object[]> productArgs = new ArrayList<>(products.size());
+            for (ProductTotals line : products.values()) {
+                productArgs.add(new Object[]{Date.valueOf(line.day), line.productName, line.productType,
+                        line.quantity, line.revenue, line.orderCount});
+            }
+            jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SQL, productArgs);
+        }
+    }
+
+    /**
+     * Recalcula todos los agregados desde las ventas. Bloquea nuevas ventas
+     * mientras dura para no contar dos veces las que lleguen en paralelo.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE sales IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM daily_product_sales_rollups");
+        jdbcTemplate.update("DELETE FROM daily_sales_rollups");
+        int days = jdbcTemplate.update(REBUILD_DAYS_SQL);
+        int productRows = jdbcTemplate.update(REBUILD_PRODUCTS_SQL);
+        logger.info("Agregados de ventas recalculados: {} días, {} filas por producto", days, productRows);
+    }
+
+    // Primer arranque con ventas previas a los agregados
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (dailySalesRollupRepository.count() == 0 && saleRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    public RangeTotals getTotals(LocalDateTime startDate, LocalDateTime endDate) {
+        RangeTotals totals = new RangeTotals();
+        DateRange range = DateRange.of(startDate, endDate);
+        if (range == null) {
+            return totals;
+        }
+
+        if (range.hasFullDays()) {
+            totals.add(first(dailySalesRollupRepository.sumBetweenDays(range.firstFullDay, range.lastFullDay)));
+        }
+        for (LocalDateTime[] partial : range.partialRanges()) {
+            totals.add(first(saleRepository.countAndSumInRange(partial[0], partial[1])));
+        }
+        return totals;
+    }
+
+    /**
+     * Estadísticas por producto del rango, sin un orden particular.
+     */
+    public List<ProductStatsDTO> getProductStats(LocalDateTime startDate, LocalDateTime endDate) {
+        DateRange range = DateRange.of(startDate, endDate);
+        if (range == null) {
+            return new ArrayList<>();
+        }
+
+        Map<String, ProductTotals> merged = new LinkedHashMap<>();
+        if (range.hasFullDays()) {
+            mergeStats(merged, dailyProductSalesRollupRepository.getProductStatsBetweenDays(range.firstFullDay, range.lastFullDay));
+        }
+        for (LocalDateTime[] partial : range.partialRanges()) {
+            mergeStats(merged, saleItemRepository.getProductStatsInRange(partial[0], partial[1]));
+        }
+
+        List<ProductStatsDTO> stats = new ArrayList<>(merged.size());
+        for (ProductTotals totals : merged.values()) {
+            stats.add(new ProductStatsDTO(totals.productName, totals.productType, totals.quantity, totals.revenue));
+        }
+        return stats;
+    }
+
+    // Filas (productName, productType, quantity, revenue)
+    private void mergeStats(Map<String, ProductTotals> merged, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String productName = (String) row[0];
+            String productType = (String) row[1];
+            merged.computeIfAbsent(productKey(productName, productType), key -> new ProductTotals(productName, productType))
+                    .add(((Number) row[2]).longValue(), ((Number) row[3]).doubleValue());
+        }
+    }
+
+    private Object[] first(List<Object[]> rows) {
+        return rows.isEmpty() ? new Object[]{0L, 0.0} : rows.get(0);
+    }
+
+    private static String productKey(String productName, String productType) {
+        return productType + '\u0000' + productName;
+    }
+
+    private static final class ProductTotals {
+        private final String productName;
+        private final String productType;
+        private final LocalDate day; // solo al registrar ventas
+        private long quantity;
+        private double revenue;
+        private long orderCount;
+
+        private ProductTotals(String productName, String productType) {
+            this(productName, productType, null);
+        }
+
+        private ProductTotals(String productName, String productType, LocalDate day) {
+            this.productName = productName;
+            this.productType = productType;
+            this.day = day;
+        }
+
+        private void add(long quantity, double revenue) {
+            this.quantity += quantity;
+            this.revenue += revenue;
+        }
+
+        // Suma las líneas de una venta como una orden más
+        private void addOrder(ProductTotals saleLine) {
+            add(saleLine.quantity, saleLine.revenue);
+            this.orderCount++;
+        }
+    }
+
+    private static final class DayTotals {
+        private long saleCount;
+        private double revenue;
+
+        private void add(double revenue) {
+            this.saleCount++;
+            this.revenue += revenue;
+        }
+    }
+
+    /**
+     * Número de ventas e ingresos de un rango.
+     */
+    public static final class RangeTotals {
+        private long saleCount;
+        private double revenue;
+
+        private void add(Object[] row) {
+            saleCount += ((Number) row[0]).longValue();
+            revenue += ((Number) row[1]).doubleValue();
+        }
+
+        public long getSaleCount() {
+            return saleCount;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+    }
+
+    /**
+     * Divide el rango inclusivo [start, end] en días completos (servidos por los
+     * agregados) y tramos parciales [desde, hasta) leídos de las ventas.
+     */
+    private static final class DateRange {
+        private final LocalDateTime start;
+        private final LocalDateTime endExclusive;
+        private final LocalDate firstFullDay;
+        private final LocalDate lastFullDay;
+
+        private DateRange(LocalDateTime start, LocalDateTime endExclusive) {
+            this.start = start;
+            this.endExclusive = endExclusive;
+            LocalDate first = start.toLocalDate();
+            this.firstFullDay = start.equals(first.atStartOfDay()) ? first : first.plusDays(1);
+            this.lastFullDay = endExclusive.toLocalDate().minusDays(1);
+        }
+
+        static DateRange of(LocalDateTime start, LocalDateTime end) {
+            if (start.isAfter(end)) {
+                return null;
+            }
+            // sale_date se guarda con precisión de microsegundos: t <= end  <=>  t < end (truncado) + 1µs
+            return new DateRange(start, end.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS));
+        }
+
+        boolean hasFullDays() {
+            return !firstFullDay.isAfter(lastFullDay);
+        }
+
+        List<LocalDateTime[]> partialRanges() {
+            List<LocalDateTime[]> ranges = new ArrayList<>(2);
+            if (!hasFullDays()) {
+                ranges.add(new LocalDateTime[]{start, endExclusive});
+                return ranges;
+            }
+            LocalDateTime fullStart = firstFullDay.atStartOfDay();
+            LocalDateTime fullEnd = lastFullDay.plusDays(1).atStartOfDay();
+            if (start.isBefore(fullStart)) {
+                ranges.add(new LocalDateTime[]{start, fullStart});
+            }
+            if (fullEnd.isBefore(endExclusive)) {
+                ranges.add(new LocalDateTime[]{fullEnd, endExclusive});
+            }
+            return ranges;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.dto.SearchResultDTO;
+import restaurante.backend.entity.SearchKind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Búsqueda por nombre y descripción de inventario, menú, promociones, cupones y
+ * productos sobre índices de trigramas en memoria ({@link NgramIndex}), en lugar de
+ * {@code LOWER(x) LIKE %term%} contra la base en cada tecla de los buscadores.
+ *
+ * Los servicios de cada entidad informan altas, ediciones y bajas; el índice se
+ * actualiza tras el commit. Al arrancar y cada {@code search.index.resync-interval-ms}
+ * se reconstruye desde la base, por si algo cambió por fuera de esos caminos.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    // Solo los items de inventario activos, como la búsqueda de inventario anterior
+    private static final Map<SearchKind, String> LOAD_SQL = Map.of(
+            SearchKind.INVENTORY, "SELECT id, name, description FROM inventory_items WHERE active = true",
+            SearchKind.MEAL, "SELECT id, name, description FROM meals",
+            SearchKind.DRINK, "SELECT id, name, description FROM drinks",
+            SearchKind.PROMOTION, "SELECT id, name, description FROM promotions",
+            SearchKind.COUPON, "SELECT id, name, code AS description FROM coupons",
+            SearchKind.PRODUCT, "SELECT id, name, description FROM products");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.index.min-similarity:0.4}")
+    private double minSimilarity;
+
+    private final Map<SearchKind, KindIndex> indexes = new EnumMap<>(SearchKind.class);
+
+    @PostConstruct
+    public void init() {
+        for (SearchKind kind : SearchKind.values()) {
+            KindIndex index = new KindIndex();
+            indexes.put(kind, index);
+            Gauge.builder("search.index.documents", index, KindIndex::size)
+                    .description("Documentos en el índice de búsqueda")
+                    .tag("kind", kind.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void index(SearchKind kind, Long id, String name, String text) {
+        if (id != null) {
+            AfterCommit.run(() -> indexes.get(kind).apply(index -> index.put(id, name, text)));
+        }
+    }
+
+    public void remove(SearchKind kind, Long id) {
+        if (id != null) {
+            AfterCommit.run(() -> indexes.get(kind).apply(index -> index.remove(id)));
+        }
+    }
+
+    /**
+     * Ids de todos los resultados, del más al menos relevante.
+     */
+    public List<Long> searchIds(SearchKind kind, String query) {
+        List<Long> ids = new ArrayList<>();
+        for (NgramIndex.Hit hit : indexes.get(kind).search(query, minSimilarity)) {
+            ids.add(hit.getId());
+        }
+        return ids;
+    }
+
+    public Page<Long> searchIds(SearchKind kind, String query, Pageable pageable) {
+        List<NgramIndex.Hit> hits = indexes.get(kind).search(query, minSimilarity);
+        List<Long> ids = new ArrayList<>();
+        for (NgramIndex.Hit hit : page(hits, pageable)) {
+            ids.add(hit.getId());
+        }
+        return new PageImpl<>(ids, pageable, hits.size());
+    }
+
+    /**
+     * Búsqueda en varios tipos a la vez, con los resultados mezclados por relevancia.
+     */
+    public Page<SearchResultDTO> search(String query, Collection<SearchKind> kinds, Pageable pageable) {
+        List<NgramIndex.Hit> hits = new ArrayList<>();
+        Map<NgramIndex.Hit, SearchKind> kindOf = new HashMap<>();
+        for (SearchKind kind : kinds) {
+            for (NgramIndex.Hit hit : indexes.get(kind).search(query, minSimilarity)) {
+                hits.add(hit);
+                kindOf.put(hit, kind);
+            }
+        }
+        hits.sort(NgramIndex.Hit.RANKING);
+        List<SearchResultDTO> results = new ArrayList<>();
+        for (NgramIndex.Hit hit : page(hits, pageable)) {
+            results.add(new SearchResultDTO(kindOf.get(hit), hit.getId(), hit.getName(), hit.getScore()));
+        }
+        return new PageImpl<>(results, pageable, hits.size());
+    }
+
+    /**
+     * Ordena las entidades cargadas por id según el orden de {@code ids}.
+     */
+    public static <T> List<T> inIdOrder(List<Long> ids, Iterable<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.index.resync-interval-ms:600000}",
+            initialDelayString = "${search.index.resync-interval-ms:600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        for (SearchKind kind : SearchKind.values()) {
+            KindIndex index = indexes.get(kind);
+            index.beginRebuild();
+            NgramIndex rebuilt = new NgramIndex();
+            try {
+                jdbcTemplate.query(LOAD_SQL.get(kind), rs -> {
+                    rebuilt.put(rs.getLong("id"), rs.getString("name"), rs.getString("description"));
+                });
+            } catch (RuntimeException e) {
+                // Se sigue usando el índice actual hasta la próxima reconstrucción
+                index.finishRebuild(null);
+                throw e;
+            }
+            index.finishRebuild(rebuilt);
+        }
+        logger.debug("Search indexes rebuilt in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private static <T> List<T> page(List<T> items, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return items;
+        }
+        int from = (int) Math.min(pageable.getOffset(), items.size());
+        int to = Math.min(from + pageable.getPageSize(), items.size());
+        return items.subList(from, to);
+    }
+
+    private static final class KindIndex {
+        private volatile NgramIndex live = new NgramIndex();
+        // Cambios recibidos mientras se carga la reconstrucción; se aplican también sobre ella
+        private List<Consumer<NgramIndex>> pending;
+
+        private synchronized void apply(Consumer<NgramIndex> change) {
+            change.accept(live);
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+
+        private synchronized void beginRebuild() {
+            pending = new ArrayList<>();
+        }
+
+        // Con null se descarta la reconstrucción
+        private synchronized void finishRebuild(NgramIndex rebuilt) {
+            if (rebuilt != null) {
+                pending.forEach(change -> change.accept(rebuilt));
+                live = rebuilt;
+            }
+            pending = null;
+        }
+
+        private List<NgramIndex.Hit> search(String query, double minSimilarity) {
+            return live.search(query, minSimilarity);
+        }
+
+        private int size() {
+            return live.size();
+        }
+    }
+}
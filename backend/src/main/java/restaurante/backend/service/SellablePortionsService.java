@@ -0,0 +1,261 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Porciones vendibles de cada platillo, bebida y promoción con el stock actual:
+ * el mínimo, entre sus ingredientes, de stock / cantidad por porción.
+ *
+ * La proyección se arma una vez por versión de {@link RecipeCache} junto con un
+ * índice inverso (item de inventario -> platillos, bebidas y promociones que lo
+ * usan). Cada {@link InventoryStockChangedEvent} recalcula solo las recetas que
+ * dependen de los items que cambiaron, así las consultas del menú y del
+ * inventario son una búsqueda en un mapa.
+ *
+ * Es una vista rápida, no la reserva: la creación de órdenes no la consulta y
+ * {@link StockReservationService} decide el stock al colocarla. Cada
+ * {@code inventory.sellable.resync-interval-ms} se recarga el stock completo.
+ */
+@Service
+public class SellablePortionsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellablePortionsService.class);
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final String STOCK_SQL = "SELECT id, current_stock FROM inventory_items WHERE active = true";
+
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile Projection projection;
+
+    private Counter recomputedCounter;
+
+    @PostConstruct
+    public void init() {
+        recomputedCounter = Counter.builder("inventory.sellable.recomputed")
+                .description("Recetas recalculadas por cambios de stock")
+                .register(meterRegistry);
+    }
+
+    public int getMealPortions(Long mealId) {
+        return current().mealPortions.getOrDefault(mealId, UNLIMITED);
+    }
+
+    public int getDrinkPortions(Long drinkId) {
+        return current().drinkPortions.getOrDefault(drinkId, UNLIMITED);
+    }
+
+    // Una promoción sin receta cargada no existe o no está disponible
+    public int getPromotionPortions(Long promotionId) {
+        return current().promotionPortions.getOrDefault(promotionId, 0);
+    }
+
+    public Map<Long, Integer> getAllMealPortions() {
+        return Map.copyOf(current().mealPortions);
+    }
+
+    public Map<Long, Integer> getAllDrinkPortions() {
+        return Map.copyOf(current().drinkPortions);
+    }
+
+    public Map<Long, Integer> getAllPromotionPortions() {
+        return Map.copyOf(current().promotionPortions);
+    }
+
+    @EventListener
+    public void onStockChanged(InventoryStockChangedEvent event) {
+        boolean availabilityChanged;
+        // Mismo lock que build(): un cambio que llega durante la carga se aplica después, no se pierde
+        synchronized (this) {
+            Projection current = projection;
+            if (current == null) {
+                // Se arma completa en la primera lectura, ya con este stock
+                return;
+            }
+            Set<Long> meals = new HashSet<>();
+            Set<Long> drinks = new HashSet<>();
+            Set<Long> promotions = new HashSet<>();
+            event.getStock().forEach((itemId, stock) -> {
+                current.stockUnits.put(itemId, toUnits(stock));
+                addAll(meals, current.mealsByItem.get(itemId));
+                addAll(drinks, current.drinksByItem.get(itemId));
+                addAll(promotions, current.promotionsByItem.get(itemId));
+            });
+            availabilityChanged = recompute(meals, current.meals, current.mealPortions, current.stockUnits)
+                    | recompute(drinks, current.drinks, current.drinkPortions, current.stockUnits)
+                    | recompute(promotions, current.promotions, current.promotionPortions, current.stockUnits);
+            recomputedCounter.increment(meals.size() + drinks.size() + promotions.size());
+        }
+        if (availabilityChanged) {
+            eventPublisher.publishEvent(new MenuAvailabilityChangedEvent());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sellable.resync-interval-ms:300000}",
+            initialDelayString = "${inventory.sellable.resync-interval-ms:300000}")
+    public void resync() {
+        Projection previous = projection;
+        Projection rebuilt = rebuild(previous);
+        if (previous != null && previous.recipeVersion == rebuilt.recipeVersion
+                && !soldOut(previous).equals(soldOut(rebuilt))) {
+            eventPublisher.publishEvent(new MenuAvailabilityChangedEvent());
+        }
+    }
+
+    private Projection current() {
+        Projection current = projection;
+        if (current != null && current.recipeVersion == recipeCache.getVersion()) {
+            return current;
+        }
+        Projection rebuilt = rebuild(current);
+        if (current != null && rebuilt != current) {
+            // Cambiaron recetas o ingredientes: el menú puede mostrar otros platillos.
+            // Se publica fuera del lock: MenuSnapshotService lee esta proyección con el suyo tomado
+            eventPublisher.publishEvent(new MenuAvailabilityChangedEvent());
+        }
+        return rebuilt;
+    }
+
+    // Reconstruye salvo que otro hilo ya haya reemplazado "stale" por una proyección vigente
+    private synchronized Projection rebuild(Projection stale) {
+        if (projection != stale && projection != null && projection.recipeVersion == recipeCache.getVersion()) {
+            return projection;
+        }
+        projection = build();
+        return projection;
+    }
+
+    private Projection build() {
+        long recipeVersion = recipeCache.getVersion();
+        Projection built = new Projection(recipeVersion,
+                recipeCache.getMealRecipes(), recipeCache.getDrinkRecipes(), recipeCache.getPromotionRecipes());
+        jdbcTemplate.query(STOCK_SQL, rs -> {
+            built.stockUnits.put(rs.getLong("id"), toUnits(rs.getBigDecimal("current_stock")));
+        });
+        recompute(built.meals.keySet(), built.meals, built.mealPortions, built.stockUnits);
+        recompute(built.drinks.keySet(), built.drinks, built.drinkPortions, built.stockUnits);
+        recompute(built.promotions.keySet(), built.promotions, built.promotionPortions, built.stockUnits);
+        logger.info("Sellable portions projection built for recipe version {}: {} meals, {} drinks, {} promotions",
+                recipeVersion, built.meals.size(), built.drinks.size(), built.promotions.size());
+        return built;
+    }
+
+    // Devuelve true si alguna receta pasó de vendible a agotada o al revés
+    private static boolean recompute(Set<Long> ownerIds, Map<Long, RecipeCache.Recipe> recipes,
+                                     Map<Long, Integer> portions, Map<Long, Long> stockUnits) {
+        boolean availabilityChanged = false;
+        for (Long ownerId : ownerIds) {
+            RecipeCache.Recipe recipe = recipes.get(ownerId);
+            if (recipe == null) {
+                continue;
+            }
+            int updated = recipe.maxPortions(stockUnits);
+            Integer previous = portions.put(ownerId, updated);
+            if (previous != null && (previous > 0) != (updated > 0)) {
+                availabilityChanged = true;
+            }
+        }
+        return availabilityChanged;
+    }
+
+    private static Set<String> soldOut(Projection projection) {
+        Set<String> soldOut = new HashSet<>();
+        collectSoldOut(projection.mealPortions, "meal:", soldOut);
+        collectSoldOut(projection.drinkPortions, "drink:", soldOut);
+        collectSoldOut(projection.promotionPortions, "promotion:", soldOut);
+        return soldOut;
+    }
+
+    private static void collectSoldOut(Map<Long, Integer> portions, String prefix, Set<String> soldOut) {
+        portions.forEach((id, count) -> {
+            if (count <= 0) {
+                soldOut.add(prefix + id);
+            }
+        });
+    }
+
+    private static void addAll(Set<Long> target, long[] ids) {
+        if (ids != null) {
+            for (long id : ids) {
+                target.add(id);
+            }
+        }
+    }
+
+    private static long toUnits(BigDecimal stock) {
+        if (stock == null || stock.signum() <= 0) {
+            return 0;
+        }
+        return stock.setScale(RecipeCache.QUANTITY_SCALE, RoundingMode.DOWN).unscaledValue().longValue();
+    }
+
+    private static final class Projection {
+        private final long recipeVersion;
+        private final Map<Long, RecipeCache.Recipe> meals;
+        private final Map<Long, RecipeCache.Recipe> drinks;
+        private final Map<Long, RecipeCache.Recipe> promotions;
+        // Índice inverso: inventoryItemId -> ids de las recetas que lo usan
+        private final Map<Long, long[]> mealsByItem;
+        private final Map<Long, long[]> drinksByItem;
+        private final Map<Long, long[]> promotionsByItem;
+        // Solo se modifica bajo el lock del servicio
+        private final Map<Long, Long> stockUnits = new HashMap<>();
+        private final Map<Long, Integer> mealPortions = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> drinkPortions = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> promotionPortions = new ConcurrentHashMap<>();
+
+        private Projection(long recipeVersion, Map<Long, RecipeCache.Recipe> meals,
+                           Map<Long, RecipeCache.Recipe> drinks, Map<Long, RecipeCache.Recipe> promotions) {
+            this.recipeVersion = recipeVersion;
+            this.meals = meals;
+            this.drinks = drinks;
+            this.promotions = promotions;
+            this.mealsByItem = reverseIndex(meals);
+            this.drinksByItem = reverseIndex(drinks);
+            this.promotionsByItem = reverseIndex(promotions);
+        }
+
+        private static Map<Long, long[]> reverseIndex(Map<Long, RecipeCache.Recipe> recipes) {
+            Map<Long, List<Long>> dependents = new HashMap<>();
+            recipes.forEach((ownerId, recipe) -> {
+                for (int i = 0; i < recipe.size(); i++) {
+                    dependents.computeIfAbsent(recipe.getInventoryItemId(i), id -> new ArrayList<>()).add(ownerId);
+                }
+            });
+            Map<Long, long[]> index = new HashMap<>(dependents.size() * 2);
+            dependents.forEach((itemId, owners) -> index.put(itemId, owners.stream().mapToLong(Long::longValue).toArray()));
+            return index;
+        }
+    }
+}
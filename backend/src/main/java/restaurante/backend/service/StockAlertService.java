@@ -0,0 +1,268 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.dto.StockAlertDTO;
+import restaurante.backend.entity.InventoryCategory;
+import restaurante.backend.entity.InventoryItem;
+import restaurante.backend.repository.InventoryItemRepository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Alertas de stock bajo y agotado mantenidas en memoria.
+ *
+ * Cada cambio de stock (reservas y liberaciones de {@link StockReservationService},
+ * altas y ediciones de items) informa el nivel resultante de los items tocados y,
+ * tras el commit, se compara con el nivel conocido. Solo cuando un item cruza
+ * {@code minimumStock} o cero se actualiza el conjunto de alertas y se envía un
+ * evento {@code stock-alert} por SSE; los endpoints de alertas leen ese conjunto.
+ *
+ * Los mismos niveles se publican como {@link InventoryStockChangedEvent} para las
+ * demás proyecciones de stock.
+ *
+ * Al arrancar y cada {@code inventory.stock-alerts.resync-interval-ms} el conjunto
+ * se compara con la base, por si algo cambió el stock por fuera de estos caminos.
+ */
+@Service
+public class StockAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertService.class);
+
+    private static final String LEVELS_SQL =
+            "SELECT id, name, unit, category, current_stock, minimum_stock, active FROM inventory_items WHERE id = ANY (?)";
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("stockAlertExecutor")
+    private Executor stockAlertExecutor;
+
+    @Value("${inventory.stock-alerts.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Solo items en LOW u OUT
+    private final Map<Long, StockAlertDTO> alerts = new ConcurrentHashMap<>();
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    private Counter crossingCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("inventory.stock.alerts", alerts, Map::size)
+                .description("Items de inventario con stock bajo o agotado")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.alert.subscribers", subscribers, List::size)
+                .description("Pantallas conectadas al stream de alertas de stock")
+                .register(meterRegistry);
+        crossingCounter = Counter.builder("inventory.stock.alert.crossings")
+                .description("Cruces de umbral (minimumStock o cero) detectados")
+                .register(meterRegistry);
+    }
+
+    public List<StockAlertDTO> getLowStockItems() {
+        return sorted(alerts.values());
+    }
+
+    public List<StockAlertDTO> getOutOfStockItems() {
+        List<StockAlertDTO> out = new ArrayList<>();
+        for (StockAlertDTO alert : alerts.values()) {
+            if (alert.isOutOfStock()) {
+                out.add(alert);
+            }
+        }
+        return sorted(out);
+    }
+
+    public boolean hasAlerts() {
+        return !alerts.isEmpty();
+    }
+
+    /**
+     * Lee el stock resultante de los items dentro de la transacción que los modificó
+     * (sus filas siguen bloqueadas) y lo compara tras el commit.
+     */
+    public void recordStockChange(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = itemIds.toArray(new Long[0]);
+        List<StockAlertDTO> levels = new ArrayList<>(ids.length);
+        Map<Long, BigDecimal> stock = new HashMap<>(ids.length * 2);
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LEVELS_SQL);
+                    statement.setArray(1, connection.createArrayOf("bigint", ids));
+                    return statement;
+                },
+                rs -> {
+                    boolean active = rs.getBoolean("active");
+                    BigDecimal currentStock = rs.getBigDecimal("current_stock");
+                    levels.add(new StockAlertDTO(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getString("unit"),
+                            rs.getString("category") != null ? InventoryCategory.valueOf(rs.getString("category")) : null,
+                            currentStock,
+                            rs.getBigDecimal("minimum_stock"),
+                            active));
+                    stock.put(rs.getLong("id"), active && currentStock != null ? currentStock : BigDecimal.ZERO);
+                });
+        AfterCommit.run(() -> {
+            levels.forEach(this::apply);
+            eventPublisher.publishEvent(new InventoryStockChangedEvent(stock));
+        });
+    }
+
+    /**
+     * Nivel de un item que se acaba de guardar (alta, edición o baja lógica).
+     */
+    public void recordItem(InventoryItem item) {
+        StockAlertDTO level = toLevel(item);
+        BigDecimal stock = item.isActive() && item.getCurrentStock() != null ? item.getCurrentStock() : BigDecimal.ZERO;
+        AfterCommit.run(() -> {
+            apply(level);
+            eventPublisher.publishEvent(new InventoryStockChangedEvent(Map.of(item.getId(), stock)));
+        });
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> {
+            subscribers.remove(emitter);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        // En el mismo hilo que los eventos: el snapshot nunca llega después de un cruce posterior
+        dispatch(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(getLowStockItems()));
+                subscribers.add(emitter);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${inventory.stock-alerts.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        if (!subscribers.isEmpty()) {
+            dispatch(() -> send(SseEmitter.event().comment("heartbeat")));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.stock-alerts.resync-interval-ms:300000}",
+            initialDelayString = "${inventory.stock-alerts.resync-interval-ms:300000}")
+    public void resync() {
+        Set<Long> seen = new HashSet<>();
+        for (InventoryItem item : inventoryItemRepository.findLowStockItems()) {
+            seen.add(item.getId());
+            apply(toLevel(item));
+        }
+        // Items que ya no están bajos (o se desactivaron) sin pasar por los caminos de stock
+        List<Long> stale = new ArrayList<>();
+        for (Long itemId : alerts.keySet()) {
+            if (!seen.contains(itemId)) {
+                stale.add(itemId);
+            }
+        }
+        if (!stale.isEmpty()) {
+            Set<Long> found = new HashSet<>();
+            for (InventoryItem item : inventoryItemRepository.findAllById(stale)) {
+                found.add(item.getId());
+                apply(toLevel(item));
+            }
+            stale.stream().filter(itemId -> !found.contains(itemId)).forEach(alerts::remove);
+        }
+        logger.debug("Stock alerts resynced: {} items low or out of stock", alerts.size());
+    }
+
+    private void apply(StockAlertDTO current) {
+        alerts.compute(current.getId(), (itemId, known) -> {
+            StockAlertDTO.Level previous = known != null ? known.getLevel() : StockAlertDTO.Level.OK;
+            if (previous == current.getLevel()) {
+                // Sin cruce: solo se refresca el stock mostrado
+                return known != null ? current.sinceCrossingOf(known) : null;
+            }
+            StockAlertDTO event = current.withPreviousLevel(previous);
+            crossingCounter.increment();
+            // Encolado dentro de compute: los cruces de un mismo item salen en orden
+            dispatch(() -> send(SseEmitter.event().name("stock-alert").data(event)));
+            return current.getLevel() == StockAlertDTO.Level.OK ? null : event;
+        });
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(event);
+            } catch (Exception e) {
+                // Cliente desconectado: el navegador reconecta y recibe un snapshot nuevo
+                subscribers.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            stockAlertExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Stock alert dispatch queue is full, dropping event for {} subscribers", subscribers.size());
+        }
+    }
+
+    private static StockAlertDTO toLevel(InventoryItem item) {
+        return new StockAlertDTO(item.getId(), item.getName(), item.getUnit(), item.getCategory(),
+                item.getCurrentStock(), item.getMinimumStock(), item.isActive());
+    }
+
+    private static List<StockAlertDTO> sorted(Collection<StockAlertDTO> values) {
+        List<StockAlertDTO> list = new ArrayList<>(values);
+        list.sort(Comparator.comparing(StockAlertDTO::getName, Comparator.nullsLast(String::compareTo)));
+        return list;
+    }
+}
@@ -0,0 +1,200 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.entity.InventoryItem;
+import restaurante.backend.entity.InventoryMovementType;
+import restaurante.backend.repository.InventoryItemRepository;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reserva y libera stock de inventario con UPDATEs condicionales en lote.
+ *
+ * Cada fila se decrementa solo si tiene stock suficiente
+ * ({@code current_stock >= ?}), por lo que dos órdenes concurrentes nunca
+ * pueden vender las mismas últimas porciones. Si alguna fila no alcanza,
+ * la transacción completa se revierte y la orden falla sin tocar el resto.
+ *
+ * Cada reserva o liberación aplicada queda registrada en el libro de movimientos
+ * ({@link InventoryLedgerService}) en la misma transacción.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final String RESERVE_SQL =
+            "UPDATE inventory_items SET current_stock = current_stock - ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND active = true AND current_stock >= ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE inventory_items SET current_stock = current_stock + ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.reservation.max-attempts:3}")
+    private int maxAttempts;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter reservedCounter;
+    private Counter conflictCounter;
+    private Counter retryCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        reservedCounter = Counter.builder("inventory.reservations")
+                .description("Reservas de stock aplicadas")
+                .tag("result", "reserved")
+                .register(meterRegistry);
+        conflictCounter = Counter.builder("inventory.reservations")
+                .description("Reservas de stock rechazadas por stock insuficiente")
+                .tag("result", "conflict")
+                .register(meterRegistry);
+        retryCounter = Counter.builder("inventory.reservation.retries")
+                .description("Reintentos de reserva por bloqueos o deadlocks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Descuenta la demanda (inventoryItemId -> cantidad) de forma atómica.
+     * Lanza una excepción y revierte todo si algún item no tiene stock suficiente.
+     *
+     * Si no hay una transacción en curso, la reserva abre la suya y se reintenta
+     * ante fallos de concurrencia transitorios (deadlocks, timeouts de bloqueo).
+     * Dentro de una transacción existente se ejecuta una sola vez, porque un
+     * reintento no puede rehacer el trabajo previo del llamador.
+     */
+    public void reserve(Map<Long, BigDecimal> demand) {
+        reserve(demand, null);
+    }
+
+    // Igual que reserve(demand), con la orden a la que se atribuyen los movimientos
+    public void reserve(Map<Long, BigDecimal> demand, Long orderId) {
+        if (demand.isEmpty()) {
+            return;
+        }
+
+        // Orden fijo por id para que dos reservas concurrentes bloqueen filas en el mismo orden
+        Map<Long, BigDecimal> sortedDemand = new TreeMap<>(demand);
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            applyReservation(sortedDemand, orderId);
+            return;
+        }
+
+        int attempts = Math.max(1, maxAttempts);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyReservation(sortedDemand, orderId));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                retryCounter.increment();
+                logger.warn("Conflicto de concurrencia al reservar stock (intento {}/{}): {}",
+                        attempt, attempts, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Devuelve al inventario las cantidades indicadas (por ejemplo, al cancelar una orden).
+     */
+    public void release(Map<Long, BigDecimal> amounts) {
+        release(amounts, null);
+    }
+
+    public void release(Map<Long, BigDecimal> amounts, Long orderId) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        Map<Long, BigDecimal> sortedAmounts = new TreeMap<>(amounts);
+        List<Object[]> batchArgs = new ArrayList<>(sortedAmounts.size());
+        sortedAmounts.forEach((itemId, amount) -> batchArgs.add(new Object[]{amount, itemId}));
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            applyRelease(sortedAmounts, batchArgs, orderId);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> applyRelease(sortedAmounts, batchArgs, orderId));
+        }
+    }
+
+    private void applyRelease(Map<Long, BigDecimal> sortedAmounts, List<Object[]> batchArgs, Long orderId) {
+        jdbcTemplate.batchUpdate(RELEASE_SQL, batchArgs);
+        inventoryLedgerService.record(InventoryMovementType.ORDER_CANCELLATION, sortedAmounts, orderId, null);
+        stockAlertService.recordStockChange(sortedAmounts.keySet());
+    }
+
+    private void applyReservation(Map<Long, BigDecimal> sortedDemand, Long orderId) {
+        List<Long> itemIds = new ArrayList<>(sortedDemand.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            BigDecimal amount = sortedDemand.get(itemId);
+            batchArgs.add(new Object[]{amount, itemId, amount});
+        }
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+
+        List<Long> shortItemIds = new ArrayList<>();
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] == 0) {
+                shortItemIds.add(itemIds.get(i));
+            }
+        }
+
+        if (!shortItemIds.isEmpty()) {
+            conflictCounter.increment();
+            String itemNames = inventoryItemRepository.findAllById(shortItemIds).stream()
+                    .map(InventoryItem::getName)
+                    .collect(Collectors.joining(", "));
+            // La excepción marca la transacción para rollback: ningún descuento queda aplicado
+            throw new RuntimeException("Stock insuficiente para: " + (itemNames.isEmpty() ? shortItemIds : itemNames));
+        }
+
+        Map<Long, BigDecimal> movements = new LinkedHashMap<>();
+        sortedDemand.forEach((itemId, amount) -> movements.put(itemId, amount.negate()));
+        inventoryLedgerService.record(InventoryMovementType.ORDER_RESERVATION, movements, orderId, null);
+
+        stockAlertService.recordStockChange(itemIds);
+        reservedCounter.increment();
+        logger.info("Stock reservado para {} items de inventario", itemIds.size());
+    }
+}
@@ -0,0 +1,296 @@
+package restaurante.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import restaurante.backend.config.AfterCommit;
+import restaurante.backend.dto.ProductStatsDTO;
+import restaurante.backend.dto.TodayDashboardDTO;
+import restaurante.backend.entity.Merma;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
+import restaurante.backend.entity.Sale;
+import restaurante.backend.entity.SaleItem;
+import restaurante.backend.repository.MermaRepository;
+import restaurante.backend.repository.OrderRepository;
+import restaurante.backend.repository.SaleItemRepository;
+import restaurante.backend.repository.SaleRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del día en memoria para el tablero: ingresos, órdenes por estado y
+ * tipo, unidades vendidas por producto y costo de mermas.
+ *
+ * Las escrituras de órdenes, ventas y mermas suman con {@link LongAdder} tras el
+ * commit de su transacción, así leer el tablero no consulta la base. Los montos se
+ * llevan en centavos. Al arrancar, a medianoche y cada
+ * {@code dashboard.today.reseed-interval-ms} los contadores se recalculan desde la
+ * base con consultas por rango sobre índices de fecha; eso corrige también lo
+ * que se escribió mientras corría el recálculo anterior.
+ */
+@Service
+public class TodayMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodayMetricsService.class);
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MermaRepository mermaRepository;
+
+    private final AtomicReference<DayMetrics> current = new AtomicReference<>(new DayMetrics(LocalDate.now(), null));
+
+    public TodayDashboardDTO getToday() {
+        return bucketFor(LocalDate.now()).toDTO();
+    }
+
+    public void recordOrderCreated(Order order) {
+        if (order.getOrderDate() == null) {
+            return;
+        }
+        LocalDate day = order.getOrderDate().toLocalDate();
+        OrderStatus status = order.getStatus();
+        OrderType type = order.getOrderType();
+        AfterCommit.run(() -> {
+            DayMetrics metrics = bucketFor(day);
+            if (metrics != null) {
+                metrics.orderCount.increment();
+                metrics.adjustOrder(status, type, 1);
+            }
+        });
+    }
+
+    public void recordOrderStatusChange(Order order, OrderStatus previousStatus) {
+        if (order.getOrderDate() == null || previousStatus == order.getStatus()) {
+            return;
+        }
+        // Solo cuentan las órdenes colocadas hoy, igual que en la semilla
+        LocalDate day = order.getOrderDate().toLocalDate();
+        OrderStatus status = order.getStatus();
+        AfterCommit.run(() -> {
+            DayMetrics metrics = bucketFor(day);
+            if (metrics != null) {
+                metrics.adjustOrder(previousStatus, null, -1);
+                metrics.adjustOrder(status, null, 1);
+            }
+        });
+    }
+
+    public void recordSales(List<Sale> sales) {
+        List<Runnable> updates = new ArrayList<>(sales.size());
+        for (Sale sale : sales) {
+            if (sale.getSaleDate() == null) {
+                continue;
+            }
+            LocalDate day = sale.getSaleDate().toLocalDate();
+            long revenueCents = cents(sale.getTotalAmount());
+            List<SaleItem> items = sale.getItems() != null ? new ArrayList<>(sale.getItems()) : List.of();
+            updates.add(() -> {
+                DayMetrics metrics = bucketFor(day);
+                if (metrics == null) {
+                    return;
+                }
+                metrics.saleCount.increment();
+                metrics.revenueCents.add(revenueCents);
+                for (SaleItem item : items) {
+                    metrics.product(item.getProductName(), item.getProductType())
+                            .add(item.getQuantity() != null ? item.getQuantity() : 0, cents(item.getTotalPrice()));
+                }
+            });
+        }
+        AfterCommit.run(() -> updates.forEach(Runnable::run));
+    }
+
+    public void recordMerma(Merma merma) {
+        adjustWaste(merma, 1);
+    }
+
+    public void recordMermaDeleted(Merma merma) {
+        adjustWaste(merma, -1);
+    }
+
+    /**
+     * Recalcula los contadores del día desde la base y los reemplaza.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${dashboard.today.rollover-cron:0 0 0 * * *}")
+    @Scheduled(fixedDelayString = "${dashboard.today.reseed-interval-ms:300000}",
+            initialDelayString = "${dashboard.today.reseed-interval-ms:300000}")
+    public void reseed() {
+        LocalDate day = LocalDate.now();
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        long started = System.currentTimeMillis();
+
+        DayMetrics seeded = new DayMetrics(day, LocalDateTime.now());
+        for (Object[] row : saleRepository.countAndSumInRange(from, to)) {
+            seeded.saleCount.add(((Number) row[0]).longValue());
+            seeded.revenueCents.add(cents(row[1] != null ? ((Number) row[1]).doubleValue() : 0));
+        }
+        for (Object[] row : saleItemRepository.getProductStatsInRange(from, to)) {
+            seeded.product((String) row[0], (String) row[1])
+                    .add(((Number) row[2]).longValue(), cents(((Number) row[3]).doubleValue()));
+        }
+        for (Object[] row : orderRepository.countByStatusAndTypeInRange(from, to)) {
+            long count = ((Number) row[2]).longValue();
+            seeded.orderCount.add(count);
+            seeded.adjustOrder((OrderStatus) row[0], (OrderType) row[1], count);
+        }
+        for (Object[] row : mermaRepository.countAndSumCostInRange(from, to)) {
+            seeded.wasteCount.add(((Number) row[0]).longValue());
+            seeded.wasteCostCents.add(cents((BigDecimal) row[1]));
+        }
+
+        // No reemplazar un día más nuevo si la medianoche pasó durante el recálculo
+        current.accumulateAndGet(seeded, (existing, fresh) -> fresh.day.isBefore(existing.day) ? existing : fresh);
+        logger.debug("Today dashboard reseeded for {} in {} ms", day, System.currentTimeMillis() - started);
+    }
+
+    private void adjustWaste(Merma merma, int sign) {
+        if (merma.getRegisteredAt() == null) {
+            return;
+        }
+        LocalDate day = merma.getRegisteredAt().toLocalDate();
+        long costCents = cents(merma.getTotalCost());
+        AfterCommit.run(() -> {
+            DayMetrics metrics = bucketFor(day);
+            if (metrics != null) {
+                metrics.wasteCount.add(sign);
+                metrics.wasteCostCents.add(sign * costCents);
+            }
+        });
+    }
+
+    // Contadores de ese día; al cambiar de día se empieza de cero y los de días anteriores se ignoran
+    private DayMetrics bucketFor(LocalDate day) {
+        DayMetrics metrics = current.get();
+        while (!metrics.day.equals(day)) {
+            if (day.isBefore(metrics.day)) {
+                return null;
+            }
+            DayMetrics next = new DayMetrics(day, null);
+            if (current.compareAndSet(metrics, next)) {
+                return next;
+            }
+            metrics = current.get();
+        }
+        return metrics;
+    }
+
+    private static long cents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0;
+    }
+
+    private static final class DayMetrics {
+        private final LocalDate day;
+        private final LocalDateTime seededAt;
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder saleCount = new LongAdder();
+        private final LongAdder orderCount = new LongAdder();
+        // Mapas llenos desde el constructor: solo se leen, los adders hacen el resto
+        private final Map<OrderStatus, LongAdder> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        private final Map<OrderType, LongAdder> ordersByType = new EnumMap<>(OrderType.class);
+        private final Map<String, ProductCounter> products = new ConcurrentHashMap<>();
+        private final LongAdder wasteCostCents = new LongAdder();
+        private final LongAdder wasteCount = new LongAdder();
+
+        private DayMetrics(LocalDate day, LocalDateTime seededAt) {
+            this.day = day;
+            this.seededAt = seededAt;
+            for (OrderStatus status : OrderStatus.values()) {
+                ordersByStatus.put(status, new LongAdder());
+            }
+            for (OrderType type : OrderType.values()) {
+                ordersByType.put(type, new LongAdder());
+            }
+        }
+
+        private void adjustOrder(OrderStatus status, OrderType type, long delta) {
+            if (status != null) {
+                ordersByStatus.get(status).add(delta);
+            }
+            if (type != null) {
+                ordersByType.get(type).add(delta);
+            }
+        }
+
+        private ProductCounter product(String name, String type) {
+            String key = type + ':' + name;
+            ProductCounter counter = products.get(key);
+            return counter != null ? counter : products.computeIfAbsent(key, k -> new ProductCounter(name, type));
+        }
+
+        private TodayDashboardDTO toDTO() {
+            TodayDashboardDTO dto = new TodayDashboardDTO();
+            dto.setDay(day);
+            dto.setSeededAt(seededAt);
+            dto.setRevenue(revenueCents.sum() / 100.0);
+            dto.setSaleCount(saleCount.sum());
+            dto.setOrderCount(orderCount.sum());
+
+            Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+            ordersByStatus.forEach((status, count) -> byStatus.put(status, count.sum()));
+            dto.setOrdersByStatus(byStatus);
+            Map<OrderType, Long> byType = new EnumMap<>(OrderType.class);
+            ordersByType.forEach((type, count) -> byType.put(type, count.sum()));
+            dto.setOrdersByType(byType);
+
+            List<ProductStatsDTO> productStats = new ArrayList<>(products.size());
+            for (ProductCounter counter : products.values()) {
+                productStats.add(new ProductStatsDTO(counter.name, counter.type,
+                        counter.quantity.sum(), counter.revenueCents.sum() / 100.0));
+            }
+            productStats.sort(Comparator.comparing(ProductStatsDTO::getTotalQuantity).reversed());
+            dto.setProducts(productStats);
+
+            dto.setWasteCost(BigDecimal.valueOf(wasteCostCents.sum(), 2));
+            dto.setWasteCount(wasteCount.sum());
+            return dto;
+        }
+    }
+
+    private static final class ProductCounter {
+        private final String name;
+        private final String type;
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        private ProductCounter(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        private void add(long units, long cents) {
+            quantity.add(units);
+            revenueCents.add(cents);
+        }
+    }
+}
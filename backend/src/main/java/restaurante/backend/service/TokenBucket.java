@@ -0,0 +1,48 @@
+package restaurante.backend.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de tasa tipo token bucket.
+ *
+ * Los tokens se recargan a {@code permitsPerSecond} hasta {@code capacity}.
+ * {@link #acquire(int)} descuenta los permisos pedidos y, si el balance queda
+ * negativo, espera exactamente lo necesario para saldarlo, de modo que
+ * ráfagas mayores que la capacidad también respetan la tasa media.
+ */
+final class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, double capacity) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond debe ser mayor que cero");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= permits;
+            waitNanos = tokens < 0 ? (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1)) : 0;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import restaurante.backend.entity.User;
 import restaurante.backend.repository.UserRepository;
+import restaurante.backend.security.AuthenticatedUserCache;
 
 import java.util.Optional;
 
@@ -19,6 +20,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+
     public User findByEmail(String email) {
         Optional<User> user = userRepository.findByEmail(email);
         return user.orElse(null);
@@ -32,6 +36,11 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    // Gancho de revocación para cambios de email hechos desde el perfil
+    public void evictAuthenticatedUser(String email) {
+        authenticatedUserCache.evict(email);
+    }
+
     public boolean changePassword(User user, String currentPassword, String newPassword) {
         // Verificar la contraseña actual
         if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
@@ -41,6 +50,7 @@ public class UserService {
         // Cambiar la contraseña
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticatedUserCache.evict(user.getEmail());
         return true;
     }
 }
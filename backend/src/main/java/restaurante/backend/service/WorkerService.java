@@ -6,6 +6,7 @@ import restaurante.backend.entity.WorkerRole;
 import restaurante.backend.entity.TimeEntry;
 import restaurante.backend.repository.WorkerRepository;
 import restaurante.backend.repository.TimeEntryRepository;
+import restaurante.backend.security.AuthenticatedUserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -29,6 +30,9 @@ public class WorkerService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+    
     private final Random random = new Random();
     
     public List<Worker> getAllWorkers() {
@@ -89,6 +93,9 @@ public class WorkerService {
             throw new IllegalArgumentException("Ya existe un trabajador con este email");
         }
         
+        // El rol, el email o la contraseña pueden cambiar: invalidar la sesión verificada
+        authenticatedUserCache.evict(worker.getEmail());
+        
         worker.setNombre(request.getNombre());
         worker.setApellido(request.getApellido());
         worker.setDireccion(request.getDireccion());
@@ -120,6 +127,7 @@ public class WorkerService {
         
         worker.setActivo(false);
         workerRepository.save(worker);
+        authenticatedUserCache.evict(worker.getEmail());
     }
     
     public void activateWorker(Long id) {
@@ -128,6 +136,7 @@ public class WorkerService {
         
         worker.setActivo(true);
         workerRepository.save(worker);
+        authenticatedUserCache.evict(worker.getEmail());
     }
     
     public void deleteWorker(Long id) {
@@ -139,6 +148,7 @@ public class WorkerService {
         
         // Now we can safely delete the worker
         workerRepository.deleteById(id);
+        authenticatedUserCache.evict(worker.getEmail());
     }
     
     private String generateUniqueEmployeeNumber() {
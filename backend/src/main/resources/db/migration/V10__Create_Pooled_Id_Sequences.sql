@@ -0,0 +1,35 @@
+-- Secuencias para los ids de las tablas de mayor volumen. Hibernate reserva bloques
+-- de 50 ids por llamada (optimizador pooled) y puede agrupar los INSERT en lotes JDBC,
+-- algo imposible con columnas IDENTITY. Cada secuencia arranca después del id más alto
+-- actual: con pooled, el valor devuelto es el extremo superior del bloque (valor-49 .. valor).
+-- Ejecutar antes de desplegar la versión que usa las secuencias.
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS order_meals_seq INCREMENT BY 50;
+SELECT setval('order_meals_seq', COALESCE((SELECT MAX(id) FROM order_meals), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS order_drinks_seq INCREMENT BY 50;
+SELECT setval('order_drinks_seq', COALESCE((SELECT MAX(id) FROM order_drinks), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS order_promotions_seq INCREMENT BY 50;
+SELECT setval('order_promotions_seq', COALESCE((SELECT MAX(id) FROM order_promotions), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS sales_seq INCREMENT BY 50;
+SELECT setval('sales_seq', COALESCE((SELECT MAX(id) FROM sales), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS sale_items_seq INCREMENT BY 50;
+SELECT setval('sale_items_seq', COALESCE((SELECT MAX(id) FROM sale_items), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS mermas_seq INCREMENT BY 50;
+SELECT setval('mermas_seq', COALESCE((SELECT MAX(id) FROM mermas), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS time_entries_seq INCREMENT BY 50;
+SELECT setval('time_entries_seq', COALESCE((SELECT MAX(id) FROM time_entries), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS user_consents_seq INCREMENT BY 50;
+SELECT setval('user_consents_seq', COALESCE((SELECT MAX(id) FROM user_consents), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS email_outbox_seq INCREMENT BY 50;
+SELECT setval('email_outbox_seq', COALESCE((SELECT MAX(id) FROM email_outbox), 0) + 50, false);
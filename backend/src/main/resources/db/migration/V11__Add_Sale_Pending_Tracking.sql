@@ -0,0 +1,9 @@
+-- Registro de ventas fuera del request de la orden (ver SaleRecorder).
+-- orders.sale_pending marca órdenes pagadas cuya venta aún no se insertó: se escribe en la
+-- transacción de la orden y se limpia en la misma transacción que inserta la venta,
+-- así ninguna venta se pierde si la aplicación cae antes de registrarla.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS sale_pending BOOLEAN NOT NULL DEFAULT false;
+CREATE INDEX IF NOT EXISTS idx_orders_sale_pending ON orders (id) WHERE sale_pending;
+
+ALTER TABLE sales ADD COLUMN IF NOT EXISTS order_id BIGINT;
+CREATE INDEX IF NOT EXISTS idx_sales_order_id ON sales (order_id);
@@ -0,0 +1,3 @@
+-- Índices por fecha para las consultas por rango del día (tablero, /api/sales/today, /api/merma/today)
+CREATE INDEX IF NOT EXISTS idx_sales_sale_date ON sales (sale_date);
+CREATE INDEX IF NOT EXISTS idx_mermas_registered_at ON mermas (registered_at);
@@ -0,0 +1,41 @@
+-- Libro de movimientos de inventario (solo inserciones) y fotos periódicas de stock por item.
+-- El stock a una fecha se calcula con la foto más cercana anterior más los movimientos
+-- posteriores a ella (ver InventoryLedgerService).
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL REFERENCES inventory_items (id),
+    movement_type VARCHAR(30) NOT NULL,
+    quantity NUMERIC(10, 2) NOT NULL,
+    stock_after NUMERIC(10, 2),
+    order_id BIGINT,
+    note VARCHAR(255),
+    recorded_by VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_item_occurred_at
+    ON inventory_movements (inventory_item_id, occurred_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_occurred_at
+    ON inventory_movements (occurred_at);
+
+CREATE TABLE IF NOT EXISTS inventory_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL REFERENCES inventory_items (id),
+    stock NUMERIC(10, 2) NOT NULL,
+    taken_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_snapshots_item_taken_at
+    ON inventory_snapshots (inventory_item_id, taken_at);
+
+-- Los movimientos no se corrigen ni se borran: un error se compensa con otro movimiento
+CREATE OR REPLACE FUNCTION reject_inventory_movement_change() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'inventory_movements es de solo inserción';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_inventory_movements_immutable ON inventory_movements;
+CREATE TRIGGER trg_inventory_movements_immutable
+    BEFORE UPDATE OR DELETE ON inventory_movements
+    FOR EACH ROW EXECUTE FUNCTION reject_inventory_movement_change();
@@ -0,0 +1,6 @@
+-- Una orden registra a lo más una venta (ver SaleRecorder). Las ventas registradas a mano
+-- no tienen order_id y quedan fuera del índice. Reemplaza al índice simple de V11.
+-- Antes de aplicarlo, revisar duplicados previos con:
+--   SELECT order_id, COUNT(*) FROM sales WHERE order_id IS NOT NULL GROUP BY order_id HAVING COUNT(*) > 1;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_sales_order_id ON sales (order_id) WHERE order_id IS NOT NULL;
+DROP INDEX IF EXISTS idx_sales_order_id;
@@ -0,0 +1,18 @@
+-- Agregados diarios de ventas usados por los reportes de /api/sales
+CREATE TABLE IF NOT EXISTS daily_sales_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    sale_date DATE NOT NULL UNIQUE,
+    sale_count BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE PRECISION NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS daily_product_sales_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    sale_date DATE NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_type VARCHAR(255) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE PRECISION NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_daily_product_sales_rollup UNIQUE (sale_date, product_name, product_type)
+);
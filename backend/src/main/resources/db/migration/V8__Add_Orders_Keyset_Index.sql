@@ -0,0 +1,2 @@
+-- Índice para la paginación por keyset del listado de órdenes (orderDate, id) descendente
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders (order_date, id);
@@ -0,0 +1,15 @@
+-- Órdenes recibidas en modo asíncrono: se guardan al instante y se procesan en segundo plano
+CREATE TABLE IF NOT EXISTS order_intake (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    payload TEXT NOT NULL,
+    requested_by VARCHAR(255),
+    idempotency_key VARCHAR(255),
+    order_id BIGINT,
+    error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    CONSTRAINT uk_order_intake_requester_key UNIQUE (requested_by, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_intake_status_id ON order_intake (status, id);
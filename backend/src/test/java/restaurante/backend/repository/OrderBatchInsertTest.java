@@ -0,0 +1,167 @@
+package restaurante.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.DrinkType;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.MealType;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+import restaurante.backend.entity.OrderType;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserción masiva de órdenes con sus líneas: con ids por secuencia pooled (bloques de
+ * 50) y {@code hibernate.jdbc.batch_size=50}, cada tabla sale en lotes JDBC de 50 filas
+ * más una llamada a la secuencia por bloque, en vez de una sentencia por fila.
+ *
+ * Se cuenta con las estadísticas de Hibernate sobre H2 en modo PostgreSQL; la misma
+ * carga con lotes de 1 en la sesión sirve de comparación. El tiempo de ambas se registra
+ * como referencia, sin afirmarlo.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Sin transacción de prueba: la carga confirma la suya, como en la aplicación
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderBatchInsertTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchInsertTest.class);
+
+    private static final int ORDERS = 10_000;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DrinkRepository drinkRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Meal meal;
+    private Drink drink;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            meal = mealRepository.save(new Meal("Enchiladas", null, null, null,
+                    new BigDecimal("95.00"), MealType.VEGETARIAN));
+            drink = drinkRepository.save(new Drink("Horchata", null, new BigDecimal("30.00"), DrinkType.SODA));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM OrderMeal").executeUpdate();
+            entityManager.createQuery("DELETE FROM OrderDrink").executeUpdate();
+            entityManager.createQuery("DELETE FROM Order").executeUpdate();
+            mealRepository.deleteAll();
+            drinkRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void ordersWithLinesAreInsertedInJdbcBatches() {
+        assertThat(batchSize).isEqualTo(ALLOCATION_SIZE);
+
+        long started = System.nanoTime();
+        insertOrders(ORDERS, batchSize);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        long statements = statistics.getPrepareStatementCount();
+        // orders, order_meals y order_drinks: un lote por cada 50 filas y una llamada a la
+        // secuencia por bloque de 50 ids (el optimizador pooled pide uno más al arrancar)
+        long blocks = ORDERS / ALLOCATION_SIZE;
+        long expected = 3 * blocks + 3 * (blocks + 1);
+        logger.info("{} orders with 2 lines each: {} statements, {} entity inserts, {} ms",
+                ORDERS, statements, statistics.getEntityInsertCount(), elapsedMs);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3L * ORDERS);
+        assertThat(statements).isLessThanOrEqualTo(expected);
+        assertThat(orderRepository.count()).isEqualTo(ORDERS);
+    }
+
+    @Test
+    void withoutBatchingEveryRowIsItsOwnStatement() {
+        int orders = ORDERS / 10;
+
+        long started = System.nanoTime();
+        insertOrders(orders, 1);
+        long unbatchedMs = (System.nanoTime() - started) / 1_000_000;
+        long unbatched = statistics.getPrepareStatementCount();
+
+        started = System.nanoTime();
+        insertOrders(orders, batchSize);
+        long batchedMs = (System.nanoTime() - started) / 1_000_000;
+        long batched = statistics.getPrepareStatementCount();
+
+        logger.info("{} orders with 2 lines each: batched {} statements / {} ms, unbatched {} statements / {} ms",
+                orders, batched, batchedMs, unbatched, unbatchedMs);
+        assertThat(unbatched).isGreaterThanOrEqualTo(3L * orders);
+        assertThat(batched).isLessThan(unbatched / 10);
+    }
+
+    // Persiste 'orders' órdenes con un platillo y una bebida cada una, en una sola
+    // transacción y con el tamaño de lote JDBC indicado para la sesión
+    private void insertOrders(int orders, int jdbcBatchSize) {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Meal mealRef = entityManager.getReference(Meal.class, meal.getId());
+            Drink drinkRef = entityManager.getReference(Drink.class, drink.getId());
+            for (int i = 0; i < orders; i++) {
+                Order order = new Order(null, new BigDecimal("125.00"), OrderType.DINE_IN);
+                order.setEmployeeId("E100");
+                order.getOrderMeals().add(new OrderMeal(order, mealRef, 1));
+                order.getOrderDrinks().add(new OrderDrink(order, drinkRef, 1));
+                entityManager.persist(order);
+                // Vacía el contexto por bloque para que la memoria no crezca con la carga
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package restaurante.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de autenticar un request con JWT, como lo hace {@link AuthTokenFilter}:
+ *
+ * - {@code doubleParse}: el camino anterior; la clave HMAC se rearma desde
+ *   jwt.secret y el token se verifica dos veces (validar y luego leer el email).
+ * - {@code singleParse}: clave precalculada y una sola verificación por request.
+ * - {@code cachedParse}: {@link JwtUtils#parseAndValidate}, que reconoce el token ya
+ *   verificado por su digest.
+ *
+ * No corre con {@code mvn test} (no termina en Test). Para ejecutarlo:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) restaurante.backend.security.JwtUtilsBenchmark
+ * </pre>
+ * Referencia (4 hilos, JDK 17): doubleParse ~2500 us/op, singleParse ~26 us/op,
+ * cachedParse ~2 us/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "clave-de-benchmark-de-al-menos-256-bits-para-hs256";
+
+    private JwtUtils jwtUtils;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxEntries", 10_000);
+        jwtUtils.init();
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+        token = jwtUtils.generateJwtToken("cliente@test.local", "CUSTOMER");
+    }
+
+    @Benchmark
+    public String doubleParse() {
+        if (parseWithFreshKey(token) == null) {
+            return null;
+        }
+        return parseWithFreshKey(token).getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedParse() {
+        JwtUtils.VerifiedToken verified = jwtUtils.parseAndValidate(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+
+    private static Claims parseWithFreshKey(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package restaurante.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        assertThat(readAll("a,b,c\n1,2,3\n")).containsExactly(List.of("a", "b", "c"), List.of("1", "2", "3"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() throws IOException {
+        assertThat(readAll("\"Chile, seco\",2\n")).containsExactly(List.of("Chile, seco", "2"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() throws IOException {
+        assertThat(readAll("\"Salsa \"\"casera\"\"\",\"\"\n")).containsExactly(List.of("Salsa \"casera\"", ""));
+    }
+
+    @Test
+    void keepsNewlinesInsideQuotesAndTracksLineNumbers() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("name,note\nQueso,\"línea 1\nlínea 2\"\nPan,x\n"));
+
+        reader.next();
+        assertThat(reader.next()).containsExactly("Queso", "línea 1\nlínea 2");
+        assertThat(reader.getRecordLineNumber()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("Pan", "x");
+        assertThat(reader.getRecordLineNumber()).isEqualTo(4);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void acceptsCrlfAndSkipsBlankLines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\r\n\r\n1,\"2\"\r\n"));
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.next()).containsExactly("1", "2");
+        assertThat(reader.getRecordLineNumber()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void lastRecordWithoutTrailingNewline() throws IOException {
+        assertThat(readAll("a,b\n1,")).containsExactly(List.of("a", "b"), List.of("1", ""));
+    }
+
+    @Test
+    void returnsRaggedRowsAsRead() throws IOException {
+        // El lector no valida el número de campos; eso lo hace la importación contra el encabezado
+        assertThat(readAll("a,b,c\n1\n1,2,3,4\n"))
+                .containsExactly(List.of("a", "b", "c"), List.of("1"), List.of("1", "2", "3", "4"));
+    }
+
+    @Test
+    void leavesBomInFirstField() throws IOException {
+        // Lo quita InventoryImportService al leer el encabezado
+        assertThat(readAll("\uFEFFname,quantity\n")).containsExactly(List.of("\uFEFFname", "quantity"));
+    }
+
+    @Test
+    void rejectsUnclosedQuote() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n\"abierto,1\n"));
+
+        assertThatThrownBy(() -> {
+            reader.next();
+            reader.next();
+        }).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("línea 2");
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,25 @@
+package restaurante.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportServiceTest {
+
+    @Test
+    void prefixesTextThatSpreadsheetsReadAsFormula() {
+        assertThat(ExportService.neutralizeFormula("=HYPERLINK(\"http://x\")")).isEqualTo("'=HYPERLINK(\"http://x\")");
+        assertThat(ExportService.neutralizeFormula("+52 55 1234")).isEqualTo("'+52 55 1234");
+        assertThat(ExportService.neutralizeFormula("-caducado")).isEqualTo("'-caducado");
+        assertThat(ExportService.neutralizeFormula("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+        assertThat(ExportService.neutralizeFormula("\tcmd")).isEqualTo("'\tcmd");
+        assertThat(ExportService.neutralizeFormula("\rcmd")).isEqualTo("'\rcmd");
+    }
+
+    @Test
+    void leavesOrdinaryTextAlone() {
+        assertThat(ExportService.neutralizeFormula("Ana Pérez")).isEqualTo("Ana Pérez");
+        assertThat(ExportService.neutralizeFormula("Queso = caducado")).isEqualTo("Queso = caducado");
+        assertThat(ExportService.neutralizeFormula("")).isEmpty();
+    }
+}
@@ -0,0 +1,234 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import restaurante.backend.dto.InventoryImportReportDTO;
+import restaurante.backend.dto.InventoryImportReportDTO.Action;
+import restaurante.backend.dto.InventoryImportReportDTO.LineResult;
+import restaurante.backend.dto.InventoryImportReportDTO.Status;
+import restaurante.backend.entity.InventoryMovementType;
+import restaurante.backend.entity.SearchKind;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Escritura de la importación sobre H2 en modo PostgreSQL: el UPDATE condicional y el
+ * INSERT en lote, la búsqueda de los ids nuevos por nombre y la reversión completa
+ * cuando el inventario cambia entre la validación y la escritura.
+ *
+ * El cambio concurrente se simula justo después de la consulta de {@code resolve}, que
+ * corre fuera de la transacción de la importación. El ledger, las alertas y el índice
+ * de búsqueda quedan fuera (mocks).
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InventoryImportService.class, ObjectMapper.class, SimpleMeterRegistry.class})
+// Sin transacción de prueba: la importación confirma o revierte la suya
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryImportApplyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryImportApplyTest.class);
+
+    private static final String HEADER = "id,name,quantity,costPerUnit,supplier,unit,category,minimumStock,description\n";
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private InventoryLedgerService inventoryLedgerService;
+
+    @MockitoBean
+    private StockAlertService stockAlertService;
+
+    @MockitoBean
+    private SearchIndexService searchIndexService;
+
+    private Long tomateId;
+    private Long cebollaId;
+
+    @BeforeEach
+    void setUp() {
+        tomateId = insertItem("Tomate", "10.00");
+        cebollaId = insertItem("Cebolla", "4.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventory_items");
+    }
+
+    @Test
+    void updatesExistingItemsIncludingOptionalFields() {
+        InventoryImportReportDTO report = csv(HEADER
+                + tomateId + ",,2.5,18.50,Huerta Sur,caja,FRUITS,3,Tomate saladet\n"
+                + ",cebolla,-1,,,,,,\n");
+
+        assertThat(report.isApplied()).isTrue();
+        assertThat(report.getUpdatedItems()).isEqualTo(2);
+        Map<String, Object> tomate = item(tomateId);
+        assertThat((BigDecimal) tomate.get("current_stock")).isEqualByComparingTo("12.5");
+        assertThat((BigDecimal) tomate.get("cost_per_unit")).isEqualByComparingTo("18.50");
+        assertThat(tomate.get("supplier")).isEqualTo("Huerta Sur");
+        assertThat(tomate.get("unit")).isEqualTo("caja");
+        assertThat(tomate.get("category")).isEqualTo("FRUITS");
+        assertThat((BigDecimal) tomate.get("minimum_stock")).isEqualByComparingTo("3");
+        assertThat(tomate.get("description")).isEqualTo("Tomate saladet");
+        // Los campos vacíos conservan el valor anterior
+        Map<String, Object> cebolla = item(cebollaId);
+        assertThat((BigDecimal) cebolla.get("current_stock")).isEqualByComparingTo("3");
+        assertThat(cebolla.get("unit")).isEqualTo("kg");
+        assertThat(cebolla.get("category")).isEqualTo("VEGETABLES");
+        assertThat((BigDecimal) cebolla.get("minimum_stock")).isEqualByComparingTo("1");
+        assertThat(cebolla.get("description")).isEqualTo("Original");
+
+        assertThat(report.getLines()).extracting(LineResult::getStockAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("12.5"), new BigDecimal("3"));
+        verify(inventoryLedgerService).record(eq(InventoryMovementType.PURCHASE),
+                eq(Map.of(tomateId, new BigDecimal("2.5"))), isNull(), any());
+        verify(searchIndexService).index(SearchKind.INVENTORY, tomateId, "Tomate", "Tomate saladet");
+    }
+
+    @Test
+    void createsNewItemsAndReportsTheirIds() {
+        InventoryImportReportDTO report = csv(HEADER
+                + ",Cilantro,3,9.00,,manojo,Verduras,1,\n"
+                + ",Ajo,1.5,,,kg,SPICES,,Ajo morado\n");
+
+        assertThat(report.isApplied()).isTrue();
+        assertThat(report.getCreatedItems()).isEqualTo(2);
+        for (LineResult line : report.getLines()) {
+            assertThat(line.getAction()).isEqualTo(Action.CREATE);
+            Map<String, Object> created = item(line.getItemId());
+            assertThat(created.get("name")).isEqualTo(line.getName());
+            assertThat((BigDecimal) created.get("current_stock")).isEqualByComparingTo(line.getQuantity());
+        }
+        Map<String, Object> ajo = item(report.getLines().get(1).getItemId());
+        assertThat((BigDecimal) ajo.get("minimum_stock")).isEqualByComparingTo("0");
+        assertThat(ajo.get("category")).isEqualTo("SPICES");
+        verify(searchIndexService).index(SearchKind.INVENTORY, report.getLines().get(1).getItemId(), "Ajo", "Ajo morado");
+    }
+
+    @Test
+    void stockChangedAfterValidationRollsBackEveryLine() {
+        afterResolve(() -> jdbcTemplate.update("UPDATE inventory_items SET current_stock = 1 WHERE id = ?", tomateId));
+
+        InventoryImportReportDTO report = csv(HEADER
+                + tomateId + ",,-5,,,,,,\n"
+                + cebollaId + ",,2,,,,,,\n"
+                + ",Cilantro,3,,,manojo,VEGETABLES,,\n");
+
+        assertThat(report.isApplied()).isFalse();
+        assertThat(report.getErrorLines()).isEqualTo(1);
+        assertThat(report.getLines().get(0).getStatus()).isEqualTo(Status.ERROR);
+        assertThat(report.getLines().get(0).getErrors()).singleElement().asString().startsWith("El item cambió");
+        assertThat((BigDecimal) item(tomateId).get("current_stock")).isEqualByComparingTo("1");
+        assertThat((BigDecimal) item(cebollaId).get("current_stock")).isEqualByComparingTo("4");
+        assertThat(countByName("Cilantro")).isZero();
+        verifyNoInteractions(inventoryLedgerService, stockAlertService);
+    }
+
+    @Test
+    void nameCreatedAfterValidationRollsBackEveryLine() {
+        afterResolve(() -> insertItem("Cilantro", "7.00"));
+
+        InventoryImportReportDTO report = csv(HEADER
+                + cebollaId + ",,2,,,,,,\n"
+                + ",Cilantro,3,,,manojo,VEGETABLES,,\n");
+
+        assertThat(report.isApplied()).isFalse();
+        assertThat(report.getLines().get(1).getErrors()).singleElement().asString().startsWith("Otro proceso creó");
+        assertThat(report.getLines().get(0).getStatus()).isEqualTo(Status.VALID);
+        assertThat((BigDecimal) item(cebollaId).get("current_stock")).isEqualByComparingTo("4");
+        assertThat(countByName("Cilantro")).isEqualTo(1);
+        verifyNoInteractions(inventoryLedgerService);
+    }
+
+    @Test
+    void appliesFiveThousandLinesEndToEnd() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 2500; i++) {
+            Long id = insertItem("Existente " + i, "100.00");
+            csv.append(id).append(",,-1.25,12.50,\"Proveedor, S.A.\",,,,\n");
+        }
+        for (int i = 0; i < 2500; i++) {
+            csv.append(",Nuevo ").append(i).append(",3,9.90,,kg,OTHER,1,\n");
+        }
+        String content = csv.toString();
+
+        long started = System.nanoTime();
+        InventoryImportReportDTO report = csv(content);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        logger.info("Imported 5000 lines (2500 updates, 2500 new items) in {} ms", elapsedMs);
+        assertThat(report.getErrorLines()).isZero();
+        assertThat(report.isApplied()).isTrue();
+        assertThat(report.getUpdatedItems()).isEqualTo(2500);
+        assertThat(report.getCreatedItems()).isEqualTo(2500);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(current_stock) FROM inventory_items WHERE name LIKE 'Existente %'",
+                BigDecimal.class)).isEqualByComparingTo(new BigDecimal("246875.00"));
+        assertThat(countByName("Nuevo 2499")).isEqualTo(1);
+    }
+
+    private InventoryImportReportDTO csv(String content) {
+        return inventoryImportService.importCsv(new StringReader(content), false);
+    }
+
+    // Corre 'change' una vez, después de la primera consulta con callback (la de resolve)
+    private void afterResolve(Runnable change) {
+        boolean[] done = {false};
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            if (!done[0]) {
+                done[0] = true;
+                change.run();
+            }
+            return result;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private Long insertItem(String name, String stock) {
+        jdbcTemplate.update("INSERT INTO inventory_items (name, description, current_stock, minimum_stock, unit, "
+                + "category, active) VALUES (?, 'Original', ?, 1, 'kg', 'VEGETABLES', true)", name, new BigDecimal(stock));
+        return jdbcTemplate.queryForObject("SELECT id FROM inventory_items WHERE name = ?", Long.class, name);
+    }
+
+    private Map<String, Object> item(Long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM inventory_items WHERE id = ?", id);
+    }
+
+    private int countByName(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_items WHERE name = ?", Integer.class, name);
+    }
+}
@@ -0,0 +1,246 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import restaurante.backend.dto.InventoryImportReportDTO;
+import restaurante.backend.dto.InventoryImportReportDTO.Action;
+import restaurante.backend.dto.InventoryImportReportDTO.LineResult;
+import restaurante.backend.dto.InventoryImportReportDTO.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Validación de la importación (lectura, {@code parse} y {@code resolve}) con la consulta
+ * de items simulada: no hace falta base de datos.
+ *
+ * Aquí solo se comprueba que la lectura y la validación de 5.000 líneas quedan muy por
+ * debajo del presupuesto de un segundo; la escritura en lote y la medición de punta a
+ * punta están en {@link InventoryImportApplyTest}, sobre H2.
+ */
+class InventoryImportServiceTest {
+
+    private static final String HEADER = "name,quantity,unit,category\n";
+
+    private InventoryImportService service;
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private final List<Row> existing = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        // RESOLVE_SQL: devuelve los items de 'existing'. Un proxy y no un mock de Mockito,
+        // para que la prueba de tiempo mida la importación y no los stubs
+        int[] cursor = {0};
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Row row = existing.get(cursor[0]);
+                    return switch ((String) args[0]) {
+                        case "id" -> row.id();
+                        case "name" -> row.name();
+                        case "current_stock" -> row.stock();
+                        case "active" -> row.active();
+                        default -> throw new IllegalArgumentException(method.getName() + " " + args[0]);
+                    };
+                });
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (cursor[0] = 0; cursor[0] < existing.size(); cursor[0]++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        service = new InventoryImportService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "inventoryLedgerService", mock(InventoryLedgerService.class));
+        ReflectionTestUtils.setField(service, "stockAlertService", mock(StockAlertService.class));
+        ReflectionTestUtils.setField(service, "searchIndexService", mock(SearchIndexService.class));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxLines", 10000);
+        service.init();
+    }
+
+    @Test
+    void validDryRunReportsWithoutWriting() {
+        existing.add(new Row(7L, "Tomate", "10.00", true));
+
+        InventoryImportReportDTO report = csv(HEADER + "tomate,2.5,,\nCilantro,1,manojo,Verduras\n", true);
+
+        assertThat(report.getError()).isNull();
+        assertThat(report.getErrorLines()).isZero();
+        assertThat(report.isApplied()).isFalse();
+        LineResult update = report.getLines().get(0);
+        assertThat(update.getStatus()).isEqualTo(Status.VALID);
+        assertThat(update.getAction()).isEqualTo(Action.UPDATE);
+        assertThat(update.getItemId()).isEqualTo(7L);
+        assertThat(update.getName()).isEqualTo("Tomate");
+        assertThat(update.getStockAfter()).isEqualByComparingTo("12.5");
+        LineResult create = report.getLines().get(1);
+        assertThat(create.getAction()).isEqualTo(Action.CREATE);
+        assertThat(create.getStatus()).isEqualTo(Status.VALID);
+        assertNothingWritten();
+    }
+
+    @Test
+    void duplicateItemsAreRejected() {
+        existing.add(new Row(7L, "Tomate", "10.00", true));
+
+        InventoryImportReportDTO report = csv("id,name,quantity,unit,category\n"
+                + ",Tomate,1,,\n7,,2,,\n,Cebolla,1,kg,VEGETABLES\n,CEBOLLA,1,kg,VEGETABLES\n", false);
+
+        assertThat(report.getErrorLines()).isEqualTo(2);
+        assertThat(report.getLines().get(1).getErrors()).containsExactly("Item repetido: ya aparece en la línea 2");
+        assertThat(report.getLines().get(3).getErrors()).containsExactly("Item repetido: ya aparece en la línea 4");
+        assertThat(report.getLines().get(0).getStatus()).isEqualTo(Status.VALID);
+        assertNothingWritten();
+    }
+
+    @Test
+    void negativeResultingStockIsRejected() {
+        existing.add(new Row(7L, "Tomate", "5.00", true));
+
+        InventoryImportReportDTO report = csv(HEADER + "Tomate,-6,,\n", false);
+
+        LineResult line = report.getLines().get(0);
+        assertThat(line.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(line.getErrors()).singleElement().asString().startsWith("El stock quedaría negativo");
+        assertNothingWritten();
+    }
+
+    @Test
+    void newItemNeedsUnitCategoryAndNonNegativeQuantity() {
+        InventoryImportReportDTO report = csv(HEADER
+                + "Sin unidad,1,,VEGETABLES\nSin categoría,1,kg,\nCategoría mala,1,kg,Plantas\nNegativo,-1,kg,DAIRY\n", true);
+
+        assertThat(report.getLines()).allSatisfy(line -> assertThat(line.getStatus()).isEqualTo(Status.ERROR));
+        assertThat(report.getLines().get(0).getErrors()).containsExactly("Item nuevo: falta unit");
+        assertThat(report.getLines().get(1).getErrors()).containsExactly("Item nuevo: falta category");
+        assertThat(report.getLines().get(2).getErrors()).containsExactly("category desconocida: Plantas");
+        assertThat(report.getLines().get(3).getErrors()).containsExactly("Item nuevo: quantity no puede ser negativa");
+    }
+
+    @Test
+    void fieldErrorsAreReportedPerLine() {
+        existing.add(new Row(7L, "Tomate", "5.00", true));
+        existing.add(new Row(8L, "Epazote", "1.00", false));
+
+        InventoryImportReportDTO report = csv("id,name,quantity,costPerUnit,expirationDate\n"
+                + "7,Tomate,1.234,-1,mañana\n"
+                + "7,Cebolla,1,,\n"
+                + "99,,1,,\n"
+                + ",Epazote,1,,\n"
+                + "x,,,,\n", true);
+
+        assertThat(report.getLines().get(0).getErrors()).hasSize(3);
+        assertThat(report.getLines().get(1).getErrors()).containsExactly("El id 7 corresponde a 'Tomate'",
+                "Item repetido: ya aparece en la línea 2");
+        assertThat(report.getLines().get(2).getErrors()).containsExactly("No existe el item con id 99");
+        assertThat(report.getLines().get(3).getErrors()).containsExactly("El item 'Epazote' está inactivo");
+        assertThat(report.getLines().get(4).getErrors()).contains("id inválido: x", "Falta quantity");
+        assertThat(report.getErrorLines()).isEqualTo(5);
+    }
+
+    @Test
+    void bomHeaderAndRaggedRows() {
+        existing.add(new Row(7L, "Tomate", "5.00", true));
+
+        InventoryImportReportDTO report = csv("\uFEFFName,Quantity\r\nTomate,1,extra\r\nTomate\r\n", true);
+
+        assertThat(report.getError()).isNull();
+        assertThat(report.getLines().get(0).getErrors()).contains("Tiene 3 campos y el encabezado 2");
+        assertThat(report.getLines().get(0).getLine()).isEqualTo(2);
+        assertThat(report.getLines().get(1).getErrors()).contains("Falta quantity");
+        assertThat(report.getLines().get(1).getLine()).isEqualTo(3);
+    }
+
+    @Test
+    void fileLevelProblemsSetError() {
+        assertThat(csv("", true).getError()).isEqualTo("El archivo está vacío");
+        assertThat(csv("name,precio\n", true).getError()).isEqualTo("Columna desconocida: precio");
+        assertThat(csv("name,unit\n", true).getError()).isEqualTo("El encabezado debe incluir quantity y id o name");
+        assertThat(csv("name,quantity\n\"abierto,1\n", true).getError()).contains("Comillas sin cerrar");
+
+        ReflectionTestUtils.setField(service, "maxLines", 1);
+        assertThat(csv("name,quantity\nA,1\nB,1\n", true).getError()).contains("máximo de 1 líneas");
+        assertNothingWritten();
+    }
+
+    @Test
+    void jsonLinesUseTheSameValidation() {
+        existing.add(new Row(7L, "Tomate", "5.00", true));
+
+        InventoryImportReportDTO report = json("[{\"id\": 7, \"quantity\": 2.5, \"supplier\": null},"
+                + "{\"name\": \"Ajo\", \"quantity\": 1, \"unit\": \"kg\", \"category\": \"Especias\", \"color\": \"blanco\"}]");
+
+        assertThat(report.getLines().get(0).getStatus()).isEqualTo(Status.VALID);
+        assertThat(report.getLines().get(0).getStockAfter()).isEqualByComparingTo("7.5");
+        assertThat(report.getLines().get(1).getLine()).isEqualTo(2);
+        assertThat(report.getLines().get(1).getErrors()).containsExactly("Propiedad desconocida: color");
+        assertThat(json("{\"id\": 7}").getError()).isEqualTo("Se esperaba un arreglo JSON de líneas");
+        assertThat(json("[1]").getError()).isEqualTo("Cada línea debe ser un objeto JSON");
+    }
+
+    @Test
+    void validatesFiveThousandLinesWellUnderOneSecond() {
+        StringBuilder csv = new StringBuilder("id,quantity,costPerUnit,expirationDate,supplier\n");
+        for (long id = 1; id <= 5000; id++) {
+            existing.add(new Row(id, "Item " + id, "100.00", true));
+            csv.append(id).append(",-1.25,12.50,2030-01-31,\"Proveedor, S.A.\"\n");
+        }
+
+        InventoryImportReportDTO report = assertTimeout(Duration.ofSeconds(1), () -> csv(csv.toString(), true));
+
+        assertThat(report.getTotalLines()).isEqualTo(5000);
+        assertThat(report.getErrorLines()).isZero();
+    }
+
+    private InventoryImportReportDTO csv(String content, boolean dryRun) {
+        return service.importCsv(new StringReader(content), dryRun);
+    }
+
+    private InventoryImportReportDTO json(String content) {
+        return service.importJson(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true);
+    }
+
+    private void assertNothingWritten() {
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(transactionManager);
+    }
+
+    private record Row(Long id, String name, BigDecimal stock, boolean active) {
+        Row(Long id, String name, String stock, boolean active) {
+            this(id, name, new BigDecimal(stock), active);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package restaurante.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NgramIndexTest {
+
+    private static final double MIN_SIMILARITY = 0.4;
+
+    @Test
+    void normalizeDropsAccentsCaseAndPunctuation() {
+        assertThat(NgramIndex.normalize("  Jalapeño  ÁCIDO, (picante)! ")).isEqualTo("jalapeno acido picante");
+        assertThat(NgramIndex.normalize("Café-Crème")).isEqualTo("cafe creme");
+        assertThat(NgramIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void accentedQueryFindsPlainNameAndViceVersa() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Limón", null);
+        index.put(2L, "Cafe", null);
+
+        assertThat(ids(index.search("limon", MIN_SIMILARITY))).containsExactly(1L);
+        assertThat(ids(index.search("CAFÉ", MIN_SIMILARITY))).containsExactly(2L);
+    }
+
+    @Test
+    void exactSubstringRanksAboveFuzzyMatches() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Tomatillo verde", null);
+        index.put(2L, "Tomate", null);
+        index.put(3L, "Salsa", "con tomate");
+
+        List<NgramIndex.Hit> hits = index.search("tomate", MIN_SIMILARITY);
+
+        // Nombre que contiene la consulta, luego descripción que la contiene, luego parecido
+        assertThat(ids(hits)).containsExactly(2L, 3L, 1L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+    }
+
+    @Test
+    void oneLetterTypoStillMatchesAtMinSimilarity() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Aguacate", null);
+        index.put(2L, "Cebolla", null);
+
+        assertThat(ids(index.search("aguacete", MIN_SIMILARITY))).containsExactly(1L);
+        assertThat(ids(index.search("cebola", MIN_SIMILARITY))).containsExactly(2L);
+    }
+
+    @Test
+    void unrelatedQueryDoesNotMatch() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Aguacate", null);
+
+        assertThat(index.search("pimienta", MIN_SIMILARITY)).isEmpty();
+        assertThat(index.search("  ", MIN_SIMILARITY)).isEmpty();
+    }
+
+    @Test
+    void queriesShorterThanThreeCharactersUseSubstringMatch() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Ajo", null);
+        index.put(2L, "Paja", null);
+        index.put(3L, "Sal", "grano fino");
+
+        assertThat(ids(index.search("aj", MIN_SIMILARITY))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("fi", MIN_SIMILARITY))).containsExactly(3L);
+        assertThat(index.search("zz", MIN_SIMILARITY)).isEmpty();
+    }
+
+    @Test
+    void putAgainReplacesOldTrigrams() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Zanahoria", null);
+        index.put(1L, "Pepino", null);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("zanahoria", MIN_SIMILARITY)).isEmpty();
+        assertThat(ids(index.search("pepino", MIN_SIMILARITY))).containsExactly(1L);
+        assertThat(index.search("pepino", MIN_SIMILARITY).get(0).getName()).isEqualTo("Pepino");
+    }
+
+    @Test
+    void removeDropsDocument() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "Pepino", null);
+        index.remove(1L);
+        index.remove(2L);
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search("pepino", MIN_SIMILARITY)).isEmpty();
+    }
+
+    private static List<Long> ids(List<NgramIndex.Hit> hits) {
+        return hits.stream().map(NgramIndex.Hit::getId).toList();
+    }
+}
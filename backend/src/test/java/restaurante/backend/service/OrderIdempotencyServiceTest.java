@@ -0,0 +1,107 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import restaurante.backend.dto.OrderDTO;
+import restaurante.backend.dto.OrderRequest;
+import restaurante.backend.entity.OrderType;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OrderIdempotencyServiceTest {
+
+    private static final int MAX_ENTRIES = 10;
+
+    private OrderIdempotencyService service;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        // Sin usuario autenticado todas las claves quedan bajo "anonymous"
+        service = new OrderIdempotencyService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "maxEntries", MAX_ENTRIES);
+        ReflectionTestUtils.setField(service, "inFlightWaitMs", 1000L);
+        service.init();
+    }
+
+    @Test
+    void replayWithSameBodyReturnsStoredOrder() {
+        OrderDTO first = service.execute("k1", request("100.00"), this::createOrder);
+        OrderDTO replay = service.execute("k1", request("100.00"), this::createOrder);
+
+        assertThat(replay).isSameAs(first);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void replayWithDifferentBodyIsRejected() {
+        service.execute("k1", request("100.00"), this::createOrder);
+
+        assertThatThrownBy(() -> service.execute("k1", request("250.00"), this::createOrder))
+                .isInstanceOf(OrderIdempotencyService.IdempotencyKeyMismatchException.class);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void rejectsOverLongKey() {
+        String key = "x".repeat(OrderIdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThatThrownBy(() -> service.execute(key, request("100.00"), this::createOrder))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(created).hasValue(0);
+    }
+
+    @Test
+    void fullStoreEvictsOldestCompletedKeys() {
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            service.execute("k" + i, request("100.00"), this::createOrder);
+        }
+
+        service.execute("nueva", request("100.00"), this::createOrder);
+
+        assertThat(entries()).isLessThanOrEqualTo(MAX_ENTRIES);
+        // La más antigua se descartó y vuelve a crear; la nueva sigue guardada
+        service.execute("k0", request("100.00"), this::createOrder);
+        service.execute("nueva", request("100.00"), this::createOrder);
+        assertThat(created).hasValue(MAX_ENTRIES + 2);
+    }
+
+    @Test
+    void failedOrderReleasesKey() {
+        assertThatThrownBy(() -> service.execute("k1", request("100.00"), () -> {
+            throw new IllegalStateException("sin stock");
+        })).isInstanceOf(IllegalStateException.class);
+
+        service.execute("k1", request("100.00"), this::createOrder);
+
+        assertThat(created).hasValue(1);
+    }
+
+    private OrderDTO createOrder() {
+        created.incrementAndGet();
+        return mock(OrderDTO.class);
+    }
+
+    private int entries() {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(service, "entries")).size();
+    }
+
+    private static OrderRequest request(String total) {
+        OrderRequest request = new OrderRequest();
+        request.setTotalCost(new BigDecimal(total));
+        request.setOrderType(OrderType.TAKEAWAY);
+        return request;
+    }
+}
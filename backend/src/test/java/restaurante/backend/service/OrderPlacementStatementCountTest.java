@@ -0,0 +1,271 @@
+package restaurante.backend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.OrderRequest;
+import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.DrinkType;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.MealType;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+import restaurante.backend.entity.OrderPromotion;
+import restaurante.backend.entity.OrderType;
+import restaurante.backend.entity.Promotion;
+import restaurante.backend.repository.DrinkRepository;
+import restaurante.backend.repository.MealRepository;
+import restaurante.backend.repository.OrderRepository;
+import restaurante.backend.repository.PromotionRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sentencias SQL de {@link OrderService#createOrder(OrderRequest, String)} contra el
+ * flujo anterior (guardar la orden, resolver cada línea por separado y volver a
+ * guardarla con sus líneas, cada paso en su propia transacción).
+ *
+ * Con una sola transacción y un solo flush, las líneas salen en lotes JDBC: la
+ * cantidad de sentencias no crece con las líneas de la orden. Se cuenta con las
+ * estadísticas de Hibernate sobre H2 en modo PostgreSQL; la reserva de inventario,
+ * el outbox y el feed quedan fuera (mocks).
+ *
+ * También se registra el p50/p99 de ambos flujos como referencia, sin afirmarlo:
+ * depende de la máquina y H2 corre en el mismo proceso, sin el viaje de red por
+ * sentencia que en PostgreSQL es justamente lo que ahorra el flush único.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderService.class, MenuService.class})
+// Sin transacción de prueba: cada flujo abre las suyas, como en un request real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderPlacementStatementCountTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPlacementStatementCountTest.class);
+
+    private static final int WARMUP_RUNS = 20;
+    private static final int TIMED_RUNS = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DrinkRepository drinkRepository;
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockitoBean
+    private OrderFeedService orderFeedService;
+
+    @MockitoBean
+    private TodayMetricsService todayMetricsService;
+
+    @MockitoBean
+    private MenuSnapshotService menuSnapshotService;
+
+    @MockitoBean
+    private SearchIndexService searchIndexService;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private List<Long> mealIds;
+    private List<Long> drinkIds;
+    private List<Long> promotionIds;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        seedCatalog(20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.deleteAll();
+            promotionRepository.deleteAll();
+            mealRepository.deleteAll();
+            drinkRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void singleFlushStatementsDoNotGrowWithLines() {
+        long withOneLine = statementsFor(this::placeOrder, request(1));
+        long withTwentyLines = statementsFor(this::placeOrder, request(20));
+
+        // Margen para una recarga de las secuencias pooled (una por tabla cada 50 ids)
+        assertThat(withTwentyLines).isLessThanOrEqualTo(withOneLine + 4);
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void singleFlushUsesFewerStatementsThanSaveThenResave() {
+        OrderRequest request = request(20);
+        long singleFlush = statementsFor(this::placeOrder, request);
+        long saveThenResave = statementsFor(this::saveThenResave, request);
+
+        logger.info("Order with 60 lines: single flush {} statements, save-then-resave {} statements",
+                singleFlush, saveThenResave);
+        // El flujo anterior hace al menos un SELECT por línea al resolver el catálogo
+        assertThat(saveThenResave).isGreaterThan(60);
+        assertThat(singleFlush).isLessThan(saveThenResave / 4);
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void reportsLatencyOfBothFlows() {
+        OrderRequest request = request(5);
+        // Calentamiento: JIT y caché de sentencias de Hibernate
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            placeOrder(request);
+            saveThenResave(request);
+        }
+
+        long[] singleFlush = timed(this::placeOrder, request);
+        long[] saveThenResave = timed(this::saveThenResave, request);
+
+        logger.info("Order with 15 lines over {} runs: single flush p50 {} us / p99 {} us, "
+                        + "save-then-resave p50 {} us / p99 {} us", TIMED_RUNS,
+                percentile(singleFlush, 50), percentile(singleFlush, 99),
+                percentile(saveThenResave, 50), percentile(saveThenResave, 99));
+        assertThat(orderRepository.count()).isEqualTo(2L * (WARMUP_RUNS + TIMED_RUNS));
+    }
+
+    private void placeOrder(OrderRequest request) {
+        orderService.createOrder(request, "mesero@test.local");
+    }
+
+    // El flujo anterior: guardar la orden sola, resolver cada línea con su propia consulta,
+    // y guardar de nuevo la orden (merge) con sus líneas
+    private void saveThenResave(OrderRequest request) {
+        Order order = newOrder(request);
+        Order savedOrder = orderRepository.save(order);
+        for (OrderRequest.OrderItemRequest line : request.getMeals()) {
+            Meal meal = menuService.getMealById(line.getItemId());
+            savedOrder.getOrderMeals().add(new OrderMeal(savedOrder, meal, line.getQuantity()));
+        }
+        for (OrderRequest.OrderItemRequest line : request.getDrinks()) {
+            Drink drink = menuService.getDrinkById(line.getItemId());
+            savedOrder.getOrderDrinks().add(new OrderDrink(savedOrder, drink, line.getQuantity()));
+        }
+        for (OrderRequest.OrderItemRequest line : request.getPromotions()) {
+            Promotion promotion = menuService.getPromotionById(line.getItemId());
+            savedOrder.getOrderPromotions().add(
+                    new OrderPromotion(savedOrder, promotion, line.getQuantity(), promotion.getComboPrice()));
+        }
+        orderRepository.save(savedOrder);
+    }
+
+    private long statementsFor(Consumer<OrderRequest> flow, OrderRequest request) {
+        statistics.clear();
+        flow.accept(request);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long[] timed(Consumer<OrderRequest> flow, OrderRequest request) {
+        long[] micros = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long started = System.nanoTime();
+            flow.accept(request);
+            micros[i] = (System.nanoTime() - started) / 1000;
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private Order newOrder(OrderRequest request) {
+        Order order = new Order(null, request.getTotalCost(), request.getOrderType());
+        order.setCustomerFirstName(request.getCustomerFirstName());
+        order.setEmployeeId(request.getEmployeeId());
+        return order;
+    }
+
+    // Orden de empleado (sin usuario ni email) con 'lines' platillos, bebidas y promociones
+    private OrderRequest request(int lines) {
+        OrderRequest request = new OrderRequest();
+        request.setTotalCost(new BigDecimal("500.00"));
+        request.setOrderType(OrderType.DINE_IN);
+        request.setCustomerFirstName("Mesa 4");
+        request.setEmployeeId("E100");
+        request.setMeals(lines(mealIds, lines));
+        request.setDrinks(lines(drinkIds, lines));
+        request.setPromotions(lines(promotionIds, lines));
+        return request;
+    }
+
+    private static List<OrderRequest.OrderItemRequest> lines(List<Long> ids, int lines) {
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(new OrderRequest.OrderItemRequest(ids.get(i), 1));
+        }
+        return items;
+    }
+
+    private void seedCatalog(int size) {
+        mealIds = new ArrayList<>();
+        drinkIds = new ArrayList<>();
+        promotionIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < size; i++) {
+                mealIds.add(mealRepository.save(new Meal("Platillo " + i, null, null, null,
+                        new BigDecimal("100.00"), MealType.VEGETARIAN)).getId());
+                drinkIds.add(drinkRepository.save(new Drink("Bebida " + i, null,
+                        new BigDecimal("30.00"), DrinkType.SODA)).getId());
+                Promotion promotion = new Promotion("Promo " + i, null, Promotion.PromotionType.COMBO);
+                promotion.setComboPrice(new BigDecimal("80.00"));
+                promotionIds.add(promotionRepository.save(promotion).getId());
+            }
+        });
+    }
+}
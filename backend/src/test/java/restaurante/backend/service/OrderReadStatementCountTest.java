@@ -0,0 +1,229 @@
+package restaurante.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.dto.OrderPageDTO;
+import restaurante.backend.dto.OrderSearchCriteria;
+import restaurante.backend.entity.Drink;
+import restaurante.backend.entity.DrinkType;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.MealType;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderDrink;
+import restaurante.backend.entity.OrderMeal;
+import restaurante.backend.entity.OrderPromotion;
+import restaurante.backend.entity.OrderType;
+import restaurante.backend.entity.Promotion;
+import restaurante.backend.entity.User;
+import restaurante.backend.repository.DrinkRepository;
+import restaurante.backend.repository.MealRepository;
+import restaurante.backend.repository.OrderRepository;
+import restaurante.backend.repository.PromotionRepository;
+import restaurante.backend.repository.UserRepository;
+import restaurante.backend.security.UserPrincipal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las lecturas de órdenes (/api/orders, /api/admin/orders y la página por keyset)
+ * deben emitir la misma cantidad de sentencias SQL sin importar cuántas líneas tenga
+ * cada orden: el usuario viene en el mismo SELECT y las líneas y sus platillos,
+ * bebidas y promociones se cargan por lotes. Se cuenta con las estadísticas de
+ * Hibernate sobre H2 en modo PostgreSQL, incluyendo la serialización del DTO.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderService.class)
+// Sin transacción de prueba: cada lectura abre la suya, como en un request real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderReadStatementCountTest {
+
+    private static final int ORDERS = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DrinkRepository drinkRepository;
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private MenuService menuService;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockitoBean
+    private OrderFeedService orderFeedService;
+
+    @MockitoBean
+    private TodayMetricsService todayMetricsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private int seeded;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        deleteAll();
+    }
+
+    @Test
+    void customerOrdersUseConstantStatements() throws Exception {
+        User small = seed(1);
+        long withOneLine = statementsFor(() -> {
+            signIn(small);
+            return orderService.getUserOrders();
+        });
+        User large = seed(20);
+        long withTwentyLines = statementsFor(() -> {
+            signIn(large);
+            return orderService.getUserOrders();
+        });
+
+        assertThat(orderService.getUserOrders()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getOrderMeals()).hasSize(20));
+        assertThat(withTwentyLines).isEqualTo(withOneLine);
+    }
+
+    @Test
+    void adminOrdersUseConstantStatements() throws Exception {
+        seed(1);
+        long withOneLine = statementsFor(orderService::getAllOrdersForAdmin);
+        deleteAll();
+        seed(20);
+        long withTwentyLines = statementsFor(orderService::getAllOrdersForAdmin);
+
+        assertThat(orderService.getAllOrdersForAdmin()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getOrderPromotions()).hasSize(20));
+        assertThat(withTwentyLines).isEqualTo(withOneLine);
+    }
+
+    @Test
+    void keysetPagesUseConstantStatements() throws Exception {
+        seed(1);
+        long firstWithOneLine = statementsFor(() -> firstPage());
+        long nextWithOneLine = statementsFor(() -> nextPage(firstPage()));
+        deleteAll();
+        seed(20);
+        long firstWithTwentyLines = statementsFor(() -> firstPage());
+        long nextWithTwentyLines = statementsFor(() -> nextPage(firstPage()));
+
+        assertThat(firstPage().getItems()).hasSize(2)
+                .allSatisfy(order -> assertThat(order.getOrderDrinks()).hasSize(20));
+        assertThat(firstWithTwentyLines).isEqualTo(firstWithOneLine);
+        assertThat(nextWithTwentyLines).isEqualTo(nextWithOneLine);
+    }
+
+    private OrderPageDTO firstPage() {
+        return orderService.getOrdersPage(new OrderSearchCriteria(), null, 2);
+    }
+
+    private OrderPageDTO nextPage(OrderPageDTO first) {
+        return orderService.getOrdersPage(new OrderSearchCriteria(), first.getNextCursor(), 2);
+    }
+
+    // Sentencias preparadas por la lectura más la serialización de lo que devuelve el controlador
+    private long statementsFor(Callable<?> read) throws Exception {
+        statistics.clear();
+        objectMapper.writeValueAsString(read.call());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void signIn(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    // Un cliente con ORDERS órdenes; cada una con 'lines' platillos, bebidas y promociones distintos
+    private User seed(int lines) {
+        int run = ++seeded;
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.save(new User("Ana", "Pérez", "cliente" + run + "@test.local", "secreto"));
+            List<Meal> meals = new ArrayList<>();
+            List<Drink> drinks = new ArrayList<>();
+            List<Promotion> promotions = new ArrayList<>();
+            for (int i = 0; i < lines; i++) {
+                meals.add(mealRepository.save(new Meal("Platillo " + run + "-" + i, null, null, null,
+                        new BigDecimal("100.00"), MealType.VEGETARIAN)));
+                drinks.add(drinkRepository.save(new Drink("Bebida " + run + "-" + i, null,
+                        new BigDecimal("30.00"), DrinkType.SODA)));
+                promotions.add(promotionRepository.save(new Promotion("Promo " + run + "-" + i, null,
+                        Promotion.PromotionType.COMBO)));
+            }
+            for (int o = 0; o < ORDERS; o++) {
+                Order order = new Order(user, new BigDecimal("500.00"), OrderType.TAKEAWAY);
+                for (int i = 0; i < lines; i++) {
+                    order.getOrderMeals().add(new OrderMeal(order, meals.get(i), 1));
+                    order.getOrderDrinks().add(new OrderDrink(order, drinks.get(i), 2));
+                    order.getOrderPromotions().add(new OrderPromotion(order, promotions.get(i), 1, new BigDecimal("80.00")));
+                }
+                orderRepository.save(order);
+            }
+            return user;
+        });
+    }
+
+    private void deleteAll() {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.deleteAll();
+            promotionRepository.deleteAll();
+            mealRepository.deleteAll();
+            drinkRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package restaurante.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import restaurante.backend.entity.Order;
+import restaurante.backend.entity.OrderStatus;
+import restaurante.backend.entity.OrderType;
+import restaurante.backend.entity.User;
+import restaurante.backend.repository.OrderRepository;
+import restaurante.backend.repository.UserRepository;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code orders.sale_pending} solo cambia por SQL dedicado: un UPDATE de la orden que
+ * confirma después de que SaleRecorder limpió la marca no debe volver a escribirla, o la
+ * venta se registraría dos veces.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderService.class)
+// Sin transacción de prueba: cada paso confirma la suya, como en la aplicación
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderSalePendingTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private MenuService menuService;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockitoBean
+    private OrderFeedService orderFeedService;
+
+    @MockitoBean
+    private TodayMetricsService todayMetricsService;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate separateTransaction;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        separateTransaction = new TransactionTemplate(transactionManager);
+        separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void laterOrderUpdateKeepsClearedFlag() {
+        Long orderId = saveOrder(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            // SaleRecorder registra la venta y confirma mientras la orden sigue cargada
+            separateTransaction.executeWithoutResult(inner ->
+                    jdbcTemplate.update("UPDATE orders SET sale_pending = false WHERE id = ?", orderId));
+            order.setStatus(OrderStatus.PREPARING);
+        });
+
+        assertThat(salePending(orderId)).isFalse();
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.PREPARING);
+    }
+
+    @Test
+    void newlyPaidOrderIsMarkedPending() {
+        Long orderId = saveOrder(false);
+        orderService.updateOrderPaidStatus(orderId, false);
+        assertThat(salePending(orderId)).isFalse();
+
+        orderService.updateOrderPaidStatus(orderId, true);
+
+        assertThat(salePending(orderId)).isTrue();
+    }
+
+    private Long saveOrder(boolean salePending) {
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.save(new User("Ana", "Pérez", "cliente@test.local", "secreto"));
+            Order order = new Order(user, new BigDecimal("120.00"), OrderType.TAKEAWAY);
+            order.setSalePending(salePending);
+            return orderRepository.save(order).getId();
+        });
+    }
+
+    private boolean salePending(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT sale_pending FROM orders WHERE id = ?", Boolean.class, orderId);
+    }
+}
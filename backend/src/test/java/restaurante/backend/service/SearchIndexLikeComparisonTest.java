@@ -0,0 +1,185 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import restaurante.backend.entity.InventoryItem;
+import restaurante.backend.entity.Meal;
+import restaurante.backend.entity.SearchKind;
+import restaurante.backend.repository.InventoryItemRepository;
+import restaurante.backend.repository.MealRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Búsqueda de los buscadores de administración sobre 100k filas sintéticas: el índice de
+ * trigramas de {@link SearchIndexService} contra las consultas {@code LOWER(x) LIKE %term%}
+ * que reemplaza ({@code InventoryItemRepository.findBySearchTerm} y
+ * {@code MealRepository.findByNameContainingIgnoreCase}).
+ *
+ * Se comprueba que el índice devuelve todo lo que encontraba el LIKE, además de los
+ * errores de tipeo. Las medianas de ambos caminos se registran como referencia, sin
+ * afirmarlas: H2 corre en el mismo proceso y en memoria, así que el LIKE no paga aquí la
+ * red ni la lectura de disco que paga en PostgreSQL.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SearchIndexService.class, SimpleMeterRegistry.class})
+// Sin transacción de prueba: los datos se confirman antes de reconstruir el índice
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// Los 200k registros se cargan una sola vez para todas las pruebas
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchIndexLikeComparisonTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexLikeComparisonTest.class);
+
+    private static final int ROWS = 100_000;
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+
+    private static final String[] INGREDIENTS = {
+            "chile", "tomate", "cebolla", "ajo", "queso", "crema", "tortilla", "frijol", "arroz", "aguacate",
+            "limon", "cilantro", "pollo", "res", "cerdo", "camaron", "pescado", "harina", "azucar", "sal",
+            "pimienta", "comino", "oregano", "canela", "vainilla", "chocolate", "cafe", "leche", "mantequilla", "huevo",
+            "papa", "zanahoria", "calabaza", "elote", "nopal", "jitomate", "epazote", "achiote", "piloncillo", "mango"};
+    private static final String[] VARIANTS = {
+            "serrano", "fresco", "seco", "molido", "entero", "organico", "importado", "ahumado", "rojo", "verde",
+            "blanco", "amarillo", "criollo", "premium", "granel", "congelado", "enlatado", "deshidratado", "picado", "tostado",
+            "habanero", "poblano", "chipotle", "guajillo", "ancho"};
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadRows() {
+        List<Object[]> items = new ArrayList<>(ROWS);
+        List<Object[]> meals = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String name = INGREDIENTS[i % INGREDIENTS.length] + " "
+                    + VARIANTS[(i / INGREDIENTS.length) % VARIANTS.length] + " " + i;
+            String description = "Lote " + (i % 997) + " de proveedor " + VARIANTS[i % VARIANTS.length];
+            items.add(new Object[]{name, description});
+            meals.add(new Object[]{"Plato de " + name, description});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO inventory_items (name, description, current_stock, minimum_stock, "
+                + "unit, category, active) VALUES (?, ?, 10, 1, 'kg', 'OTHER', true)", items);
+        jdbcTemplate.batchUpdate("INSERT INTO meals (name, description, cost, available, type) "
+                + "VALUES (?, ?, 100, true, 'VEGETARIAN')", meals);
+
+        long started = System.currentTimeMillis();
+        searchIndexService.rebuild();
+        logger.info("Indexed {} inventory items and {} meals in {} ms", ROWS, ROWS, System.currentTimeMillis() - started);
+    }
+
+    @AfterAll
+    void deleteRows() {
+        jdbcTemplate.update("DELETE FROM inventory_items");
+        jdbcTemplate.update("DELETE FROM meals");
+    }
+
+    @Test
+    void inventorySearchFindsEveryLikeMatch() {
+        for (String term : List.of("chile", "habanero", "tomate serrano 12")) {
+            List<Long> likeIds = new ArrayList<>();
+            inventoryItemRepository.findBySearchTerm(term, Pageable.unpaged()).forEach(item -> likeIds.add(item.getId()));
+            List<Long> indexIds = searchIndexService.searchIds(SearchKind.INVENTORY, term);
+
+            assertThat(likeIds).isNotEmpty();
+            assertThat(indexIds).containsAll(likeIds);
+            // Los que contienen el término completo van primero, antes que los parecidos
+            assertThat(indexIds.subList(0, likeIds.size())).containsExactlyInAnyOrderElementsOf(likeIds);
+
+            long like = medianMicros(() -> inventoryItemRepository.findBySearchTerm(term, FIRST_PAGE));
+            long index = medianMicros(() -> searchInventory(term));
+            logger.info("Inventory '{}' over {} rows ({} LIKE matches, {} index matches): "
+                    + "LIKE p50 {} us, index p50 {} us", term, ROWS, likeIds.size(), indexIds.size(), like, index);
+        }
+    }
+
+    @Test
+    void inventorySearchToleratesTypos() {
+        String typo = "tomtae";
+
+        assertThat(inventoryItemRepository.findBySearchTerm(typo, FIRST_PAGE).getTotalElements()).isZero();
+        Page<InventoryItem> page = searchInventory(typo);
+        assertThat(page.getContent()).isNotEmpty()
+                .allSatisfy(item -> assertThat(item.getName()).startsWith("tomate"));
+    }
+
+    @Test
+    void mealSearchFindsEveryLikeMatch() {
+        for (String term : List.of("aguacate", "poblano", "plato de mango ahumado")) {
+            List<Long> likeIds = new ArrayList<>();
+            mealRepository.findByNameContainingIgnoreCase(term).forEach(meal -> likeIds.add(meal.getId()));
+            List<Long> indexIds = searchIndexService.searchIds(SearchKind.MEAL, term);
+
+            assertThat(likeIds).isNotEmpty();
+            assertThat(indexIds).containsAll(likeIds);
+
+            long like = medianMicros(() -> mealRepository.findByNameContainingIgnoreCase(term));
+            long index = medianMicros(() -> mealPage(term));
+            logger.info("Meals '{}' over {} rows ({} LIKE matches, {} index matches): "
+                    + "LIKE p50 {} us, index p50 {} us", term, ROWS, likeIds.size(), indexIds.size(), like, index);
+        }
+    }
+
+    // El camino de InventoryService.searchItems: ids paginados del índice y carga por id
+    private Page<InventoryItem> searchInventory(String term) {
+        Page<Long> ids = searchIndexService.searchIds(SearchKind.INVENTORY, term, FIRST_PAGE);
+        List<InventoryItem> items = SearchIndexService.inIdOrder(ids.getContent(),
+                inventoryItemRepository.findAllById(ids.getContent()), InventoryItem::getId);
+        return new PageImpl<>(items, FIRST_PAGE, ids.getTotalElements());
+    }
+
+    private List<Meal> mealPage(String term) {
+        Page<Long> ids = searchIndexService.searchIds(SearchKind.MEAL, term, FIRST_PAGE);
+        return SearchIndexService.inIdOrder(ids.getContent(), mealRepository.findAllById(ids.getContent()), Meal::getId);
+    }
+
+    private static long medianMicros(Supplier<?> search) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            search.get();
+        }
+        long[] micros = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long started = System.nanoTime();
+            search.get();
+            micros[i] = (System.nanoTime() - started) / 1000;
+        }
+        Arrays.sort(micros);
+        return micros[TIMED_RUNS / 2];
+    }
+}
@@ -0,0 +1,79 @@
+package restaurante.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import restaurante.backend.dto.SearchResultDTO;
+import restaurante.backend.entity.SearchKind;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexServiceTest {
+
+    private SearchIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        // Sin transacción activa, index() y remove() se aplican de inmediato
+        service = new SearchIndexService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "minSimilarity", 0.4);
+        service.init();
+    }
+
+    @Test
+    void searchIdsPagesInRankingOrder() {
+        for (long id = 1; id <= 5; id++) {
+            service.index(SearchKind.INVENTORY, id, "Chile " + "x".repeat((int) id), null);
+        }
+
+        Page<Long> first = service.searchIds(SearchKind.INVENTORY, "chile", PageRequest.of(0, 2));
+        Page<Long> last = service.searchIds(SearchKind.INVENTORY, "chile", PageRequest.of(2, 2));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).containsExactly(1L, 2L);
+        assertThat(last.getContent()).containsExactly(5L);
+        assertThat(service.searchIds(SearchKind.INVENTORY, "chile", PageRequest.of(3, 2)).getContent()).isEmpty();
+        assertThat(service.searchIds(SearchKind.INVENTORY, "chile", Pageable.unpaged()).getContent()).hasSize(5);
+    }
+
+    @Test
+    void searchMergesKindsByRelevanceAndPages() {
+        service.index(SearchKind.MEAL, 10L, "Tacos al pastor", "con piña");
+        service.index(SearchKind.DRINK, 20L, "Agua de piña", null);
+        service.index(SearchKind.PROMOTION, 30L, "Tacos martes", null);
+        service.index(SearchKind.COUPON, 40L, "Tacos gratis", "TACOS");
+
+        Page<SearchResultDTO> page = service.search("tacos",
+                EnumSet.of(SearchKind.MEAL, SearchKind.DRINK, SearchKind.PROMOTION), PageRequest.of(0, 1));
+        Page<SearchResultDTO> next = service.search("tacos",
+                EnumSet.of(SearchKind.MEAL, SearchKind.DRINK, SearchKind.PROMOTION), PageRequest.of(1, 1));
+
+        // El cupón no se pidió y la bebida no menciona tacos; a igual puntaje, primero el nombre más corto
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(SearchResultDTO::getId).containsExactly(30L);
+        assertThat(next.getContent()).extracting(SearchResultDTO::getKind).containsExactly(SearchKind.MEAL);
+    }
+
+    @Test
+    void removeTakesDocumentOutOfResults() {
+        service.index(SearchKind.PRODUCT, 1L, "Servilletas", null);
+        service.remove(SearchKind.PRODUCT, 1L);
+
+        assertThat(service.searchIds(SearchKind.PRODUCT, "servilletas")).isEmpty();
+    }
+
+    @Test
+    void inIdOrderFollowsSearchOrderAndSkipsMissing() {
+        List<String> ordered = SearchIndexService.inIdOrder(List.of(3L, 1L, 2L), List.of("1", "3"), Long::valueOf);
+
+        assertThat(ordered).containsExactly("3", "1");
+    }
+}